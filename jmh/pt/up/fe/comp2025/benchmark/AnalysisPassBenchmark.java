@@ -0,0 +1,66 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.analysis.AnalysisVisitor;
+import pt.up.fe.comp2025.analysis.passes.*;
+import pt.up.fe.comp2025.ast.CompactAst;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Each semantic analysis pass on its own, over an already built symbol table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnalysisPassBenchmark {
+
+    private static final Map<String, Supplier<AnalysisVisitor>> PASSES = Map.of(
+            "UndeclaredVariable", UndeclaredVariable::new,
+            "InvalidOperationCheck", InvalidOperationCheck::new,
+            "ControlFlowTypeCheck", ControlFlowTypeCheck::new,
+            "ArrayOperationCheck", ArrayOperationCheck::new,
+            "ReturnStmt", ReturnStmt::new,
+            "AssignmentCheck", AssignmentCheck::new,
+            "ArgumentCheck", ArgumentCheck::new,
+            "ImportCheck", ImportCheck::new,
+            "VarDeclCheck", VarDeclCheck::new);
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    @Param({"UndeclaredVariable", "InvalidOperationCheck", "ControlFlowTypeCheck", "ArrayOperationCheck",
+            "ReturnStmt", "AssignmentCheck", "ArgumentCheck", "ImportCheck", "VarDeclCheck"})
+    public String pass;
+
+    @Param({"false", "true"})
+    public boolean compactAst;
+
+    private JmmNode root;
+    private SymbolTable table;
+    private Supplier<AnalysisVisitor> passFactory;
+
+    @Setup
+    public void setup() {
+        var semanticsResult = BenchmarkInputs.analyze(size.getSource());
+        // The passes only read the AST, so they can run over a compact copy of it
+        root = compactAst ? CompactAst.of(semanticsResult.getRootNode()).getRoot() : semanticsResult.getRootNode();
+        table = semanticsResult.getSymbolTable();
+        passFactory = PASSES.get(pass);
+    }
+
+    @Benchmark
+    public List<Report> analyze() {
+        // Passes accumulate reports, so each run uses a new instance
+        return passFactory.get().analyze(root, table);
+    }
+}
@@ -0,0 +1,38 @@
+package pt.up.fe.comp2025.benchmark;
+
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+
+/**
+ * Java-- programs used as input by the benchmarks, created by {@link JmmProgramGenerator}.
+ */
+public enum BenchmarkCorpus {
+
+    small(4, 10),
+    medium(40, 50),
+    huge(200, 400);
+
+    private final int methods;
+    private final int statementsPerMethod;
+    private String source;
+
+    BenchmarkCorpus(int methods, int statementsPerMethod) {
+        this.methods = methods;
+        this.statementsPerMethod = statementsPerMethod;
+    }
+
+    public synchronized String getSource() {
+        if (source == null) {
+            source = JmmProgramGenerator.builder()
+                    .methods(methods)
+                    .statementsPerMethod(statementsPerMethod)
+                    .loopDepth(2)
+                    .variables(8)
+                    .callDensity(0.1)
+                    .arrayUsage(0.1)
+                    .build()
+                    .generate("Bench");
+        }
+
+        return source;
+    }
+}
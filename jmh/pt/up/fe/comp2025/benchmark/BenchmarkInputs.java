@@ -0,0 +1,54 @@
+package pt.up.fe.comp2025.benchmark;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.optimization.OllirGeneratorVisitor;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the stages before the one being measured, so each benchmark starts from the right input.
+ */
+public class BenchmarkInputs {
+
+    public static Map<String, String> config() {
+        return new HashMap<>();
+    }
+
+    public static JmmParserResult parse(String code) {
+        var parserResult = new JmmParserImpl().parse(code, config());
+        if (parserResult.getRootNode() == null || ReportUtils.anyError(parserResult.getReports())) {
+            throw new RuntimeException("Benchmark input does not parse: " + parserResult.getReports());
+        }
+
+        return parserResult;
+    }
+
+    public static JmmSemanticsResult analyze(String code) {
+        var semanticsResult = new JmmAnalysisImpl().semanticAnalysis(parse(code));
+        if (ReportUtils.anyError(semanticsResult.getReports())) {
+            throw new RuntimeException("Benchmark input has semantic errors: " + semanticsResult.getReports());
+        }
+
+        return semanticsResult;
+    }
+
+    public static String ollirCode(String code) {
+        var semanticsResult = analyze(code);
+        return new OllirGeneratorVisitor(semanticsResult.getSymbolTable()).visit(semanticsResult.getRootNode());
+    }
+
+    public static OllirResult ollir(String ollirCode, Map<String, String> config) {
+        return new OllirResult(ollirCode, config);
+    }
+
+    public static OllirResult ollir(String ollirCode) {
+        return ollir(ollirCode, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,34 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.backend.JasminGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jasmin code generation from OLLIR ({@link JasminGenerator#build}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JasminGeneratorBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    private OllirResult ollirResult;
+
+    @Setup
+    public void setup() {
+        ollirResult = BenchmarkInputs.ollir(BenchmarkInputs.ollirCode(size.getSource()));
+    }
+
+    @Benchmark
+    public String build() {
+        return new JasminGenerator(ollirResult).build();
+    }
+}
@@ -0,0 +1,38 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.optimization.OllirGeneratorVisitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OLLIR code generation from the AST ({@link OllirGeneratorVisitor}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OllirGeneratorBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    private JmmNode root;
+    private SymbolTable table;
+
+    @Setup
+    public void setup() {
+        var semanticsResult = BenchmarkInputs.analyze(size.getSource());
+        root = semanticsResult.getRootNode();
+        table = semanticsResult.getSymbolTable();
+    }
+
+    @Benchmark
+    public String generate() {
+        return new OllirGeneratorVisitor(table).visit(root);
+    }
+}
@@ -0,0 +1,35 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.optimization.OptimizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Constant propagation and folding until the fixed point ({@link OptimizationManager#optimize}).
+ * The optimizations rewrite the AST, so every invocation gets a freshly parsed tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OptimizationBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    private JmmNode root;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        root = BenchmarkInputs.parse(size.getSource()).getRootNode();
+    }
+
+    @Benchmark
+    public boolean optimize() {
+        return new OptimizationManager().optimize(root, true);
+    }
+}
@@ -0,0 +1,43 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing, parsing and conversion to the AST ({@link JmmParserImpl#parse}), with the two-stage SLL/LL parse
+ * or with full LL only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParserBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    @Param({"true", "false"})
+    public boolean sllFirst;
+
+    private String code;
+    private Map<String, String> config;
+    private JmmParserImpl parser;
+
+    @Setup
+    public void setup() {
+        code = size.getSource();
+        config = BenchmarkInputs.config();
+        parser = new JmmParserImpl(sllFirst);
+    }
+
+    @Benchmark
+    public JmmParserResult parse() {
+        return parser.parse(code, config);
+    }
+}
@@ -0,0 +1,47 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.optimization.RegisterAllocator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Register allocation ({@link RegisterAllocator#allocateRegisters}), minimizing registers ({@code -r=0})
+ * or limited to a number of registers ({@code -r=N}). Allocation rewrites the variable tables, so every
+ * invocation gets a freshly parsed OLLIR class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RegisterAllocatorBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    @Param({"0", "32"})
+    public int registers;
+
+    private String ollirCode;
+    private OllirResult ollirResult;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        ollirCode = BenchmarkInputs.ollirCode(size.getSource());
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        ollirResult = BenchmarkInputs.ollir(ollirCode);
+    }
+
+    @Benchmark
+    public List<Report> allocate() {
+        return new RegisterAllocator().allocateRegisters(ollirResult, registers);
+    }
+}
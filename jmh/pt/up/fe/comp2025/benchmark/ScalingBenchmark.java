@@ -0,0 +1,52 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp2025.CompilationPipeline;
+import pt.up.fe.comp2025.CompilationResult;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole compilation of generated programs of growing size, to chart compile time against input size.
+ * The stage benchmarks, or the compiler's '-t' report, break each point down by stage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScalingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int methods;
+
+    @Param({"10", "100", "1000"})
+    public int statementsPerMethod;
+
+    @Param({"1", "3"})
+    public int loopDepth;
+
+    private String code;
+    private Map<String, String> config;
+    private CompilationPipeline pipeline;
+
+    @Setup
+    public void setup() {
+        code = JmmProgramGenerator.builder()
+                .methods(methods)
+                .statementsPerMethod(statementsPerMethod)
+                .loopDepth(loopDepth)
+                .build()
+                .generate("Scaling");
+        config = BenchmarkInputs.config();
+        pipeline = new CompilationPipeline();
+    }
+
+    @Benchmark
+    public CompilationResult compile() {
+        return pipeline.compile(code, config);
+    }
+}
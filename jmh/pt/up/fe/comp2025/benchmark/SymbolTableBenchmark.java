@@ -0,0 +1,35 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symbol table construction ({@link JmmSymbolTableBuilder#build}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SymbolTableBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public BenchmarkCorpus size;
+
+    private JmmNode root;
+
+    @Setup
+    public void setup() {
+        root = BenchmarkInputs.parse(size.getSource()).getRootNode();
+    }
+
+    @Benchmark
+    public JmmSymbolTable build() {
+        return new JmmSymbolTableBuilder().build(root);
+    }
+}
@@ -8,6 +8,7 @@ CLASS : 'class' ;
 INT : 'int' ;
 PUBLIC : 'public' ;
 RETURN : 'return' ;
+ELSE : 'else' ;
 BOOLEAN: 'boolean';
 STRING: 'String';
 
@@ -84,7 +85,9 @@ type
 
 stmt
     : '{' stmt* '}' #BlockStmt
-    | 'if' '(' expr ')' stmt ('else' stmt)? #IfStmt
+    // An 'else' always belongs to the innermost 'if'. The predicate only lets the 'else' be skipped when there is
+    // none, so that the prediction never needs full LL to solve the ambiguity (and the AST is the same)
+    | 'if' '(' expr ')' stmt (ELSE stmt | {_input.LA(1) != ELSE}?) #IfStmt
     | 'while' '(' expr ')' stmt #WhileStmt
     | expr ';' #ExprStmt
     | varName=ID '=' expr ';' #AssignStmt
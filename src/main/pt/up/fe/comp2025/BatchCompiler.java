@@ -0,0 +1,162 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compiles several .jmm files, writing the Jasmin code of each class to {@code <ClassName>.j}.
+ * <p>
+ * Files are independent, so they can be compiled concurrently by a pool of workers. Each worker
+ * thread owns its own {@link CompilationPipeline} (stages keep mutable state, such as the constant
+ * propagation maps), which is reused for every file that worker compiles. Reports and outputs
+ * are always handled in input order, whatever the number of workers, and a file whose compilation
+ * throws only fails itself.
+ */
+public class BatchCompiler {
+
+    private final Map<String, String> config;
+    private final int jobs;
+    private final ThreadLocal<CompilationPipeline> pipelines;
+
+    // Measurements of the last call to compileAll, if timing is enabled
+    private final CompilerMetrics totalMetrics;
+    private final Map<String, CompilerMetrics> fileMetrics;
+
+    public BatchCompiler(Map<String, String> config) {
+        this(config, CompilerConfig.getJobs(config));
+    }
+
+    public BatchCompiler(Map<String, String> config, int jobs) {
+        this.config = config;
+        this.jobs = jobs;
+        this.pipelines = ThreadLocal.withInitial(CompilationPipeline::new);
+        this.totalMetrics = CompilerConfig.getTiming(config) ? new CompilerMetrics() : CompilerMetrics.disabled();
+        this.fileMetrics = new LinkedHashMap<>();
+    }
+
+    /**
+     * Sum of the measurements of all files, plus the wall time of the whole batch ("batch").
+     */
+    public CompilerMetrics getTotalMetrics() {
+        return totalMetrics;
+    }
+
+    /**
+     * Measurements of each file, in input order.
+     */
+    public Map<String, CompilerMetrics> getFileMetrics() {
+        return fileMetrics;
+    }
+
+    /**
+     * Compiles the given files.
+     *
+     * @param inputFiles the .jmm files to compile
+     * @param outputDir  where the .j files are written; if null, each file is written next to its source
+     * @return the number of files that failed to compile
+     */
+    public int compileAll(List<File> inputFiles, File outputDir) {
+        List<CompilationResult> results;
+        try (var timer = totalMetrics.start("batch")) {
+            results = jobs > 1 && inputFiles.size() > 1 ? compileParallel(inputFiles) : compileSequential(inputFiles);
+        }
+
+        int failed = 0;
+        for (int i = 0; i < inputFiles.size(); i++) {
+            var result = results.get(i);
+            if (!writeResult(inputFiles.get(i), result, outputDir)) {
+                failed++;
+            }
+
+            if (totalMetrics.isEnabled()) {
+                totalMetrics.addAll(result.getMetrics());
+                fileMetrics.put(inputFiles.get(i).getPath(), result.getMetrics());
+            }
+        }
+
+        System.out.println("Compiled " + (inputFiles.size() - failed) + " of " + inputFiles.size() + " files.");
+
+        return failed;
+    }
+
+    private List<CompilationResult> compileSequential(List<File> inputFiles) {
+        var results = new ArrayList<CompilationResult>(inputFiles.size());
+        for (File inputFile : inputFiles) {
+            results.add(compile(inputFile));
+        }
+
+        return results;
+    }
+
+    private List<CompilationResult> compileParallel(List<File> inputFiles) {
+        var pool = new ForkJoinPool(jobs);
+
+        try {
+            var tasks = new ArrayList<ForkJoinTask<CompilationResult>>(inputFiles.size());
+            for (File inputFile : inputFiles) {
+                tasks.add(pool.submit(() -> compile(inputFile)));
+            }
+
+            var results = new ArrayList<CompilationResult>(inputFiles.size());
+            for (var task : tasks) {
+                results.add(task.join());
+            }
+
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Compiles a single file and writes its output.
+     *
+     * @return true if the file compiled without errors
+     */
+    public boolean compileFile(File inputFile, File outputDir) {
+        return writeResult(inputFile, compile(inputFile), outputDir);
+    }
+
+    private boolean writeResult(File inputFile, CompilationResult result, File outputDir) {
+        if (result.hasErrors()) {
+            System.err.println("Failed to compile '" + inputFile + "':");
+            for (Report report : result.getReports()) {
+                System.err.println("  " + report);
+            }
+            return false;
+        }
+
+        File targetDir = outputDir != null ? outputDir : inputFile.getAbsoluteFile().getParentFile();
+        SpecsIo.write(new File(targetDir, result.getClassName() + ".j"), result.getJasminCode());
+
+        return true;
+    }
+
+    /**
+     * Compiles a file with the pipeline of the calling thread. An exception while compiling the file (e.g., it can
+     * not be read), or a stack overflow on a deeply nested program, fails only that file, with the error as its
+     * report. Other errors of the virtual machine (e.g., out of memory) still stop the batch.
+     */
+    public CompilationResult compile(File inputFile) {
+        // Each file gets its own copy of the configuration, pointing at itself
+        var fileConfig = new HashMap<>(config);
+        fileConfig.put(ConfigOptions.getInputFile(), inputFile.getAbsolutePath());
+
+        try {
+            return pipelines.get().compile(inputFile.toPath(), fileConfig);
+        } catch (RuntimeException | StackOverflowError e) {
+            var metrics = CompilerConfig.getTiming(config) ? new CompilerMetrics() : CompilerMetrics.disabled();
+            return CompilationResult.failed(e, metrics);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package pt.up.fe.comp2025;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of compilation outputs ('-b').
+ * <p>
+ * Each compilation is stored in its own file, named after a hash of everything that determines its output:
+ * the source code, the options that change the generated code, the classes on the classpath and the compiler
+ * itself. A hit returns the stored OLLIR, Jasmin and reports without running any stage.
+ * <p>
+ * The cache never makes a compilation fail: files that cannot be read are misses, and files that cannot be
+ * written are logged as warnings and skipped.
+ */
+public class BuildCache {
+
+    // Options that change the generated code (the optimizations are enabled by the presence of either key)
+    private static final List<String> OUTPUT_OPTIONS = List.of("optimize", "-o", "registerAllocation", "classpath",
+            "keepPropagatedStores");
+
+    private static final Gson GSON = new Gson();
+
+    private final File cacheDir;
+    private final CompilerLogger logger;
+
+    public BuildCache(File cacheDir, CompilerLogger logger) {
+        this.cacheDir = cacheDir;
+        this.logger = logger;
+    }
+
+    /**
+     * The build cache selected by the '-b' option, if any.
+     */
+    public static Optional<BuildCache> forConfig(Map<String, String> config) {
+        return CompilerConfig.getBuildCacheDir(config).map(dir -> new BuildCache(dir, CompilerLogger.forConfig(config)));
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * The key of a compilation, a hash of its source code and of everything else its output depends on.
+     */
+    public static String key(String code, Map<String, String> config) {
+        return key(code, config, SignatureIndex.forConfig(config));
+    }
+
+    /**
+     * The key of a compilation, with the index of its classpath already resolved.
+     */
+    public static String key(String code, Map<String, String> config, SignatureIndex signatures) {
+        var digest = sha256();
+
+        updateBuild(digest, config, signatures);
+        digest.update(code.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The key of the compilation of a file, the same as {@link #key(String, Map)} for its contents, hashed from
+     * the mapped file instead of a string.
+     */
+    public static String key(Path file, Map<String, String> config) throws IOException {
+        return key(file, config, SignatureIndex.forConfig(config));
+    }
+
+    public static String key(Path file, Map<String, String> config, SignatureIndex signatures) throws IOException {
+        var digest = sha256();
+
+        updateBuild(digest, config, signatures);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Adds to the digest everything besides the source code that the output depends on: the compiler, the options
+     * and the classes on the classpath, given by the index resolved for the compilation.
+     */
+    static void updateBuild(MessageDigest digest, Map<String, String> config, SignatureIndex signatures) {
+        digest.update(CompilerVersion.VERSION.getBytes(StandardCharsets.UTF_8));
+        for (var option : OUTPUT_OPTIONS) {
+            digest.update((option + "=" + config.get(option) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(signatures.getFingerprint().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The stored result of a compilation, or empty if it is not in the cache (or its file cannot be read).
+     */
+    public Optional<CompilationResult> get(String key, Map<String, String> config, CompilerMetrics metrics) {
+        var file = getFile(key);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        Entry entry;
+        try {
+            entry = GSON.fromJson(Files.readString(file.toPath()), Entry.class);
+        } catch (IOException | JsonParseException e) {
+            return Optional.empty();
+        }
+
+        if (entry == null || entry.reports == null) {
+            return Optional.empty();
+        }
+
+        var reports = new ArrayList<Report>(entry.reports.size());
+        for (var report : entry.reports) {
+            reports.add(report.toReport());
+        }
+
+        var jasminResult = entry.jasmin == null ? null : new JasminResult(entry.className, entry.jasmin, reports, config);
+
+        return Optional.of(CompilationResult.fromCache(jasminResult, entry.ollir, reports, metrics));
+    }
+
+    /**
+     * Stores the result of a compilation.
+     */
+    public void put(String key, CompilationResult result) {
+        var entry = new Entry();
+        entry.className = result.getClassName();
+        entry.ollir = result.getOllirCode();
+        entry.jasmin = result.getJasminCode();
+        entry.reports = new ArrayList<>();
+        for (var report : result.getReports()) {
+            entry.reports.add(StoredReport.of(report, 0));
+        }
+
+        write(getFile(key), GSON.toJson(entry));
+    }
+
+    /**
+     * Writes a file of the cache, through a temporary file so that concurrent compilers never read a partial file.
+     * When the file cannot be written, a warning is logged and the cache is left as it was.
+     */
+    void write(File file, String contents) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            Files.writeString(tempFile, contents);
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn(Phase.CACHE, () -> "Could not write to the build cache '" + cacheDir + "': " + e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Only a leftover temporary file
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(cacheDir, key + ".json");
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Entry {
+        String className;
+        String ollir;
+        String jasmin;
+        List<StoredReport> reports;
+    }
+
+    /**
+     * A report as written to the cache. Lines can be stored relative to a base line, so that reports inside a
+     * method stay valid when code above the method moves.
+     */
+    static class StoredReport {
+        String type;
+        String stage;
+        int line;
+        int column;
+        String message;
+
+        static StoredReport of(Report report, int baseLine) {
+            var storedReport = new StoredReport();
+            storedReport.type = report.getType().name();
+            storedReport.stage = report.getStage().name();
+            storedReport.line = report.getLine() < 0 ? report.getLine() : report.getLine() - baseLine;
+            storedReport.column = report.getColumn();
+            storedReport.message = report.getMessage();
+            return storedReport;
+        }
+
+        Report toReport() {
+            return toReport(0);
+        }
+
+        Report toReport(int baseLine) {
+            return new Report(ReportType.valueOf(type), Stage.valueOf(stage), line < 0 ? line : line + baseLine,
+                    column, message);
+        }
+    }
+
+    /**
+     * Identifies the build of the compiler, by hashing its classes, so that entries written by another build
+     * are never used. Computed once, the first time the cache is used.
+     */
+    private static class CompilerVersion {
+
+        private static final String VERSION = compute();
+
+        private static String compute() {
+            try {
+                var location = Path.of(BuildCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                var digest = sha256();
+
+                if (Files.isDirectory(location)) {
+                    try (Stream<Path> files = Files.walk(location)) {
+                        for (var file : files.filter(Files::isRegularFile).sorted().toList()) {
+                            digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                            digest.update(Files.readAllBytes(file));
+                        }
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(location));
+                }
+
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (IOException | URISyntaxException | SecurityException e) {
+                // Without a known build, entries can not be trusted across compiler versions
+                return "unknown-" + System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds one instance of each compiler stage so that several sources can be compiled
+ * without re-creating the stages (and losing JIT warmup) for every file.
+ * <p>
+ * Stages run in the same order as in {@link pt.up.fe.comp.TestUtils}. Compilation stops
+ * at the first stage that reports errors. A pipeline is not thread-safe.
+ */
+public class CompilationPipeline {
+
+    private final JmmParserImpl parser;
+    private final JmmAnalysisImpl analysis;
+    private final JmmOptimizationImpl optimization;
+    private final JasminBackendImpl backend;
+
+    // Measurements of the compilation in progress, created when parsing starts
+    private CompilerMetrics metrics;
+
+    public CompilationPipeline() {
+        this.parser = new JmmParserImpl();
+        this.analysis = new JmmAnalysisImpl();
+        this.optimization = new JmmOptimizationImpl();
+        this.backend = new JasminBackendImpl();
+    }
+
+    /**
+     * Compiles the code. If the config has a build cache ('-b'), the result is read from it when the same
+     * compilation already ran, and stored in it otherwise. In that case, only the methods that changed since the
+     * class was last compiled go through the stages again (see {@link IncrementalCompilation}).
+     */
+    public CompilationResult compile(String code, Map<String, String> config) {
+        return compile(config, signatures -> BuildCache.key(code, config, signatures), () -> parseCode(code, config));
+    }
+
+    /**
+     * Compiles a file, like {@link #compile(String, Map)}, reading it directly instead of through a string.
+     */
+    public CompilationResult compile(Path file, Map<String, String> config) {
+        return compile(config, signatures -> {
+            try {
+                return BuildCache.key(file, config, signatures);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read file '" + file + "'", e);
+            }
+        }, () -> parseFile(file, config));
+    }
+
+    private CompilationResult compile(Map<String, String> config, Function<SignatureIndex, String> cacheKey,
+                                      Supplier<JmmParserResult> parse) {
+        startCompilation(config);
+
+        var buildCache = BuildCache.forConfig(config);
+        if (buildCache.isEmpty()) {
+            return compile(parse.get());
+        }
+
+        // Resolved once, for the key of the compilation, its symbol table and the keys of its methods
+        SignatureIndex signatures;
+        try (var timer = metrics.start("analysis/signatures")) {
+            signatures = SignatureIndex.forConfig(config);
+        }
+        analysis.setSignatures(signatures);
+
+        String key;
+        Optional<CompilationResult> cached;
+        try (var timer = metrics.start("cache")) {
+            key = cacheKey.apply(signatures);
+            cached = buildCache.get().get(key, config, metrics);
+        }
+
+        if (cached.isPresent()) {
+            metrics.count("cache/hits", 1);
+            return cached.get();
+        }
+        metrics.count("cache/misses", 1);
+
+        var result = compile(parse.get(), buildCache.get());
+        buildCache.get().put(key, result);
+
+        return result;
+    }
+
+    /**
+     * Parses the code, starting a new compilation. If the config enables timing ('-t'), the stages
+     * record their measurements until the next call to this method.
+     */
+    public JmmParserResult parse(String code, Map<String, String> config) {
+        startCompilation(config);
+
+        return parseCode(code, config);
+    }
+
+    private void startCompilation(Map<String, String> config) {
+        metrics = CompilerConfig.getTiming(config) ? new CompilerMetrics() : CompilerMetrics.disabled();
+        parser.setMetrics(metrics);
+        analysis.setMetrics(metrics);
+        optimization.setMetrics(metrics);
+        backend.setMetrics(metrics);
+        analysis.setSignatures(null);
+        setIncremental(IncrementalCompilation.disabled());
+    }
+
+    private void setIncremental(IncrementalCompilation incremental) {
+        analysis.setIncremental(incremental);
+        optimization.setIncremental(incremental);
+        backend.setIncremental(incremental);
+    }
+
+    /**
+     * Parses a file, starting a new compilation. The file is read by the lexer as it goes, without a copy of its
+     * whole contents in a string.
+     */
+    public JmmParserResult parse(Path file, Map<String, String> config) {
+        startCompilation(config);
+
+        return parseFile(file, config);
+    }
+
+    private JmmParserResult parseCode(String code, Map<String, String> config) {
+        try (var timer = metrics.start("parse")) {
+            return parser.parse(code, config);
+        }
+    }
+
+    private JmmParserResult parseFile(Path file, Map<String, String> config) {
+        try (var timer = metrics.start("parse")) {
+            return parser.parse(file, config);
+        }
+    }
+
+    /**
+     * Runs the stages after parsing.
+     */
+    public CompilationResult compile(JmmParserResult parserResult) {
+        return compile(parserResult, null);
+    }
+
+    private CompilationResult compile(JmmParserResult parserResult, BuildCache buildCache) {
+
+        if (parserResult.getRootNode() == null || ReportUtils.anyError(parserResult.getReports())) {
+            return new CompilationResult(parserResult, null, null, null, metrics);
+        }
+
+        // Semantic Analysis stage
+        JmmSemanticsResult semanticsResult;
+        try (var timer = metrics.start("analysis")) {
+            semanticsResult = analysis.buildSymbolTable(parserResult);
+            if (ReportUtils.anyError(semanticsResult.getReports())) {
+                return new CompilationResult(parserResult, semanticsResult, null, null, metrics);
+            }
+        }
+
+        // The keys of the methods are computed before the optimizations change the AST
+        var incremental = IncrementalCompilation.disabled();
+        if (buildCache != null) {
+            try (var timer = metrics.start("incremental")) {
+                incremental = IncrementalCompilation.start(buildCache, semanticsResult, metrics);
+            }
+            setIncremental(incremental);
+        }
+
+        var result = compileAnalyzed(parserResult, semanticsResult);
+        incremental.save();
+
+        return result;
+    }
+
+    private CompilationResult compileAnalyzed(JmmParserResult parserResult, JmmSemanticsResult semanticsResult) {
+        try (var timer = metrics.start("analysis")) {
+            semanticsResult = analysis.semanticAnalysis(semanticsResult);
+        }
+        if (ReportUtils.anyError(semanticsResult.getReports())) {
+            return new CompilationResult(parserResult, semanticsResult, null, null, metrics);
+        }
+
+        // Optimization stage
+        semanticsResult = optimization.optimize(semanticsResult);
+        OllirResult ollirResult = optimization.toOllir(semanticsResult);
+        if (ReportUtils.anyError(ollirResult.getReports())) {
+            return new CompilationResult(parserResult, semanticsResult, ollirResult, null, metrics);
+        }
+        ollirResult = optimization.optimize(ollirResult);
+
+        // Code generation stage
+        JasminResult jasminResult = backend.toJasmin(ollirResult);
+
+        return new CompilationResult(parserResult, semanticsResult, ollirResult, jasminResult, metrics);
+    }
+}
@@ -0,0 +1,139 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp.jmm.report.StageResult;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of running a single source file through the {@link CompilationPipeline}.
+ * Stages that were not reached (because an earlier stage reported errors) are null.
+ */
+public class CompilationResult {
+
+    private final JmmParserResult parserResult;
+    private final JmmSemanticsResult semanticsResult;
+    private final OllirResult ollirResult;
+    private final JasminResult jasminResult;
+    private final CompilerMetrics metrics;
+
+    // Set when the outputs do not come from the stage results (read from the build cache, or a failed compilation)
+    private final String cachedOllirCode;
+    private final List<Report> cachedReports;
+    private final boolean cached;
+
+    public CompilationResult(JmmParserResult parserResult, JmmSemanticsResult semanticsResult,
+                             OllirResult ollirResult, JasminResult jasminResult, CompilerMetrics metrics) {
+        this(parserResult, semanticsResult, ollirResult, jasminResult, metrics, null, null, false);
+    }
+
+    private CompilationResult(JmmParserResult parserResult, JmmSemanticsResult semanticsResult,
+                              OllirResult ollirResult, JasminResult jasminResult, CompilerMetrics metrics,
+                              String cachedOllirCode, List<Report> cachedReports, boolean cached) {
+        this.parserResult = parserResult;
+        this.semanticsResult = semanticsResult;
+        this.ollirResult = ollirResult;
+        this.jasminResult = jasminResult;
+        this.metrics = metrics;
+        this.cachedOllirCode = cachedOllirCode;
+        this.cachedReports = cachedReports;
+        this.cached = cached;
+    }
+
+    /**
+     * A result read from the {@link BuildCache}, which only has the outputs and reports of the compilation.
+     *
+     * @param jasminResult the generated code, or null if the compilation failed
+     */
+    public static CompilationResult fromCache(JasminResult jasminResult, String ollirCode, List<Report> reports,
+                                              CompilerMetrics metrics) {
+        return new CompilationResult(null, null, null, jasminResult, metrics, ollirCode, reports, true);
+    }
+
+    /**
+     * A compilation that stopped with an exception or a stack overflow, which is its only (error) report.
+     */
+    public static CompilationResult failed(Throwable error, CompilerMetrics metrics) {
+        var message = error instanceof StackOverflowError ? "the program is nested too deeply" : error.getMessage();
+        var exception = error instanceof Exception e ? e : new RuntimeException(error);
+        var report = Report.newError(Stage.OTHER, -1, -1, "Could not compile: " + message, exception);
+
+        return new CompilationResult(null, null, null, null, metrics, null, List.of(report), false);
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public JmmParserResult getParserResult() {
+        return parserResult;
+    }
+
+    public JmmSemanticsResult getSemanticsResult() {
+        return semanticsResult;
+    }
+
+    public OllirResult getOllirResult() {
+        return ollirResult;
+    }
+
+    public JasminResult getJasminResult() {
+        return jasminResult;
+    }
+
+    /**
+     * Reports of the last stage that ran. Each stage result already carries the reports of the previous stages.
+     */
+    public List<Report> getReports() {
+        if (cachedReports != null) {
+            return cachedReports;
+        }
+
+        StageResult last = jasminResult != null ? jasminResult
+                : ollirResult != null ? ollirResult
+                : semanticsResult != null ? semanticsResult
+                : parserResult;
+
+        return last == null ? Collections.emptyList() : last.getReports();
+    }
+
+    /**
+     * OLLIR code of the class, or null if compilation did not reach the OLLIR generation.
+     */
+    public String getOllirCode() {
+        return ollirResult != null ? ollirResult.getOllirCode() : cachedOllirCode;
+    }
+
+    /**
+     * Jasmin code of the class, or null if compilation did not reach the backend.
+     */
+    public String getJasminCode() {
+        return jasminResult == null ? null : jasminResult.getJasminCode();
+    }
+
+    /**
+     * Measurements of the compilation, disabled unless timing ('-t') was requested.
+     */
+    public CompilerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean hasErrors() {
+        return jasminResult == null || ReportUtils.anyError(getReports());
+    }
+
+    /**
+     * Name of the compiled class, or null if compilation did not reach the backend.
+     */
+    public String getClassName() {
+        return jasminResult == null ? null : jasminResult.getClassName();
+    }
+}
@@ -0,0 +1,267 @@
+package pt.up.fe.comp2025;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Long-lived compiler daemon listening on a loopback socket.
+ * <p>
+ * The protocol is line-delimited JSON. Each request is a single line with the source code and a
+ * configuration map using the {@link CompilerConfig} keys:
+ * <pre>
+ * {"source": "class A {}", "config": {"optimize": "true", "registerAllocation": "0"}}
+ * </pre>
+ * and gets a single line back:
+ * <pre>
+ * {"success": true, "className": "A", "reports": [...], "ollir": "...", "jasmin": "..."}
+ * </pre>
+ * If the config enables timing, the response also has the "metrics" of the compilation.
+ * <p>
+ * A request may only set the options that change how its code is compiled (optimizations, register allocation,
+ * kept propagated stores, timing, parallel analysis, parser profile and compact AST); a request with any other
+ * option gets an error.
+ * Options that name files or folders, such as the classpath ('-c') and the build cache ('-b'), and the log
+ * options, are settings of the server, given when it is started, and apply to every request.
+ * A connection may send any number of requests. Sending {"command": "shutdown"} stops the server,
+ * after answering it.
+ * <p>
+ * Each connection is read by its own virtual thread, so clients that keep an idle connection open
+ * never delay the others. The compilations run on a fixed pool of workers, each keeping its own
+ * warm {@link CompilationPipeline}. Closing the server closes the open connections.
+ */
+public class CompileServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7777;
+
+    // The options a request can set
+    private static final Set<String> REQUEST_OPTIONS = Set.of("optimize", "registerAllocation", "timing",
+            "parallelAnalysis", "parserProfile", "compactAst", "keepPropagatedStores");
+
+    // The options of the server command line that apply to all requests
+    private static final List<String> SERVER_OPTIONS = List.of("classpath", "buildCache", "verbosity", "logPhases");
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final ExecutorService connections;
+    private final Set<Socket> openSockets;
+    private final ThreadLocal<CompilationPipeline> pipelines;
+    private final Gson gson;
+    private final Map<String, String> serverConfig;
+
+    // Set by the shutdown command, the server closes once the command is answered
+    private volatile boolean shutdownRequested;
+
+    public CompileServer(int port, int workers) throws IOException {
+        this(port, workers, Map.of());
+    }
+
+    /**
+     * A server whose requests use the server options ({@link #SERVER_OPTIONS}) of the given config.
+     */
+    public CompileServer(int port, int workers, Map<String, String> config) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(workers);
+        this.connections = Executors.newVirtualThreadPerTaskExecutor();
+        this.openSockets = ConcurrentHashMap.newKeySet();
+        this.pipelines = ThreadLocal.withInitial(CompilationPipeline::new);
+        this.gson = new Gson();
+
+        this.serverConfig = new HashMap<>();
+        for (var option : SERVER_OPTIONS) {
+            if (config.containsKey(option)) {
+                serverConfig.put(option, config.get(option));
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                openSockets.add(socket);
+                connections.submit(() -> handleConnection(socket));
+            } catch (RejectedExecutionException e) {
+                // The server was closed after accepting the connection, which close() already closed
+            } catch (IOException e) {
+                // Thrown by accept() when the server is closed
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Could not accept connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Could not close server socket: " + e.getMessage());
+        }
+
+        // Connections blocked reading their next request end when their socket is closed
+        for (var socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Could not close connection: " + e.getMessage());
+            }
+        }
+        connections.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void handleConnection(Socket socket) {
+        try (socket;
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                writer.write(gson.toJson(handleRequest(line)));
+                writer.newLine();
+                writer.flush();
+
+                if (shutdownRequested) {
+                    close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Closing the server closes the connections still open
+            if (!serverSocket.isClosed()) {
+                System.err.println("Connection error: " + e.getMessage());
+            }
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Processes a single request line, returning the response object. Commands run on the calling thread, and
+     * compilations on one of the workers.
+     */
+    public Map<String, Object> handleRequest(String requestLine) {
+        try {
+            JsonObject request = JsonParser.parseString(requestLine).getAsJsonObject();
+
+            if (request.has("command")) {
+                return handleCommand(request.get("command").getAsString());
+            }
+
+            if (!request.has("source")) {
+                return errorResponse("Request has no 'source' field");
+            }
+
+            var config = new HashMap<>(serverConfig);
+            if (request.has("config")) {
+                for (Map.Entry<String, JsonElement> entry : request.getAsJsonObject("config").entrySet()) {
+                    if (!REQUEST_OPTIONS.contains(entry.getKey())) {
+                        return errorResponse("Option '" + entry.getKey() + "' can not be set by a request");
+                    }
+                    config.put(entry.getKey(), entry.getValue().getAsString());
+                }
+            }
+
+            var source = request.get("source").getAsString();
+            var result = workers.submit(() -> pipelines.get().compile(source, config)).get();
+
+            return compileResponse(result);
+        } catch (ExecutionException e) {
+            return errorResponse("Could not process request: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return errorResponse("Could not process request: the server is closing");
+        } catch (Exception e) {
+            return errorResponse("Could not process request: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> handleCommand(String command) {
+        if (command.equals("shutdown")) {
+            shutdownRequested = true;
+            var response = new LinkedHashMap<String, Object>();
+            response.put("success", true);
+            return response;
+        }
+
+        return errorResponse("Unknown command '" + command + "'");
+    }
+
+    private Map<String, Object> compileResponse(CompilationResult result) {
+        var response = new LinkedHashMap<String, Object>();
+
+        response.put("success", !result.hasErrors());
+        response.put("className", result.getClassName());
+        response.put("reports", toJsonReports(result.getReports()));
+        response.put("ollir", result.getOllirCode());
+        response.put("jasmin", result.getJasminCode());
+        if (result.getMetrics().isEnabled()) {
+            response.put("metrics", result.getMetrics().toJsonMap());
+        }
+
+        return response;
+    }
+
+    private Map<String, Object> errorResponse(String message) {
+        var response = new LinkedHashMap<String, Object>();
+
+        response.put("success", false);
+        response.put("reports", toJsonReports(List.of(Report.newError(Stage.OTHER, -1, -1, message, null))));
+
+        return response;
+    }
+
+    private List<Map<String, Object>> toJsonReports(List<Report> reports) {
+        var jsonReports = new ArrayList<Map<String, Object>>(reports.size());
+
+        for (Report report : reports) {
+            var jsonReport = new LinkedHashMap<String, Object>();
+            jsonReport.put("type", report.getType().name());
+            jsonReport.put("stage", report.getStage().name());
+            jsonReport.put("line", report.getLine());
+            jsonReport.put("column", report.getColumn());
+            jsonReport.put("message", report.getMessage());
+            jsonReports.add(jsonReport);
+        }
+
+        return jsonReports;
+    }
+}
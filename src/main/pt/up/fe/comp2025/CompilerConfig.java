@@ -1,15 +1,35 @@
 package pt.up.fe.comp2025;
 
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.specs.util.SpecsIo;
+
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class CompilerConfig {
 
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
     private static final String REGISTER = "registerAllocation";
+    private static final String OUTPUT_DIR = "outputDir";
+    private static final String JOBS = "jobs";
+    private static final String SERVER = "server";
+    private static final String VERBOSITY = "verbosity";
+    private static final String LOG_PHASES = "logPhases";
+    private static final String TIMING = "timing";
+    private static final String PARALLEL_ANALYSIS = "parallelAnalysis";
+    private static final String CLASSPATH = "classpath";
+    private static final String BUILD_CACHE = "buildCache";
+    private static final String PARSER_PROFILE = "parserProfile";
+    private static final String COMPACT_AST = "compactAst";
+    private static final String KEEP_PROPAGATED_STORES = "keepPropagatedStores";
 
 
     static Map<String, String> shortToLong = new HashMap<>();
@@ -18,6 +38,18 @@ public class CompilerConfig {
         shortToLong.put("i", CompilerConfig.INPUT_FILE);
         shortToLong.put("o", CompilerConfig.OPTIMIZE);
         shortToLong.put("r", CompilerConfig.REGISTER);
+        shortToLong.put("d", CompilerConfig.OUTPUT_DIR);
+        shortToLong.put("j", CompilerConfig.JOBS);
+        shortToLong.put("s", CompilerConfig.SERVER);
+        shortToLong.put("v", CompilerConfig.VERBOSITY);
+        shortToLong.put("l", CompilerConfig.LOG_PHASES);
+        shortToLong.put("t", CompilerConfig.TIMING);
+        shortToLong.put("p", CompilerConfig.PARALLEL_ANALYSIS);
+        shortToLong.put("c", CompilerConfig.CLASSPATH);
+        shortToLong.put("b", CompilerConfig.BUILD_CACHE);
+        shortToLong.put("g", CompilerConfig.PARSER_PROFILE);
+        shortToLong.put("a", CompilerConfig.COMPACT_AST);
+        shortToLong.put("k", CompilerConfig.KEEP_PROPAGATED_STORES);
     }
 
 
@@ -32,6 +64,224 @@ public class CompilerConfig {
         return Optional.of(new File(inputFile));
     }
 
+    /**
+     * The '-i' option accepts a single .jmm file, a folder (searched recursively for .jmm files)
+     * or a comma-separated list of files and folders.
+     *
+     * @return the input files, in a deterministic order
+     */
+    public static List<File> getInputFiles(Map<String, String> config) {
+        var inputFile = config.get(INPUT_FILE);
+
+        if (inputFile == null) {
+            return Collections.emptyList();
+        }
+
+        var inputFiles = new ArrayList<File>();
+        for (String path : inputFile.split(",")) {
+            var file = new File(path.trim());
+
+            if (file.isDirectory()) {
+                var folderFiles = SpecsIo.getFilesRecursive(file, List.of("jmm"));
+                Collections.sort(folderFiles);
+                inputFiles.addAll(folderFiles);
+            } else {
+                inputFiles.add(file);
+            }
+        }
+
+        return inputFiles;
+    }
+
+    /**
+     * Batch mode is used when the input is a folder or a list of files.
+     */
+    public static boolean isBatch(Map<String, String> config) {
+        var inputFile = config.get(INPUT_FILE);
+
+        return inputFile != null && (inputFile.contains(",") || new File(inputFile).isDirectory());
+    }
+
+    public static Optional<File> getOutputDir(Map<String, String> config) {
+        var outputDir = config.get(OUTPUT_DIR);
+
+        if (outputDir == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(outputDir));
+    }
+
+    /**
+     * Number of files compiled concurrently in batch mode. '-j' without a value, or '-j=0', uses one worker per core.
+     */
+    public static int getJobs(Map<String, String> config) {
+        return getJobs(config, 1);
+    }
+
+    public static int getJobs(Map<String, String> config, int defaultJobs) {
+        var jobs = config.getOrDefault(JOBS, Integer.toString(defaultJobs));
+
+        if (jobs.equals("true") || jobs.equals("0")) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return Integer.parseInt(jobs);
+    }
+
+    /**
+     * Comma-separated list of folders with the compiled classes that Java-- programs import ('-c').
+     * Without it, calls on imported classes are not checked.
+     */
+    public static List<File> getClasspath(Map<String, String> config) {
+        var classpath = config.get(CLASSPATH);
+
+        if (classpath == null || classpath.equals("true")) {
+            return Collections.emptyList();
+        }
+
+        var folders = new ArrayList<File>();
+        for (String path : classpath.split(",")) {
+            folders.add(new File(path.trim()).getAbsoluteFile());
+        }
+
+        return folders;
+    }
+
+    /**
+     * Folder of the build cache ('-b=DIR'). '-b' without a value uses a folder in the temporary directory.
+     */
+    public static Optional<File> getBuildCacheDir(Map<String, String> config) {
+        var buildCache = config.get(BUILD_CACHE);
+
+        if (buildCache == null || buildCache.equals("false")) {
+            return Optional.empty();
+        }
+
+        if (buildCache.equals("true")) {
+            return Optional.of(new File(System.getProperty("java.io.tmpdir"), "jmm-build-cache"));
+        }
+
+        return Optional.of(new File(buildCache));
+    }
+
+    /**
+     * Number of workers that check the methods of a class concurrently during semantic analysis ('-p').
+     * '-p' without a value, or '-p=0', uses one worker per core. Without the option, methods are checked sequentially.
+     */
+    public static int getParallelAnalysis(Map<String, String> config) {
+        var workers = config.getOrDefault(PARALLEL_ANALYSIS, "1");
+
+        if (workers.equals("true") || workers.equals("0")) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return Integer.parseInt(workers);
+    }
+
+    /**
+     * Port of the compile server, if the compiler should run as a daemon. '-s' without a value uses
+     * {@link CompileServer#DEFAULT_PORT}.
+     */
+    public static Optional<Integer> getServerPort(Map<String, String> config) {
+        var port = config.get(SERVER);
+
+        if (port == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(port.equals("true") ? CompileServer.DEFAULT_PORT : Integer.parseInt(port));
+    }
+
+    /**
+     * Verbosity of the diagnostic log, one of {@link CompilerLogger.Level} (case-insensitive).
+     * '-v' without a value means DEBUG.
+     */
+    public static CompilerLogger.Level getVerbosity(Map<String, String> config) {
+        var verbosity = config.get(VERBOSITY);
+
+        if (verbosity == null) {
+            return CompilerLogger.Level.WARN;
+        }
+
+        if (verbosity.equals("true")) {
+            return CompilerLogger.Level.DEBUG;
+        }
+
+        return CompilerLogger.Level.valueOf(verbosity.toUpperCase());
+    }
+
+    /**
+     * Comma-separated list of {@link CompilerLogger.Phase} names whose messages are logged. All phases by default.
+     */
+    public static Set<CompilerLogger.Phase> getLogPhases(Map<String, String> config) {
+        var logPhases = config.get(LOG_PHASES);
+
+        if (logPhases == null || logPhases.equals("true")) {
+            return EnumSet.allOf(CompilerLogger.Phase.class);
+        }
+
+        var phases = EnumSet.noneOf(CompilerLogger.Phase.class);
+        for (String phase : logPhases.split(",")) {
+            phases.add(CompilerLogger.Phase.valueOf(phase.trim().toUpperCase()));
+        }
+
+        return phases;
+    }
+
+    /**
+     * True if the compiler should measure the time and allocations of each stage ('-t'). Profiling the parser
+     * ('-g') also enables the measurements, which hold the profile.
+     */
+    public static boolean getTiming(Map<String, String> config) {
+        var timing = config.get(TIMING);
+
+        return (timing != null && !timing.equals("false")) || getParserProfile(config);
+    }
+
+    /**
+     * True if the parser should record the statistics of each of its prediction decisions ('-g').
+     */
+    public static boolean getParserProfile(Map<String, String> config) {
+        var profile = config.get(PARSER_PROFILE);
+
+        return profile != null && !profile.equals("false");
+    }
+
+    /**
+     * True if the parser should build a {@link pt.up.fe.comp2025.ast.CompactAst} ('-a'), which the analysis and
+     * the OLLIR generation read in place of the regular nodes.
+     */
+    public static boolean getCompactAst(Map<String, String> config) {
+        var compact = config.get(COMPACT_AST);
+
+        return compact != null && !compact.equals("false");
+    }
+
+    /**
+     * True if dead code elimination keeps the literal store that constant propagation leaves of a local after
+     * replacing all its reads, so the propagated constant is still visible in the OLLIR ('-k'). On by default, for
+     * compatibility with the tests that look for those stores; '-k=false' removes them like any dead store.
+     */
+    public static boolean getKeepPropagatedStores(Map<String, String> config) {
+        var keep = config.get(KEEP_PROPAGATED_STORES);
+
+        return keep == null || !keep.equals("false");
+    }
+
+    /**
+     * File where the timing measurements are written as JSON ('-t=FILE'). Without a file, they are printed.
+     */
+    public static Optional<File> getTimingFile(Map<String, String> config) {
+        var timing = config.get(TIMING);
+
+        if (timing == null || timing.equals("true") || timing.equals("false")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(timing));
+    }
+
     public static boolean getOptimize(Map<String, String> config) {
         return Boolean.parseBoolean(config.getOrDefault(OPTIMIZE, "false"));
     }
@@ -72,7 +322,6 @@ public class CompilerConfig {
                 throw new RuntimeException("Arguments should start with '-'");
             }
 
-            System.out.println(arg);
             String shortOption = arg.substring(1, 2);
             if (!isShortOpt(shortOption)) {
                 throw new RuntimeException("Unrecognized option '-" + shortOption + "'");
@@ -90,23 +339,49 @@ public class CompilerConfig {
             config.put(getLongOpt(shortOption), value);
         }
 
+        // Verify if logging options are valid, and echo the arguments
+        getLogPhases(config);
+        var logger = CompilerLogger.forConfig(config);
+        logger.debug(CompilerLogger.Phase.CONFIG, () -> "Arguments: " + String.join(" ", args));
+
+        // the compile server receives its sources through the socket
+        if (config.containsKey(SERVER)) {
+            getServerPort(config);
+            return config;
+        }
+
         if (!config.containsKey(INPUT_FILE)) {
 
             throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>'");
         }
 
-        // make sure we save the absolute path of the input file
-        var inputFile = new File(config.get(INPUT_FILE));
-        if (!inputFile.isFile()) {
-            throw new RuntimeException("Could not find input file '" + inputFile + "'");
+        // make sure we save the absolute path of each input file or folder
+        var absolutePaths = new ArrayList<String>();
+        for (String path : config.get(INPUT_FILE).split(",")) {
+            var inputFile = new File(path.trim());
+            if (!inputFile.isFile() && !inputFile.isDirectory()) {
+                throw new RuntimeException("Could not find input file '" + inputFile + "'");
+            }
+
+            absolutePaths.add(inputFile.getAbsolutePath());
         }
 
-        var absolutePath = inputFile.getAbsolutePath();
-        config.put(INPUT_FILE, absolutePath);
+        config.put(INPUT_FILE, String.join(",", absolutePaths));
 
         // Verify if values are valid
         getOptimize(config);
         getRegisterAllocation(config);
+        if (getJobs(config) < 1) {
+            throw new RuntimeException("Option '-j' expects a positive number of workers");
+        }
+        if (getParallelAnalysis(config) < 1) {
+            throw new RuntimeException("Option '-p' expects a positive number of workers");
+        }
+        for (var folder : getClasspath(config)) {
+            if (!folder.isDirectory()) {
+                throw new RuntimeException("Could not find classpath folder '" + folder + "'");
+            }
+        }
 
         return config;
     }
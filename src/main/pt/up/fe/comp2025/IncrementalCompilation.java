@@ -0,0 +1,189 @@
+package pt.up.fe.comp2025;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.BuildCache.StoredReport;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reuses the outputs of the methods of a class that did not change since it was last compiled ('-b').
+ * <p>
+ * When a build cache is used and the class is not in it, the stages still redo the class-level work, but each
+ * method is only analyzed, translated to OLLIR, allocated and translated to Jasmin again if its {@link MethodKeys key}
+ * changed. The outputs of the last compilation of each class are stored in the cache, under 'methods/'.
+ * <p>
+ * The stages ask for the stored output of a method before producing it, and hand over what they produce.
+ * A compilation without a build cache uses {@link #disabled()}, which has nothing stored and keeps nothing.
+ */
+public class IncrementalCompilation {
+
+    private static final Gson GSON = new Gson();
+
+    private static final IncrementalCompilation DISABLED = new IncrementalCompilation(null, null, null,
+            new HashMap<>(), CompilerMetrics.disabled());
+
+    private final BuildCache buildCache;
+    private final File file;
+    private final MethodKeys keys;
+
+    // The outputs of the methods of this compilation, by key. Those of unchanged methods start with the stored ones
+    private final Map<String, StoredMethod> methods;
+
+    private final CompilerMetrics metrics;
+
+    private IncrementalCompilation(BuildCache buildCache, File file, MethodKeys keys,
+                                   Map<String, StoredMethod> methods, CompilerMetrics metrics) {
+        this.buildCache = buildCache;
+        this.file = file;
+        this.keys = keys;
+        this.methods = methods;
+        this.metrics = metrics;
+    }
+
+    public static IncrementalCompilation disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Computes the keys of the methods of the class, and reads the outputs stored by its last compilation.
+     */
+    public static IncrementalCompilation start(BuildCache buildCache, JmmSemanticsResult semanticsResult,
+                                               CompilerMetrics metrics) {
+        var table = (JmmSymbolTable) semanticsResult.getSymbolTable();
+        var keys = MethodKeys.compute(semanticsResult.getRootNode(), table, semanticsResult.getConfig());
+        var file = new File(new File(buildCache.getCacheDir(), "methods"), table.getClassName() + ".json");
+
+        var stored = read(file);
+        var methods = new HashMap<String, StoredMethod>();
+        for (var method : keys.getMethods()) {
+            var key = keys.get(method).orElseThrow();
+            methods.put(key, stored.getOrDefault(key, new StoredMethod()));
+        }
+
+        return new IncrementalCompilation(buildCache, file, keys, methods, metrics);
+    }
+
+    private static Map<String, StoredMethod> read(File file) {
+        if (!file.isFile()) {
+            return Map.of();
+        }
+
+        try {
+            Map<String, StoredMethod> stored = GSON.fromJson(Files.readString(file.toPath()),
+                    new TypeToken<Map<String, StoredMethod>>() {}.getType());
+            return stored == null ? Map.of() : stored;
+        } catch (IOException | JsonParseException e) {
+            // An unreadable file only means that every method is compiled again
+            return Map.of();
+        }
+    }
+
+    public boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    /**
+     * The reports of each analysis pass for the method, in pass order, with their lines rebased on the current
+     * position of the method.
+     */
+    public Optional<List<List<Report>>> getAnalysisReports(JmmNode method) {
+        var reports = get("analysis", method.get("name"), stored -> stored.analysis);
+        return reports.map(passes -> {
+            var rebased = new ArrayList<List<Report>>(passes.size());
+            for (var pass : passes) {
+                rebased.add(pass.stream().map(report -> report.toReport(method.getLine())).toList());
+            }
+            return rebased;
+        });
+    }
+
+    public void putAnalysisReports(JmmNode method, List<List<Report>> reports) {
+        var stored = new ArrayList<List<StoredReport>>(reports.size());
+        for (var pass : reports) {
+            stored.add(pass.stream().map(report -> StoredReport.of(report, method.getLine())).toList());
+        }
+        find(method.get("name")).ifPresent(entry -> entry.analysis = stored);
+    }
+
+    public Optional<String> getOllirCode(String method) {
+        return get("ollir", method, stored -> stored.ollir);
+    }
+
+    public void putOllirCode(String method, String code) {
+        find(method).ifPresent(entry -> entry.ollir = code);
+    }
+
+    /**
+     * The reports of the register allocation of the method. Only present when its Jasmin code is also stored,
+     * since the allocation only needs to run for the methods whose code is generated again.
+     */
+    public Optional<List<Report>> getRegisterReports(String method) {
+        return get("registers", method, stored -> stored.jasmin == null ? null : stored.registers)
+                .map(reports -> reports.stream().map(StoredReport::toReport).toList());
+    }
+
+    public void putRegisterReports(String method, List<Report> reports) {
+        var stored = reports.stream().map(report -> StoredReport.of(report, 0)).toList();
+        find(method).ifPresent(entry -> entry.registers = stored);
+    }
+
+    public Optional<String> getJasminCode(String method) {
+        return get("jasmin", method, stored -> stored.jasmin);
+    }
+
+    public void putJasminCode(String method, String code) {
+        find(method).ifPresent(entry -> entry.jasmin = code);
+    }
+
+    private <T> Optional<T> get(String stage, String method, Function<StoredMethod, T> output) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        var value = find(method).map(output);
+        metrics.count("incremental/" + stage + (value.isPresent() ? "/reused" : "/rebuilt"), 1);
+
+        return value;
+    }
+
+    private Optional<StoredMethod> find(String method) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        return keys.get(method).map(methods::get);
+    }
+
+    /**
+     * Stores the outputs of the methods of this compilation, replacing those of the last compilation of the class.
+     */
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        buildCache.write(file, GSON.toJson(methods));
+    }
+
+    private static class StoredMethod {
+        List<List<StoredReport>> analysis;
+        String ollir;
+        List<StoredReport> registers;
+        String jasmin;
+    }
+}
@@ -1,17 +1,15 @@
 package pt.up.fe.comp2025;
 
+import com.google.gson.GsonBuilder;
 import pt.up.fe.comp.TestUtils;
-import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
-import pt.up.fe.comp.jmm.jasmin.JasminResult;
-import pt.up.fe.comp.jmm.ollir.OllirResult;
-import pt.up.fe.comp.jmm.parser.JmmParserResult;
-import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
-import pt.up.fe.comp2025.backend.JasminBackendImpl;
-import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
-import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 import pt.up.fe.specs.util.SpecsIo;
 import pt.up.fe.specs.util.SpecsSystem;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Launcher {
@@ -21,43 +19,84 @@ public class Launcher {
 
         Map<String, String> config = CompilerConfig.parseArgs(args);
 
+        // Resident compiler, serving requests until it receives a shutdown command
+        var serverPort = CompilerConfig.getServerPort(config);
+        if (serverPort.isPresent()) {
+            // by default, serve as many concurrent connections as there are cores
+            int workers = CompilerConfig.getJobs(config, Runtime.getRuntime().availableProcessors());
+            try (var server = new CompileServer(serverPort.get(), workers, config)) {
+                System.out.println("Compile server listening on port " + server.getPort());
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not start compile server", e);
+            }
+            return;
+        }
+
+        var outputDir = CompilerConfig.getOutputDir(config);
+        outputDir.ifPresent(SpecsIo::mkdir);
+
+        // Several inputs, or an explicit output folder: compile everything with a single pipeline
+        if (CompilerConfig.isBatch(config) || outputDir.isPresent()) {
+            var batchCompiler = new BatchCompiler(config);
+            int failed = batchCompiler.compileAll(CompilerConfig.getInputFiles(config), outputDir.orElse(null));
+            reportTiming(config, batchCompiler.getTotalMetrics(), batchCompiler.getFileMetrics());
+            if (failed > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+
         var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
         if (!inputFile.isFile()) {
             throw new RuntimeException("Option '-i' expects a path to an existing input file, got '" + args[0] + "'.");
         }
-        String code = SpecsIo.read(inputFile);
 
-        // Parsing stage
-        JmmParserImpl parser = new JmmParserImpl();
-        JmmParserResult parserResult = parser.parse(code, config);
-        TestUtils.noErrors(parserResult.getReports());
+        var pipeline = new CompilationPipeline();
+        CompilationResult result;
 
-        //Print AST
-        System.out.println("AST:");
-        System.out.println(parserResult.getRootNode().toTree());
+        if (BuildCache.forConfig(config).isPresent()) {
+            // Cached compilations skip every stage, so there is no AST to print
+            result = pipeline.compile(inputFile.toPath(), config);
+        } else {
+            // Parsing stage
+            var parserResult = pipeline.parse(inputFile.toPath(), config);
+            TestUtils.noErrors(parserResult.getReports());
 
+            //Print AST
+            CompilerLogger.forConfig(config)
+                    .debug(Phase.PARSER, () -> "AST:\n" + parserResult.getRootNode().toTree());
 
-        // Semantic Analysis stage
-        JmmAnalysisImpl sema = new JmmAnalysisImpl();
-        JmmSemanticsResult semanticsResult = sema.semanticAnalysis(parserResult);
-        TestUtils.noErrors(semanticsResult.getReports());
+            // Semantic analysis, optimization and code generation stages
+            result = pipeline.compile(parserResult);
+        }
+        reportTiming(config, result.getMetrics(), Map.of(inputFile.getPath(), result.getMetrics()));
+        TestUtils.noErrors(result.getReports());
+    }
 
+    /**
+     * Prints the timing report, or writes it as JSON if '-t' was given a file.
+     */
+    private static void reportTiming(Map<String, String> config, CompilerMetrics total,
+                                     Map<String, CompilerMetrics> perFile) {
+        if (!CompilerConfig.getTiming(config)) {
+            return;
+        }
 
-        // Optimization stage
-        JmmOptimizationImpl ollirGen = new JmmOptimizationImpl();
-        OllirResult ollirResult = ollirGen.toOllir(semanticsResult);
-        TestUtils.noErrors(ollirResult.getReports());
+        var timingFile = CompilerConfig.getTimingFile(config);
+        if (timingFile.isEmpty()) {
+            System.out.println(total.toReport());
+            return;
+        }
 
-        // Print OLLIR code
-        //System.out.println(ollirResult.getOllirCode());
+        var files = new LinkedHashMap<String, Object>();
+        perFile.forEach((file, metrics) -> files.put(file, metrics.toJsonMap()));
 
-        // Code generation stage
-        JasminBackendImpl jasminGen = new JasminBackendImpl();
-        JasminResult jasminResult = jasminGen.toJasmin(ollirResult);
-        TestUtils.noErrors(jasminResult.getReports());
+        var json = new LinkedHashMap<String, Object>();
+        json.put("total", total.toJsonMap());
+        json.put("files", files);
 
-        // Print Jasmin code
-        //System.out.println(jasminResult.getJasminCode());
+        SpecsIo.write(timingFile.get(), new GsonBuilder().setPrettyPrinting().create().toJson(json));
     }
 
 }
@@ -0,0 +1,128 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The key of each method of a class, used to reuse the outputs of the methods that did not change.
+ * <p>
+ * A key hashes the method's own subtree and the symbol table entries the method reads: how each name used in
+ * the method resolves (to a field, parameter or local, or to nothing), the signatures of the methods of the class
+ * it names, and the class declaration and imports. Editing a method only changes its own key, while changing a
+ * field or a signature changes the keys of the methods that use it. Positions are hashed relative to the start of
+ * the method, so code moving up or down does not change the key.
+ */
+public class MethodKeys {
+
+    private static final Set<String> POSITIONS = Set.of("lineStart", "lineEnd", "colStart", "colEnd");
+
+    private final Map<String, String> keys;
+
+    private MethodKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+
+    public static MethodKeys compute(JmmNode root, JmmSymbolTable table, Map<String, String> config) {
+        var build = BuildCache.sha256();
+        BuildCache.updateBuild(build, config, table.getSignatures());
+        update(build, "class " + table.getClassName() + " extends " + table.getSuper());
+        update(build, "imports " + table.getImports());
+
+        var methods = new HashSet<>(table.getMethods());
+        var keys = new HashMap<String, String>();
+        var repeated = new HashSet<String>();
+        for (var method : root.getDescendants(Kind.METHOD_DECL)) {
+            var name = method.get("name");
+
+            // Repeated methods are reported by the symbol table, their outputs are never reused
+            if (keys.containsKey(name) || repeated.contains(name)) {
+                keys.remove(name);
+                repeated.add(name);
+                continue;
+            }
+
+            keys.put(name, key(method, name, table, methods, build));
+        }
+
+        return new MethodKeys(keys);
+    }
+
+    private static String key(JmmNode method, String name, JmmSymbolTable table, Set<String> methods,
+                              MessageDigest build) {
+        MessageDigest digest;
+        try {
+            digest = (MessageDigest) build.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+
+        var tree = new StringBuilder();
+        var names = new TreeSet<String>();
+        appendTree(method, method.getLine(), tree, names);
+        update(digest, tree.toString());
+
+        // Names that are not symbols resolve to nothing, which is also a dependency: declaring them changes the key
+        for (var used : names) {
+            update(digest, used + " -> " + table.resolve(name, used));
+            if (methods.contains(used)) {
+                update(digest, used + " : " + table.getReturnType(used) + " " + table.getParameters(used));
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void appendTree(JmmNode node, int baseLine, StringBuilder tree, Set<String> names) {
+        tree.append(node.getKind()).append('@').append(node.getLine() - baseLine).append(':')
+                .append(node.getColumn()).append('{');
+        for (var attribute : node.getAttributes().stream().sorted().toList()) {
+            if (POSITIONS.contains(attribute)) {
+                continue;
+            }
+
+            var value = node.get(attribute);
+            tree.append(attribute).append('=').append(value).append(';');
+            names.add(value);
+        }
+
+        for (var child : node.getChildren()) {
+            appendTree(child, baseLine, tree, names);
+        }
+        tree.append('}');
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * The key of the method, or empty if the class has no single method with that name.
+     */
+    public Optional<String> get(String methodName) {
+        return Optional.ofNullable(keys.get(methodName));
+    }
+
+    public Set<String> getMethods() {
+        return keys.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return keys.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ", "MethodKeys{", "}"));
+    }
+}
@@ -5,6 +5,7 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ast.TypeUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +17,10 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
 
     private List<Report> reports;
 
+    // Created for the first table the pass sees, and reused by all of its visits
+    private TypeUtils typeUtils;
+    private SymbolTable typeUtilsTable;
+
     public AnalysisVisitor() {
         reports = new ArrayList<>();
         setDefaultValue(() -> null);
@@ -29,6 +34,19 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
         return reports;
     }
 
+    /**
+     * The type utilities of this pass for the given table, looking up variables in the given method.
+     */
+    protected TypeUtils getTypeUtils(SymbolTable table, String currentMethod) {
+        if (typeUtils == null || typeUtilsTable != table) {
+            typeUtils = new TypeUtils(table);
+            typeUtilsTable = table;
+        }
+        typeUtils.setCurrentMethod(currentMethod);
+
+        return typeUtils;
+    }
+
 
     @Override
     public List<Report> analyze(JmmNode root, SymbolTable table) {
@@ -39,6 +57,14 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
         return getReports();
     }
 
+    /**
+     * Applies this pass's handler to a single node, without visiting its children.
+     * Used by {@link FusedAnalysis} to run several passes in one traversal.
+     */
+    public void visitNode(JmmNode node, SymbolTable table) {
+        getVisit(node).apply(node, table);
+    }
+
     public Report newError(JmmNode node, String message) {
         return Report.newError(
                 Stage.SEMANTIC,
@@ -0,0 +1,127 @@
+package pt.up.fe.comp2025.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Runs several analysis passes in a single preorder traversal of the AST.
+ * <p>
+ * Each node is given to every pass, in pass order, before moving on to the next node. Since each pass still
+ * sees the nodes in the same preorder as its own visit would, its state (e.g. the current method) and its
+ * reports are the same as when running it alone. A pass that throws is dropped for the rest of the traversal,
+ * and its exception is kept in place of its reports.
+ */
+public class FusedAnalysis {
+
+    /**
+     * Outcome of one pass: its reports, or the exception that stopped it.
+     */
+    public static class PassResult {
+        private final AnalysisVisitor pass;
+        private final List<Report> reports;
+        private final Exception exception;
+
+        PassResult(AnalysisVisitor pass, List<Report> reports, Exception exception) {
+            this.pass = pass;
+            this.reports = reports;
+            this.exception = exception;
+        }
+
+        public AnalysisVisitor getPass() {
+            return pass;
+        }
+
+        public List<Report> getReports() {
+            return reports;
+        }
+
+        /**
+         * The exception thrown by the pass, or null if it completed.
+         */
+        public Exception getException() {
+            return exception;
+        }
+    }
+
+    private final List<AnalysisVisitor> passes;
+    private final CompilerMetrics metrics;
+
+    public FusedAnalysis(List<AnalysisVisitor> passes) {
+        this(passes, CompilerMetrics.disabled());
+    }
+
+    /**
+     * When metrics are enabled, the wall time spent in each pass is recorded under "analysis/PassName".
+     */
+    public FusedAnalysis(List<AnalysisVisitor> passes, CompilerMetrics metrics) {
+        this.passes = passes;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Visits the tree once, returning the result of each pass in pass order.
+     */
+    public List<PassResult> analyze(JmmNode root, SymbolTable table) {
+        return analyze(root, table, node -> false);
+    }
+
+    /**
+     * Visits the tree once, skipping the nodes (and their subtrees) that match the given predicate.
+     */
+    public List<PassResult> analyze(JmmNode root, SymbolTable table, Predicate<JmmNode> skip) {
+        int numPasses = passes.size();
+        var exceptions = new Exception[numPasses];
+        var passNanos = metrics.isEnabled() ? new long[numPasses] : null;
+
+        var pending = new ArrayDeque<JmmNode>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            var node = pending.pop();
+
+            for (int i = 0; i < numPasses; i++) {
+                if (exceptions[i] != null) {
+                    continue;
+                }
+
+                long start = passNanos != null ? System.nanoTime() : 0;
+                try {
+                    passes.get(i).visitNode(node, table);
+                } catch (Exception e) {
+                    exceptions[i] = e;
+                }
+                if (passNanos != null) {
+                    passNanos[i] += System.nanoTime() - start;
+                }
+            }
+
+            // Push children in reverse, so they are visited in order
+            var children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                var child = children.get(i);
+                if (!skip.test(child)) {
+                    pending.push(child);
+                }
+            }
+        }
+
+        var results = new ArrayList<PassResult>(numPasses);
+        for (int i = 0; i < numPasses; i++) {
+            var pass = passes.get(i);
+            results.add(new PassResult(pass, exceptions[i] == null ? pass.getReports() : null, exceptions[i]));
+
+            if (passNanos != null) {
+                metrics.record("analysis/" + pass.getClass().getSimpleName(), 1, passNanos[i], 0, 0);
+            }
+        }
+
+        return results;
+    }
+}
@@ -8,8 +8,14 @@ import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.IncrementalCompilation;
 import pt.up.fe.comp2025.analysis.passes.*;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +25,28 @@ import java.util.List;
  */
 public class JmmAnalysisImpl implements JmmAnalysis {
 
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
+
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
+    // The index of the classpath, when already resolved for the compilation
+    private SignatureIndex signatures;
+
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Sets the index of the classpath of the compilation, so that it is not resolved again. When null, the index
+     * is resolved from the classpath in the config.
+     */
+    public void setSignatures(SignatureIndex signatures) {
+        this.signatures = signatures;
+    }
 
     /**
      * Analysis passes that will be applied to the AST.
@@ -44,8 +72,18 @@ public class JmmAnalysisImpl implements JmmAnalysis {
     public JmmSemanticsResult buildSymbolTable(JmmParserResult parserResult) {
         JmmNode rootNode = parserResult.getRootNode();
 
-        var symbolTableBuilder = new JmmSymbolTableBuilder();
-        SymbolTable table = symbolTableBuilder.build(rootNode);
+        var signatures = this.signatures;
+        if (signatures == null) {
+            try (var timer = metrics.start("analysis/signatures")) {
+                signatures = SignatureIndex.forConfig(parserResult.getConfig());
+            }
+        }
+
+        var symbolTableBuilder = new JmmSymbolTableBuilder(signatures);
+        SymbolTable table;
+        try (var timer = metrics.start("analysis/symbolTable")) {
+            table = symbolTableBuilder.build(rootNode);
+        }
 
         List<Report> reports = symbolTableBuilder.getReports();
 
@@ -57,40 +95,51 @@ public class JmmAnalysisImpl implements JmmAnalysis {
 
         var table = semanticsResult.getSymbolTable();
 
-        var analysisVisitors = buildPasses(table);
-
         var rootNode = semanticsResult.getRootNode();
 
         var reports = new ArrayList<Report>();
 
-        // This is a simple implementation that assumes all passes are implemented as visitors, each one making a full visit of the AST.
-        // There are other implementations that reduce the number of full AST visits, this is not required for the work, but a nice challenge if you want to try.
-        for (var analysisVisitor : analysisVisitors) {
-            try {
-                var passReports = analysisVisitor.analyze(rootNode, table);
+        var logger = CompilerLogger.forConfig(semanticsResult.getConfig());
 
-                var hasSymbolTableErrors = passReports.stream()
-                        .anyMatch(report -> report.getType() == ReportType.ERROR);
+        var workers = CompilerConfig.getParallelAnalysis(semanticsResult.getConfig());
 
+        // All passes share a single traversal of the AST (or one per method, when checking methods in parallel or
+        // reusing the results of unchanged methods), results are then merged in pass order
+        List<FusedAnalysis.PassResult> passResults;
+        try (var timer = metrics.start("analysis/passes")) {
+            if (workers > 1 || incremental.isEnabled()) {
+                passResults = new ParallelAnalysis(() -> buildPasses(table), workers, metrics, incremental)
+                        .analyze(rootNode, table);
+            } else {
+                passResults = new FusedAnalysis(buildPasses(table), metrics).analyze(rootNode, table);
+            }
+        }
 
-                reports.addAll(passReports);
-
-                // Return early in case of error report
-                if (hasSymbolTableErrors) {
-                    System.out.println("Found errors: " + reports);
-                    return new JmmSemanticsResult(semanticsResult, reports);
-                }
-
-            } catch (Exception e) {
+        for (var passResult : passResults) {
+            if (passResult.getException() != null) {
                 reports.add(Report.newError(Stage.SEMANTIC,
                         -1,
                         -1,
-                        "Problem while executing analysis pass '" + analysisVisitor.getClass() + "'",
-                        e)
+                        "Problem while executing analysis pass '" + passResult.getPass().getClass() + "'",
+                        passResult.getException())
                 );
-                System.out.println("Exception: " + reports);
+                logger.error(Phase.ANALYSIS, () -> "Exception: " + reports);
+                continue;
             }
 
+            var passReports = passResult.getReports();
+
+            var hasSymbolTableErrors = passReports.stream()
+                    .anyMatch(report -> report.getType() == ReportType.ERROR);
+
+
+            reports.addAll(passReports);
+
+            // Return early in case of error report
+            if (hasSymbolTableErrors) {
+                logger.debug(Phase.ANALYSIS, () -> "Found errors: " + reports);
+                return new JmmSemanticsResult(semanticsResult, reports);
+            }
         }
 
 
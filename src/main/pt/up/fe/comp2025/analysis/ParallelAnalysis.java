@@ -0,0 +1,121 @@
+package pt.up.fe.comp2025.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.IncrementalCompilation;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs the analysis passes over each method of the class concurrently.
+ * <p>
+ * The symbol table is read-only after it is built, so the only state a pass needs for a method is the method's
+ * own subtree. The class is split into a class-level part (imports, class and field declarations) and one
+ * subtree per method. Each part gets its own instances of the passes and a {@link FusedAnalysis}, and the parts
+ * are checked on a work-stealing pool. The reports of each pass are then concatenated in source order, since
+ * the grammar places imports and fields before the methods, giving the same results as a sequential analysis.
+ * <p>
+ * The same split lets an {@link IncrementalCompilation} skip the methods that did not change, using the reports
+ * stored by their last analysis.
+ */
+public class ParallelAnalysis {
+
+    private final Supplier<List<AnalysisVisitor>> passesFactory;
+    private final int workers;
+    private final CompilerMetrics metrics;
+    private final IncrementalCompilation incremental;
+
+    public ParallelAnalysis(Supplier<List<AnalysisVisitor>> passesFactory, int workers, CompilerMetrics metrics) {
+        this(passesFactory, workers, metrics, IncrementalCompilation.disabled());
+    }
+
+    public ParallelAnalysis(Supplier<List<AnalysisVisitor>> passesFactory, int workers, CompilerMetrics metrics,
+                            IncrementalCompilation incremental) {
+        this.passesFactory = passesFactory;
+        this.workers = workers;
+        this.metrics = metrics;
+        this.incremental = incremental;
+    }
+
+    /**
+     * Checks the whole class, returning the merged result of each pass in pass order.
+     */
+    public List<FusedAnalysis.PassResult> analyze(JmmNode root, SymbolTable table) {
+        var methods = root.getDescendants(Kind.METHOD_DECL);
+
+        // The class-level part runs on the calling thread, while the pool checks the methods
+        var pool = new ForkJoinPool(workers);
+        try {
+            var tasks = new ArrayList<ForkJoinTask<List<FusedAnalysis.PassResult>>>(methods.size());
+            for (var method : methods) {
+                tasks.add(pool.submit(() -> analyzeMethod(method, table)));
+            }
+
+            var classLevel = new FusedAnalysis(passesFactory.get(), metrics)
+                    .analyze(root, table, Kind.METHOD_DECL::check);
+
+            var parts = new ArrayList<List<FusedAnalysis.PassResult>>(methods.size() + 1);
+            parts.add(classLevel);
+            for (var task : tasks) {
+                parts.add(task.join());
+            }
+
+            return merge(parts);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<FusedAnalysis.PassResult> analyzeMethod(JmmNode method, SymbolTable table) {
+        // Stored results have no pass instances, merging takes the passes from the class-level part
+        var stored = incremental.getAnalysisReports(method);
+        if (stored.isPresent()) {
+            return stored.get().stream()
+                    .map(reports -> new FusedAnalysis.PassResult(null, reports, null))
+                    .toList();
+        }
+
+        var results = new FusedAnalysis(passesFactory.get(), metrics).analyze(method, table);
+
+        // A pass that failed is not stored, so that the method is checked again
+        if (results.stream().allMatch(result -> result.getException() == null)) {
+            incremental.putAnalysisReports(method, results.stream().map(FusedAnalysis.PassResult::getReports).toList());
+        }
+
+        return results;
+    }
+
+    private List<FusedAnalysis.PassResult> merge(List<List<FusedAnalysis.PassResult>> parts) {
+        var classLevel = parts.get(0);
+        var merged = new ArrayList<FusedAnalysis.PassResult>(classLevel.size());
+
+        for (int i = 0; i < classLevel.size(); i++) {
+            var pass = classLevel.get(i).getPass();
+            var reports = new ArrayList<Report>();
+            Exception exception = null;
+
+            for (var part : parts) {
+                var passResult = part.get(i);
+
+                // The first exception in source order stops the pass, as in a sequential traversal
+                if (passResult.getException() != null) {
+                    exception = passResult.getException();
+                    break;
+                }
+
+                reports.addAll(passResult.getReports());
+            }
+
+            merged.add(new FusedAnalysis.PassResult(pass, exception == null ? reports : null, exception));
+        }
+
+        return merged;
+    }
+}
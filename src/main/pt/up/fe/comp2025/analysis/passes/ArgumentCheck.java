@@ -7,7 +7,9 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.classpath.ClassSignature;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 
 import java.util.List;
@@ -108,7 +110,7 @@ public class ArgumentCheck extends AnalysisVisitor {
         }
 
         Symbol param = parameters.getFirst();
-        if(!param.getType().getName().equals("String") || !param.getType().isArray()){
+        if(param.getType() != TypeUniverse.STRING_ARRAY){
             addReport(Report.newError(
                     Stage.SEMANTIC,
                     method.getLine(),
@@ -122,14 +124,20 @@ public class ArgumentCheck extends AnalysisVisitor {
     }
 
     private Void visitArgumentsCheck(JmmNode node, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         var imps = table.getImports();
 
         // First check if this is a method call on an object from an imported class
         if (node.getNumChildren() > 0) {
             JmmNode firstChild = node.getChild(0);
+
+            // Imported classes on the classpath ('-c') have known methods
+            var importedOverloads = utils.getImportedOverloads(node);
+            if (importedOverloads.isPresent()) {
+                validateImportedCall(node, importedOverloads.get(), utils);
+                return null;
+            }
             Type firstChildType = utils.getExprType(firstChild);
 
 
@@ -180,6 +188,26 @@ public class ArgumentCheck extends AnalysisVisitor {
         return null;
     }
 
+    private void validateImportedCall(JmmNode node, List<ClassSignature.Member> overloads, TypeUtils utils) {
+        String message = null;
+        if (overloads.isEmpty()) {
+            message = "Method " + node.get("name") + " does not exist in the imported class";
+        } else if (utils.getImportedMethod(node).isEmpty()) {
+            var descriptors = overloads.stream().map(ClassSignature.Member::descriptor).toList();
+            message = "Invalid arguments for method " + node.get("name") + ". Expected one of: " + descriptors;
+        }
+
+        if (message != null) {
+            addReport(Report.newError(
+                    Stage.SEMANTIC,
+                    node.getLine(),
+                    node.getColumn(),
+                    message,
+                    null
+            ));
+        }
+    }
+
     private void validateMethodArguments(JmmNode node, SymbolTable table, TypeUtils utils) {
         var arguments = table.getParameters(node.get("name"));
 
@@ -197,7 +225,7 @@ public class ArgumentCheck extends AnalysisVisitor {
 
         // Check number of arguments (unless last parameter is a vararg)
         if ((arguments.size() != node.getChildren().size() - 1) &&
-            (arguments.isEmpty() || !arguments.getLast().getType().getName().equals("int vararg"))) {
+            (arguments.isEmpty() || arguments.getLast().getType() != TypeUniverse.INT_VARARG)) {
             String message = "Wrong number of arguments: " + (node.getChildren().size() - 1) + ". Expected: " + arguments.size();
             Report report = Report.newError(
                     Stage.SEMANTIC,
@@ -227,19 +255,16 @@ public class ArgumentCheck extends AnalysisVisitor {
             }
 
             // Special case for int[] passed to int vararg
-            if (childType.getName().equals("int") && childType.isArray() &&
-                    argType.getType().getName().equals("int vararg")) {
+            if (childType == TypeUniverse.INT_ARRAY && argType.getType() == TypeUniverse.INT_VARARG) {
                 continue;
             }
 
             //ignore if the parameter is vararg and the arguments passed are int
-            if (childType.getName().equals("int") && !childType.isArray() &&
-                argType.getType().getName().equals("int vararg")) {
+            if (childType == TypeUniverse.INT && argType.getType() == TypeUniverse.INT_VARARG) {
                 continue;
             }
 
-            if (!childType.getName().equals(argType.getType().getName()) ||
-                childType.isArray() != argType.getType().isArray()) {
+            if (childType != argType.getType()) {
                 String message = String.format("Invalid argument type: %s and %s",
                                                childType.getName(), argType.getType().getName());
                 Report report = Report.newError(
@@ -31,8 +31,7 @@ public class ArrayOperationCheck extends AnalysisVisitor {
         // Check that all elements in an array literal are of the same type
         String expectedType = "int";
 
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         for (JmmNode element : arrayLiteral.getChildren()) {
             Type type = utils.getExprType(element);
@@ -66,8 +65,7 @@ public class ArrayOperationCheck extends AnalysisVisitor {
     }
 
     private void checkArrayAccess(JmmNode arrayExpr, JmmNode indexExpr, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         // Check that the array expression is actually an array
         Type type = utils.getExprType(arrayExpr);
@@ -125,8 +123,7 @@ public class ArrayOperationCheck extends AnalysisVisitor {
     }
 
     private Void visitAssignment(JmmNode node, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         
         JmmNode leftNode = node.getChildren().get(0);
@@ -1,6 +1,5 @@
 package pt.up.fe.comp2025.analysis.passes;
 
-import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
@@ -8,7 +7,9 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 
 import static pt.up.fe.comp2025.ast.Kind.RETURN_STMT;
 
@@ -27,54 +28,25 @@ public class AssignmentCheck extends AnalysisVisitor {
     }
 
     private Void visitAssign(JmmNode node, SymbolTable table){
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         //First get the Type of the variable that is being assigned
         var varName = node.get("varName");
-        String typeVar = "unknown";
-        boolean isArrayVar = false;
-
-        for (Symbol field : table.getFields()) {
-            //the main method is static so it cannot use class fields
-            if (field.getName().equals(varName) && !currentMethod.equals("main")) {
-                typeVar = field.getType().getName();
-                isArrayVar = field.getType().isArray();
-            }
-        }
-        var parameters = table.getParameters(currentMethod);
-        // Var is a parameter
-        if(parameters != null) {
-            if (parameters.stream().anyMatch(param -> param.getName().equals(varName))) {
-                for (Symbol param : parameters) {
-                    if (param.getName().equals(varName)) {
-                        typeVar = param.getType().getName();
-                        isArrayVar = param.getType().isArray();
-
-                    }
-                }
-            }
-        }
-        // Var is a declared variable
-        var locals = table.getLocalVariables(currentMethod);
-        if(locals != null) {
-            if (locals.stream()
-                    .anyMatch(varDecl -> varDecl.getName().equals(varName))) {
-                for (Symbol varDecl : locals) {
-                    if (varDecl.getName().equals(varName)) {
-                        typeVar = varDecl.getType().getName();
-                        isArrayVar = varDecl.getType().isArray();
-                    }
-                }
-            }
+        Type varType = TypeUniverse.UNKNOWN;
+
+        var symbol = ((JmmSymbolTable) table).resolve(currentMethod, varName);
+
+        //the main method is static so it cannot use class fields
+        if (symbol != null && !(symbol.isField() && currentMethod.equals("main"))) {
+            varType = symbol.getType();
         }
 
-        if(!utils.isValidType(new Type(typeVar, isArrayVar))){
+        if(!utils.isValidType(varType)){
             Report report = Report.newError(
                     Stage.SEMANTIC,
                     node.getLine(),
                     node.getColumn(),
-                    "Invalid Type: " + typeVar,
+                    "Invalid Type: " + varType.getName(),
                     null
             );
             addReport(report);
@@ -84,7 +56,7 @@ public class AssignmentCheck extends AnalysisVisitor {
         JmmNode expr = node.getChild(0);
         Type exprType = utils.getExprType(expr);
 
-        if(exprType.getName().equals("unknown")){
+        if(exprType == TypeUniverse.UNKNOWN){
             Report report = Report.newError(
                     Stage.SEMANTIC,
                     node.getLine(),
@@ -107,8 +79,8 @@ public class AssignmentCheck extends AnalysisVisitor {
             return null;
         }
 
-        if((!exprType.getName().equals(typeVar)) || (isArrayVar != exprType.isArray())){
-            String message = String.format("Invalid return assignment: %s and %s", exprType.getName(), typeVar);
+        if(exprType != varType){
+            String message = String.format("Invalid return assignment: %s and %s", exprType.getName(), varType.getName());
             Report report = Report.newError(
                     Stage.SEMANTIC,
                     node.getLine(),
@@ -67,8 +67,7 @@ public class ControlFlowTypeCheck extends AnalysisVisitor {
      * Check that a condition is boolean. If not, report an error.
      */
     private void checkCondition(JmmNode condition, String statementType, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         String type = utils.getExprType(condition).getName();//determineType(condition, table);
 
@@ -7,6 +7,7 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
 import pt.up.fe.comp2025.ast.TypeUtils;
 
 import static pt.up.fe.comp2025.ast.Kind.*;
@@ -28,7 +29,7 @@ public class InvalidOperationCheck extends AnalysisVisitor {
 
     private Void thisOperations(JmmNode node, SymbolTable table) {
         //checks if the "this" operation is being done inside the main function (the only static and void function allowed in the language)
-        if(table.getReturnType(currentMethod).getName().equals("void")) {
+        if(table.getReturnType(currentMethod) == TypeUniverse.VOID) {
             Report report = Report.newError(
                     Stage.SEMANTIC,
                     node.getLine(),
@@ -61,8 +62,7 @@ public class InvalidOperationCheck extends AnalysisVisitor {
     }
 
     private Void visitBinaryOp(JmmNode node, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         String op = node.get("op");
         
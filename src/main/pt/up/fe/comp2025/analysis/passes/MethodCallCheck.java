@@ -27,8 +27,7 @@ public class MethodCallCheck extends AnalysisVisitor {
     }
 
     private Void visitMethodCall(JmmNode node, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
         String methodName = node.get("name");
 
         //direct calls (no receiver)
@@ -7,6 +7,7 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
 import pt.up.fe.comp2025.ast.TypeUtils;
 
 import static pt.up.fe.comp2025.ast.Kind.RETURN_STMT;
@@ -25,13 +26,12 @@ public class ReturnStmt extends AnalysisVisitor {
     }
 
     private Void visitReturnStmt(JmmNode returnStmt, SymbolTable table) {
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
 
         if (returnStmt.getNumChildren() == 0) {
             Type methodType = table.getReturnType(currentMethod);
 
-            if (!(methodType.getName().equals("void") && !methodType.isArray())) {
+            if (methodType != TypeUniverse.VOID) {
                 String message = String.format("Method '%s' must return '%s', but return statement has no expression.", currentMethod, methodType.getName());
                 Report report = Report.newError(
                         Stage.SEMANTIC,
@@ -73,7 +73,7 @@ public class ReturnStmt extends AnalysisVisitor {
         }
 
         Type methodType = table.getReturnType(currentMethod);
-        if((!methodType.getName().equals(exprType.getName())) || (methodType.isArray() != exprType.isArray())){
+        if(methodType != exprType){
             String message = String.format("Invalid return type: %s and %s", exprType.getName(), methodType.getName());
             Report report = Report.newError(
                     Stage.SEMANTIC,
@@ -6,6 +6,7 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 import pt.up.fe.specs.util.SpecsCheck;
 
 /**
@@ -35,21 +36,8 @@ public class UndeclaredVariable extends AnalysisVisitor {
         var varRefName = varRefExpr.get("name");
 
 
-        // Var is a parameter, return
-        if (table.getParameters(currentMethod).stream()
-                .anyMatch(param -> param.getName().equals(varRefName))) {
-            return null;
-        }
-
-        // Var is a declared variable, return
-        if (table.getLocalVariables(currentMethod).stream()
-                .anyMatch(varDecl -> varDecl.getName().equals(varRefName))) {
-            return null;
-        }
-
-        // Var is a field
-        if(table.getFields().stream()
-                .anyMatch(field -> field.getName().equals(varRefName))) {
+        // Var is a local, a parameter or a field, return
+        if (((JmmSymbolTable) table).resolve(currentMethod, varRefName) != null) {
             return null;
         }
         
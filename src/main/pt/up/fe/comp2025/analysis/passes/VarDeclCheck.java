@@ -37,8 +37,7 @@ public class VarDeclCheck extends AnalysisVisitor {
             }
         }
 
-        TypeUtils utils = new TypeUtils(table);
-        utils.setCurrentMethod(currentMethod);
+        TypeUtils utils = getTypeUtils(table, currentMethod);
         String typeName = utils.getExprType(varDecl).getName();
 
     for(var imp : table.getImports()){
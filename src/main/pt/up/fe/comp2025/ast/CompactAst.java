@@ -0,0 +1,418 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A read-only AST stored as a few arrays, instead of one {@link JmmNodeImpl} per node with its own attribute map
+ * and child list.
+ * <p>
+ * Nodes are numbered in pre-order, so the descendants of a node are the nodes right after it, up to its
+ * {@link #getEnd end}, and a search over a subtree is a scan of contiguous entries. Each node has an int kind code
+ * (the ordinal of its {@link Kind}, or -1 for kinds that have no constant), its parent, the offset of its children
+ * in a shared array, its positions as ints, and the offset of its attributes. Attribute names and values are
+ * interned in a single pool, so the many nodes with the same name or value share one instance.
+ * <p>
+ * Passes written against {@link JmmNode} (e.g. with {@link pt.up.fe.comp.jmm.ast.AJmmVisitor}) run over the
+ * {@link CompactNode views} of the nodes. There is a single view per node, so views can be compared by reference
+ * like regular nodes. Stages that change the AST work on a regular copy, see {@link #toJmmNode()}.
+ */
+public class CompactAst {
+
+    private static final Kind[] KINDS = Kind.values();
+
+    static {
+        // The kinds of a hierarchy are kept as the bits of a long
+        if (KINDS.length > Long.SIZE) {
+            throw new IllegalStateException("Too many kinds for the compact AST: " + KINDS.length);
+        }
+    }
+
+    private static final Map<String, Kind> KINDS_BY_NAME = new HashMap<>();
+
+    static {
+        for (var kind : KINDS) {
+            KINDS_BY_NAME.put(kind.getNodeName(), kind);
+        }
+    }
+
+    static final String LINE_START = NodePosition.LINE_START.getKey();
+    static final String COL_START = NodePosition.COL_START.getKey();
+    static final String LINE_END = NodePosition.LINE_END.getKey();
+    static final String COL_END = NodePosition.COL_END.getKey();
+
+    private static final int POSITIONS = 4;
+
+    private final int size;
+
+    // By node
+    private final int[] kinds;
+    private final int[] hierarchies;
+    private final int[] parents;
+    private final int[] ends;
+    private final int[] positions;
+
+    // The children of node i are children[childStarts[i]] until children[childStarts[i + 1]]
+    private final int[] childStarts;
+    private final int[] children;
+
+    // The attributes of node i are the (name, value) pairs of pool indexes from attributes[2 * attributeStarts[i]]
+    // until attributes[2 * attributeStarts[i + 1]]
+    private final int[] attributeStarts;
+    private final int[] attributes;
+    private final Object[] pool;
+
+    // By hierarchy: the kinds of the hierarchy, and the bits of those that are Kind constants
+    private final List<List<String>> hierarchyKinds;
+    private final long[] hierarchyMasks;
+
+    private final AtomicReferenceArray<CompactNode> views;
+
+    private CompactAst(Builder builder) {
+        this.size = builder.size;
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.hierarchies = Arrays.copyOf(builder.hierarchies, size);
+        this.parents = Arrays.copyOf(builder.parents, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.positions = Arrays.copyOf(builder.positions, size * POSITIONS);
+        this.attributeStarts = Arrays.copyOf(builder.attributeStarts, size + 1);
+        this.attributeStarts[size] = builder.attributeCount;
+        this.attributes = Arrays.copyOf(builder.attributes, builder.attributeCount * 2);
+        this.pool = builder.pool.toArray();
+        this.hierarchyKinds = List.copyOf(builder.hierarchyKinds);
+        this.hierarchyMasks = new long[hierarchyKinds.size()];
+        for (int i = 0; i < hierarchyMasks.length; i++) {
+            for (var kind : hierarchyKinds.get(i)) {
+                var constant = KINDS_BY_NAME.get(kind);
+                if (constant != null) {
+                    hierarchyMasks[i] |= 1L << constant.ordinal();
+                }
+            }
+        }
+
+        // Counting the children of each node gives their offsets. Nodes come in pre-order, so the children of each
+        // node are added in their order
+        this.childStarts = new int[size + 1];
+        for (int node = 1; node < size; node++) {
+            childStarts[parents[node] + 1]++;
+        }
+        for (int node = 0; node < size; node++) {
+            childStarts[node + 1] += childStarts[node];
+        }
+        this.children = new int[Math.max(size - 1, 0)];
+        var next = Arrays.copyOf(childStarts, size);
+        for (int node = 1; node < size; node++) {
+            children[next[parents[node]]++] = node;
+        }
+
+        this.views = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Copies a tree of regular nodes.
+     */
+    public static CompactAst of(JmmNode root) {
+        var builder = new Builder();
+        add(builder, root);
+        return builder.build();
+    }
+
+    private static void add(Builder builder, JmmNode node) {
+        builder.begin(node.getHierarchy(), node.getInteger(LINE_START, -1), node.getInteger(COL_START, -1),
+                node.getInteger(LINE_END, -1), node.getInteger(COL_END, -1));
+        for (var attribute : node.getAttributes()) {
+            if (!isPosition(attribute)) {
+                builder.attribute(attribute, node.getObject(attribute));
+            }
+        }
+
+        for (var child : node.getChildren()) {
+            add(builder, child);
+        }
+        builder.end();
+    }
+
+    static boolean isPosition(String attribute) {
+        return attribute.equals(LINE_START) || attribute.equals(COL_START) || attribute.equals(LINE_END)
+                || attribute.equals(COL_END);
+    }
+
+    /**
+     * Copies the tree into regular nodes, which the stages that change the AST can work on.
+     */
+    public JmmNode toJmmNode() {
+        return toJmmNode(0);
+    }
+
+    private JmmNode toJmmNode(int node) {
+        var copy = new JmmNodeImpl(getHierarchy(node));
+        for (int position = 0; position < POSITIONS; position++) {
+            var value = positions[node * POSITIONS + position];
+            if (value != -1) {
+                copy.put(positionName(position), Integer.toString(value));
+            }
+        }
+        for (int attribute = attributeStarts[node]; attribute < attributeStarts[node + 1]; attribute++) {
+            copy.putObject((String) pool[attributes[2 * attribute]], pool[attributes[2 * attribute + 1]]);
+        }
+
+        for (int child = childStarts[node]; child < childStarts[node + 1]; child++) {
+            copy.add(toJmmNode(children[child]));
+        }
+
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The view of the root node.
+     */
+    public CompactNode getRoot() {
+        return getNode(0);
+    }
+
+    /**
+     * The view of the node, always the same instance for the same node.
+     */
+    public CompactNode getNode(int node) {
+        var view = views.get(node);
+        if (view == null) {
+            views.compareAndSet(node, null, new CompactNode(this, node));
+            view = views.get(node);
+        }
+
+        return view;
+    }
+
+    /**
+     * The ordinal of the {@link Kind} of the node, or -1 if its kind has no constant.
+     */
+    public int getKindCode(int node) {
+        return kinds[node];
+    }
+
+    public List<String> getHierarchy(int node) {
+        return hierarchyKinds.get(hierarchies[node]);
+    }
+
+    public boolean isInstance(int node, Kind kind) {
+        return (hierarchyMasks[hierarchies[node]] & (1L << kind.ordinal())) != 0;
+    }
+
+    /**
+     * The parent of the node, or -1 for the root.
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getNumChildren(int node) {
+        return childStarts[node + 1] - childStarts[node];
+    }
+
+    public int getChild(int node, int index) {
+        if (index < 0 || index >= getNumChildren(node)) {
+            throw new IndexOutOfBoundsException("Node has " + getNumChildren(node) + " children, no child " + index);
+        }
+
+        return children[childStarts[node] + index];
+    }
+
+    /**
+     * The index of the node among the children of its parent.
+     */
+    public int getIndexInParent(int node) {
+        var parent = parents[node];
+        if (parent == -1) {
+            return -1;
+        }
+
+        for (int child = childStarts[parent]; child < childStarts[parent + 1]; child++) {
+            if (children[child] == node) {
+                return child - childStarts[parent];
+            }
+        }
+
+        throw new IllegalStateException("Node " + node + " is not a child of its parent");
+    }
+
+    /**
+     * One past the last descendant of the node. The descendants are the nodes between the node and its end.
+     */
+    public int getEnd(int node) {
+        return ends[node];
+    }
+
+    public int getLine(int node) {
+        return positions[node * POSITIONS];
+    }
+
+    public int getColumn(int node) {
+        return positions[node * POSITIONS + 1];
+    }
+
+    /**
+     * The value of a position attribute ({@link NodePosition}), or -1 if the node has no position.
+     */
+    int getPosition(int node, String name) {
+        var position = name.equals(LINE_START) ? 0 : name.equals(COL_START) ? 1 : name.equals(LINE_END) ? 2 : 3;
+        return positions[node * POSITIONS + position];
+    }
+
+    private static String positionName(int position) {
+        return switch (position) {
+            case 0 -> LINE_START;
+            case 1 -> COL_START;
+            case 2 -> LINE_END;
+            default -> COL_END;
+        };
+    }
+
+    /**
+     * The names of the attributes of the node, positions first.
+     */
+    List<String> getAttributeNames(int node) {
+        var names = new ArrayList<String>(POSITIONS + attributeStarts[node + 1] - attributeStarts[node]);
+        for (int position = 0; position < POSITIONS; position++) {
+            if (positions[node * POSITIONS + position] != -1) {
+                names.add(positionName(position));
+            }
+        }
+        for (int attribute = attributeStarts[node]; attribute < attributeStarts[node + 1]; attribute++) {
+            names.add((String) pool[attributes[2 * attribute]]);
+        }
+
+        return names;
+    }
+
+    /**
+     * The value of an attribute that is not a position, or null if the node does not have it.
+     */
+    public Object getAttribute(int node, String name) {
+        for (int attribute = attributeStarts[node]; attribute < attributeStarts[node + 1]; attribute++) {
+            // Names are short, and the pool holds a single instance of each, so most comparisons are by reference
+            var attributeName = pool[attributes[2 * attribute]];
+            if (attributeName == name || attributeName.equals(name)) {
+                return pool[attributes[2 * attribute + 1]];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds the nodes of a tree in pre-order: each node is started, given its attributes, followed by its children,
+     * and ended.
+     */
+    public static class Builder {
+
+        private int size = 0;
+        private int[] kinds = new int[64];
+        private int[] hierarchies = new int[64];
+        private int[] parents = new int[64];
+        private int[] ends = new int[64];
+        private int[] positions = new int[64 * POSITIONS];
+        private int[] attributeStarts = new int[65];
+
+        private int attributeCount = 0;
+        private int[] attributes = new int[128];
+
+        private final List<Object> pool = new ArrayList<>();
+        private final Map<Object, Integer> poolIndexes = new HashMap<>();
+
+        private final List<List<String>> hierarchyKinds = new ArrayList<>();
+        private final Map<List<String>, Integer> hierarchyIndexes = new HashMap<>();
+
+        // The node being built
+        private int current = -1;
+
+        public void begin(List<String> hierarchy, int lineStart, int colStart, int lineEnd, int colEnd) {
+            if (size > 0 && current == -1) {
+                throw new IllegalStateException("The tree can only have one root");
+            }
+
+            if (size == kinds.length) {
+                var capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                hierarchies = Arrays.copyOf(hierarchies, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                positions = Arrays.copyOf(positions, capacity * POSITIONS);
+                attributeStarts = Arrays.copyOf(attributeStarts, capacity + 1);
+            }
+
+            var hierarchyIndex = hierarchyIndexes.get(hierarchy);
+            if (hierarchyIndex == null) {
+                hierarchyIndex = hierarchyKinds.size();
+                var copy = List.copyOf(hierarchy);
+                hierarchyKinds.add(copy);
+                hierarchyIndexes.put(copy, hierarchyIndex);
+            }
+
+            var node = size++;
+            var kind = KINDS_BY_NAME.get(hierarchy.get(0));
+            kinds[node] = kind == null ? -1 : kind.ordinal();
+            hierarchies[node] = hierarchyIndex;
+            parents[node] = current;
+            positions[node * POSITIONS] = lineStart;
+            positions[node * POSITIONS + 1] = colStart;
+            positions[node * POSITIONS + 2] = lineEnd;
+            positions[node * POSITIONS + 3] = colEnd;
+            attributeStarts[node] = attributeCount;
+
+            current = node;
+        }
+
+        /**
+         * Adds an attribute to the current node, before any of its children.
+         */
+        public void attribute(String name, Object value) {
+            if (current != size - 1) {
+                throw new IllegalStateException("Attributes must be added before the children of the node");
+            }
+
+            if (attributeCount * 2 == attributes.length) {
+                attributes = Arrays.copyOf(attributes, attributes.length * 2);
+            }
+
+            attributes[2 * attributeCount] = intern(name);
+            attributes[2 * attributeCount + 1] = intern(value);
+            attributeCount++;
+        }
+
+        private int intern(Object value) {
+            var index = poolIndexes.get(value);
+            if (index == null) {
+                index = pool.size();
+                pool.add(value);
+                poolIndexes.put(value, index);
+            }
+
+            return index;
+        }
+
+        public void end() {
+            ends[current] = size;
+            current = parents[current];
+        }
+
+        public CompactAst build() {
+            if (size == 0 || current != -1) {
+                throw new IllegalStateException("The tree is incomplete");
+            }
+
+            return new CompactAst(this);
+        }
+    }
+}
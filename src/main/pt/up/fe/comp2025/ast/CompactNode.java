@@ -0,0 +1,234 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.specs.util.SpecsCheck;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The {@link JmmNode} view of a node of a {@link CompactAst}, so that existing passes can read the compact AST.
+ * <p>
+ * Kind checks with a {@link Kind} test a bit of the node's hierarchy, positions are read as ints, and searches for
+ * descendants scan the nodes of the subtree in order, without visiting the children of each node. The view is
+ * read-only: adding children, changing attributes or replacing nodes throws.
+ */
+public class CompactNode implements JmmNode {
+
+    private final CompactAst ast;
+    private final int index;
+
+    CompactNode(CompactAst ast, int index) {
+        this.ast = ast;
+        this.index = index;
+    }
+
+    public CompactAst getAst() {
+        return ast;
+    }
+
+    /**
+     * The number of this node in its {@link CompactAst}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String getKind() {
+        return getHierarchy().get(0);
+    }
+
+    @Override
+    public List<String> getHierarchy() {
+        return ast.getHierarchy(index);
+    }
+
+    @Override
+    public boolean isInstance(Object kind) {
+        if (kind instanceof Kind constant) {
+            return ast.isInstance(index, constant);
+        }
+
+        return isInstance(kind.toString());
+    }
+
+    @Override
+    public JmmNode copy(List<String> kindHierarchy) {
+        var copy = new JmmNodeImpl(kindHierarchy);
+        for (var attribute : getAttributes()) {
+            copy.putObject(attribute, getObject(attribute));
+        }
+
+        return copy;
+    }
+
+    @Override
+    public JmmNode getParent() {
+        var parent = ast.getParent(index);
+        return parent == -1 ? null : ast.getNode(parent);
+    }
+
+    @Override
+    public List<JmmNode> getChildren() {
+        return new Children();
+    }
+
+    @Override
+    public int getNumChildren() {
+        return ast.getNumChildren(index);
+    }
+
+    @Override
+    public JmmNode getChild(int index) {
+        return ast.getNode(ast.getChild(this.index, index));
+    }
+
+    @Override
+    public int getIndexOfSelf() {
+        return ast.getIndexInParent(index);
+    }
+
+    @Override
+    public Stream<JmmNode> getDescendantsStream() {
+        return IntStream.range(index + 1, ast.getEnd(index)).mapToObj(ast::getNode);
+    }
+
+    @Override
+    public List<JmmNode> getDescendants(String kind) {
+        return IntStream.range(index + 1, ast.getEnd(index))
+                .filter(node -> ast.getHierarchy(node).contains(kind))
+                .mapToObj(ast::getNode)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<JmmNode> getDescendants(Object kind) {
+        if (kind instanceof Kind constant) {
+            return IntStream.range(index + 1, ast.getEnd(index))
+                    .filter(node -> ast.isInstance(node, constant))
+                    .mapToObj(ast::getNode)
+                    .collect(Collectors.toList());
+        }
+
+        return getDescendants(kind.toString());
+    }
+
+    @Override
+    public void add(JmmNode child, int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setChild(JmmNode newNode, int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public int removeChild(JmmNode node) {
+        throw readOnly();
+    }
+
+    @Override
+    public JmmNode removeChild(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void delete() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setParent(JmmNode parent) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeParent() {
+        throw readOnly();
+    }
+
+    @Override
+    public void replace(JmmNode newNode) {
+        throw readOnly();
+    }
+
+    @Override
+    public Collection<String> getAttributes() {
+        return ast.getAttributeNames(index);
+    }
+
+    @Override
+    public boolean hasAttribute(String attribute) {
+        if (CompactAst.isPosition(attribute)) {
+            return ast.getPosition(index, attribute) != -1;
+        }
+
+        return ast.getAttribute(index, attribute) != null;
+    }
+
+    @Override
+    public Object getObject(String attribute) {
+        Object value;
+        if (CompactAst.isPosition(attribute)) {
+            // Positions are strings in the regular nodes
+            var position = ast.getPosition(index, attribute);
+            value = position == -1 ? null : Integer.toString(position);
+        } else {
+            value = ast.getAttribute(index, attribute);
+        }
+
+        SpecsCheck.checkNotNull(value, () -> "Node " + getKind() + " does not contain attribute '" + attribute + "'");
+
+        return value;
+    }
+
+    @Override
+    public Object putObject(String attribute, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getLine() {
+        return ast.getLine(index);
+    }
+
+    @Override
+    public int getColumn() {
+        return ast.getColumn(index);
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("The compact AST is read-only, change a copy of it instead");
+    }
+
+    @Override
+    public String toString() {
+        var attributes = getAttributes().stream()
+                .filter(attribute -> !CompactAst.isPosition(attribute))
+                .map(attribute -> attribute + ": " + get(attribute))
+                .collect(Collectors.joining(", ", " (", ")"));
+
+        return getKind() + (attributes.equals(" ()") ? "" : attributes);
+    }
+
+    private class Children extends AbstractList<JmmNode> implements RandomAccess {
+
+        @Override
+        public JmmNode get(int index) {
+            return getChild(index);
+        }
+
+        @Override
+        public int size() {
+            return getNumChildren();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Types of the expressions of one compilation, as computed by {@link TypeUtils#getExprType(JmmNode)}.
+ * <p>
+ * Entries are keyed by node identity and by the method the type was asked for, since the type of a variable
+ * depends on the method it is looked up in. Nodes created by the optimizations are new instances, so they never
+ * see the type of the node they replace. The cache can be shared by threads checking different methods.
+ */
+public class ExprTypeCache {
+
+    // ConcurrentHashMap does not accept null values, used for method calls with an unknown return type
+    private static final Type NO_TYPE = new Type("unknown", false);
+
+    private record Key(JmmNode node, String method) {
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key other && node == other.node && Objects.equals(method, other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(node) + Objects.hashCode(method);
+        }
+    }
+
+    private final Map<Key, Type> types = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached type of the expression, computing it the first time.
+     * <p>
+     * The computation may ask for the type of other expressions, so it runs outside of the map.
+     */
+    public Type get(JmmNode expr, String method, Supplier<Type> computeType) {
+        var key = new Key(expr, method);
+
+        var type = types.get(key);
+        if (type == null) {
+            type = computeType.get();
+            types.put(key, type == null ? NO_TYPE : type);
+            return type;
+        }
+
+        return type == NO_TYPE ? null : type;
+    }
+
+    public int size() {
+        return types.size();
+    }
+}
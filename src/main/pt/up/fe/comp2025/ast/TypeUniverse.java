@@ -0,0 +1,67 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical {@link Type} instances of one compilation.
+ * <p>
+ * There is a single instance of each type, so types can be compared by reference. The built-in types are
+ * shared by all compilations, while the types of the current and imported classes belong to the universe
+ * of the compilation that uses them. Types must not be modified through {@link Type#putObject}.
+ */
+public class TypeUniverse {
+
+    public static final Type INT = new Type("int", false);
+    public static final Type INT_ARRAY = new Type("int", true);
+    public static final Type INT_VARARG = new Type("int vararg", true);
+    public static final Type BOOLEAN = new Type("boolean", false);
+    public static final Type BOOLEAN_ARRAY = new Type("boolean", true);
+    public static final Type STRING = new Type("String", false);
+    public static final Type STRING_ARRAY = new Type("String", true);
+    public static final Type VOID = new Type("void", false);
+    public static final Type UNKNOWN = new Type("unknown", false);
+
+    private static final Map<String, Type> BUILT_IN = Map.of(
+            INT.getName(), INT,
+            BOOLEAN.getName(), BOOLEAN,
+            STRING.getName(), STRING,
+            VOID.getName(), VOID,
+            UNKNOWN.getName(), UNKNOWN);
+
+    private static final Map<String, Type> BUILT_IN_ARRAYS = Map.of(
+            INT_ARRAY.getName(), INT_ARRAY,
+            INT_VARARG.getName(), INT_VARARG,
+            BOOLEAN_ARRAY.getName(), BOOLEAN_ARRAY,
+            STRING_ARRAY.getName(), STRING_ARRAY);
+
+    private final Map<String, Type> classTypes = new ConcurrentHashMap<>();
+    private final Map<String, Type> classArrayTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical type with the given name, creating it the first time a class type is asked for.
+     */
+    public Type get(String name, boolean isArray) {
+        var builtIn = isArray ? BUILT_IN_ARRAYS.get(name) : BUILT_IN.get(name);
+        if (builtIn != null) {
+            return builtIn;
+        }
+
+        var types = isArray ? classArrayTypes : classTypes;
+        var type = types.get(name);
+        if (type == null) {
+            type = types.computeIfAbsent(name, typeName -> new Type(typeName, isArray));
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns the canonical instance of a type that may have been created elsewhere.
+     */
+    public Type intern(Type type) {
+        return get(type.getName(), type.isArray());
+    }
+}
@@ -1,11 +1,15 @@
 package pt.up.fe.comp2025.ast;
 
-import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.classpath.ClassSignature;
+import pt.up.fe.comp2025.classpath.Descriptors;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 
+import java.util.List;
+import java.util.Optional;
+
 import static pt.up.fe.comp2025.ast.Kind.BINARY_EXPR;
 
 /**
@@ -15,10 +19,12 @@ public class TypeUtils {
 
 
     private final JmmSymbolTable table;
+    private final TypeUniverse universe;
     private String currentMethod = "";
 
     public TypeUtils(SymbolTable table) {
         this.table = (JmmSymbolTable) table;
+        this.universe = this.table.getTypeUniverse();
     }
 
     public void setCurrentMethod(String currentMethod) {
@@ -26,14 +32,21 @@ public class TypeUtils {
     }
 
     public static Type newIntType() {
-        return new Type("int", false);
+        return TypeUniverse.INT;
     }
 
-    public static Type newBooleanType() {return new Type("boolean", false);}
+    public static Type newBooleanType() {return TypeUniverse.BOOLEAN;}
 
-    public static Type newVoidType() {return new Type("void", false);}
+    public static Type newVoidType() {return TypeUniverse.VOID;}
 
-    public static Type newStringArrayType() {return new Type("String", true);}
+    public static Type newStringArrayType() {return TypeUniverse.STRING_ARRAY;}
+
+    /**
+     * Converts a type node to the canonical type of the given universe.
+     */
+    public static Type convertType(JmmNode typeNode, TypeUniverse universe) {
+        return universe.intern(convertType(typeNode));
+    }
 
     public static Type convertType(JmmNode typeNode) {
 
@@ -73,13 +86,114 @@ public class TypeUtils {
         }
     }
 
+    /**
+     * Overloads of the method called on an imported class (e.g. io.println(a), or foo.bar() with foo of an imported type).
+     *
+     * @return the overloads in the class and its superclasses, or empty if the callee is not an imported class on the classpath
+     */
+    public Optional<List<ClassSignature.Member>> getImportedOverloads(JmmNode methodCall) {
+        var callee = methodCall.getChild(0);
+
+        String className;
+        if (Kind.VAR_REF_EXPR.check(callee) && table.resolve(currentMethod, callee.get("name")) == null) {
+            // Static call, the callee is the name of the class
+            className = callee.get("name");
+        } else {
+            var calleeType = getExprType(callee);
+            if (calleeType == null || calleeType.isArray() || calleeType.getName().equals(table.getClassName())) {
+                return Optional.empty();
+            }
+            className = calleeType.getName();
+        }
+
+        return table.getImportedClass(className)
+                .flatMap(signature -> table.getSignatures().findMethods(signature.getName(), methodCall.get("name")));
+    }
+
+    /**
+     * The method of an imported class that a method call invokes, chosen among the overloads by the types of the arguments.
+     */
+    public Optional<ClassSignature.Member> getImportedMethod(JmmNode methodCall) {
+        return getImportedOverloads(methodCall)
+                .flatMap(overloads -> overloads.stream().filter(method -> acceptsArguments(method, methodCall)).findFirst());
+    }
+
+    /**
+     * Exact return type of a call on an imported class, when the class is on the classpath.
+     */
+    public Optional<Type> getImportedReturnType(JmmNode methodCall) {
+        return getImportedMethod(methodCall).map(method -> Descriptors.returnType(method.descriptor(), universe));
+    }
+
+    /**
+     * When the arguments match no overload (an error reported by ArgumentCheck), the call still has a type if
+     * all overloads return the same type.
+     */
+    private Optional<Type> getCommonReturnType(JmmNode methodCall) {
+        var returnTypes = getImportedOverloads(methodCall).orElse(List.of()).stream()
+                .map(method -> Descriptors.returnType(method.descriptor(), universe))
+                .distinct()
+                .toList();
+
+        return returnTypes.size() == 1 ? Optional.of(returnTypes.getFirst()) : Optional.empty();
+    }
+
+    /**
+     * Arguments of unknown types, and objects, are accepted by any parameter, since the class hierarchy of
+     * the imported classes is not fully known.
+     */
+    private boolean acceptsArguments(ClassSignature.Member method, JmmNode methodCall) {
+        var paramTypes = Descriptors.parameterTypes(method.descriptor(), universe);
+        int numArgs = methodCall.getNumChildren() - 1;
+
+        var isVarargs = method.isVarargs() && !paramTypes.isEmpty();
+        if (isVarargs ? numArgs < paramTypes.size() - 1 : numArgs != paramTypes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < numArgs; i++) {
+            var argType = getExprType(methodCall.getChild(i + 1));
+            if (argType == null || argType == TypeUniverse.UNKNOWN) {
+                continue;
+            }
+
+            Type paramType;
+            if (isVarargs && i >= paramTypes.size() - 1) {
+                var varargType = paramTypes.getLast();
+                // Either the array itself, or one of its elements
+                if (numArgs == paramTypes.size() && argType == varargType) {
+                    continue;
+                }
+                paramType = universe.get(varargType.getName(), false);
+            } else {
+                paramType = paramTypes.get(i);
+            }
+
+            if (argType != paramType && (isBuiltIn(argType) || isBuiltIn(paramType))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isBuiltIn(Type type) {
+        return type.isArray() || type == TypeUniverse.INT || type == TypeUniverse.BOOLEAN;
+    }
+
     /**
      * Gets the {@link Type} of an arbitrary expression.
+     * <p>
+     * Types are computed once per expression and method, and cached in the symbol table.
      *
      * @param expr
      * @return
      */
     public Type getExprType(JmmNode expr) {
+        return table.getExprTypes().get(expr, currentMethod, () -> computeExprType(expr));
+    }
+
+    private Type computeExprType(JmmNode expr) {
 
         String type = "unknown";
         boolean isArray = false;
@@ -91,47 +205,19 @@ public class TypeUtils {
             type = "boolean";
         }
         else if(Kind.VAR_REF_EXPR.check(expr) || Kind.VAR_DECL.check(expr)) {
-            for (Symbol field : table.getFields()) {
-                //The main method is static so it cannot access class fields
-                if (field.getName().equals(expr.get("name")) && (currentMethod == null || !currentMethod.equals("main"))) {
-                    type = field.getType().getName();
-                    isArray = field.getType().isArray();
-                }
-            }
-            var parameters = table.getParameters(currentMethod);
-            if(parameters != null) {
-                // Var is a parameter
-                if (parameters.stream().anyMatch(param -> param.getName().equals(expr.get("name")))) {
-                    for (Symbol param : parameters) {
-                        if (param.getName().equals(expr.get("name"))) {
-                            type = param.getType().getName();
-                            isArray = param.getType().isArray();
-
-                        }
-                    }
-                }
-            }
+            var symbol = table.resolve(currentMethod, expr.get("name"));
 
-            // Var is a declared variable
-            var locals = table.getLocalVariables(currentMethod);
-            if(locals != null) {
-                if (locals.stream()
-                        .anyMatch(varDecl -> varDecl.getName().equals(expr.get("name")))) {
-                    for (Symbol varDecl : locals) {
-                        if (varDecl.getName().equals(expr.get("name"))) {
-                            type = varDecl.getType().getName();
-                            isArray = varDecl.getType().isArray();
-                        }
-                    }
-
-                }
+            //The main method is static so it cannot access class fields
+            if (symbol != null && !(symbol.isField() && "main".equals(currentMethod))) {
+                type = symbol.getType().getName();
+                isArray = symbol.getType().isArray();
             }
-
         }
         else if(Kind.METHOD_CALL.check(expr)){
             var methodType = table.getReturnType(expr.get("name"));
             if(methodType == null){
-                return null;
+                // Methods of imported classes are only known if the class is on the classpath
+                return getImportedReturnType(expr).or(() -> getCommonReturnType(expr)).orElse(null);
             }
             type = table.getReturnType(expr.get("name")).getName();
             isArray = table.getReturnType(expr.get("name")).isArray();
@@ -165,9 +251,9 @@ public class TypeUtils {
             String op = expr.get("op");
             // Logical and comparison operators return boolean
             if (op.matches("&&|\\|\\||==|!=|<|>|<=|>=")) {
-                return new Type("boolean", false);
+                return TypeUniverse.BOOLEAN;
             } else {
-                return new Type("int", false);  // Arithmetic operations
+                return TypeUniverse.INT;  // Arithmetic operations
             }
         }
         else{
@@ -176,6 +262,6 @@ public class TypeUtils {
 
 
 
-        return new Type(type, isArray);
+        return universe.get(type, isArray);
     }
 }
@@ -3,21 +3,42 @@ package pt.up.fe.comp2025.backend;
 import pt.up.fe.comp.jmm.jasmin.JasminBackend;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.IncrementalCompilation;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 
 /**
  * Implementation of the Jasmin backend.
  */
 public class JasminBackendImpl implements JasminBackend {
 
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
+
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+    }
+
     @Override
     public JasminResult toJasmin(OllirResult ollirResult) {
 
-        System.out.println("Converting OLLIR to Jasmin:\n" + ollirResult.getOllirCode());
+        var logger = CompilerLogger.forConfig(ollirResult.getConfig());
+        logger.debug(Phase.JASMIN, () -> "Converting OLLIR to Jasmin:\n" + ollirResult.getOllirCode());
 
-        var jasminGenerator = new JasminGenerator(ollirResult);
-        var jasminCode = jasminGenerator.build();
+        var jasminGenerator = new JasminGenerator(ollirResult, metrics);
+        jasminGenerator.setIncremental(incremental);
+        String jasminCode;
+        try (var timer = metrics.start("jasmin")) {
+            jasminCode = jasminGenerator.build();
+        }
 
-        System.out.println("Generated Jasmin:\n" + jasminCode);
+        logger.debug(Phase.JASMIN, () -> "Generated Jasmin:\n" + jasminCode);
 
         return new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
     }
@@ -8,6 +8,9 @@ import org.specs.comp.ollir.type.BuiltinType;
 import org.specs.comp.ollir.type.Type;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.IncrementalCompilation;
+import pt.up.fe.comp2025.optimization.ir.ControlFlowGraph;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 import pt.up.fe.specs.util.classmap.FunctionClassMap;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
 import pt.up.fe.specs.util.utilities.StringLines;
@@ -35,12 +38,24 @@ public class JasminGenerator {
 
     Method currentMethod;
 
+    // Control-flow graph of the current method, built the first time a branch needs it
+    private ControlFlowGraph currentCfg;
+
     private final JasminUtils types;
 
     private final FunctionClassMap<TreeNode, String> generators;
 
+    private final CompilerMetrics metrics;
+
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
     public JasminGenerator(OllirResult ollirResult) {
+        this(ollirResult, CompilerMetrics.disabled());
+    }
+
+    public JasminGenerator(OllirResult ollirResult, CompilerMetrics metrics) {
         this.ollirResult = ollirResult;
+        this.metrics = metrics;
 
         reports = new ArrayList<>();
         code = null;
@@ -83,6 +98,10 @@ public class JasminGenerator {
     }
 
 
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+    }
+
     public List<Report> getReports() {
         return reports;
     }
@@ -153,9 +172,25 @@ public class JasminGenerator {
 
 
     private String generateMethod(Method method) {
+        var stored = incremental.getJasminCode(method.getMethodName());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        String code;
+        try (var timer = metrics.start("jasmin/method:" + method.getMethodName())) {
+            code = generateMethodCode(method);
+        }
+        incremental.putJasminCode(method.getMethodName(), code);
+
+        return code;
+    }
+
+    private String generateMethodCode(Method method) {
         //System.out.println("STARTING METHOD " + method.getMethodName());
         // set method
         currentMethod = method;
+        currentCfg = null;
 
         var code = new StringBuilder();
 
@@ -188,27 +223,36 @@ public class JasminGenerator {
                 .append("(" + params + ")" + returnType).append(NL);
 
 
-        // Calculate and add limits
-        int limitStack = calculateLimitStack(method);
-        int limitLocals = calculateLimitLocals(method);
-        code.append(TAB).append(".limit stack ").append(limitStack).append(NL);
-        code.append(TAB).append(".limit locals ").append(limitLocals).append(NL);
-
+        var body = new StringBuilder();
         for (var inst : method.getInstructions()) {
             var labels = method.getLabels(inst);
             for(var label: labels){
-                code.append(label).append(":").append(NL);
+                body.append(label).append(":").append(NL);
             }
             var instCode = StringLines.getLines(apply(inst)).stream()
                     .collect(Collectors.joining(NL + TAB, TAB, NL));
 
-            code.append(instCode);
+            body.append(instCode);
+
+            // The value returned by a call used as a statement is discarded
+            if ((inst instanceof InvokeStaticInstruction || inst instanceof InvokeVirtualInstruction) &&
+                    !types.ollirToJasminType(((CallInstruction) inst).getReturnType()).equals("V")) {
+                body.append(TAB).append("pop").append(NL);
+            }
         }
 
+        // Calculate and add limits, the stack from the instructions just generated
+        int limitStack = JasminStackLimit.compute(body.toString());
+        int limitLocals = calculateLimitLocals(method);
+        code.append(TAB).append(".limit stack ").append(limitStack).append(NL);
+        code.append(TAB).append(".limit locals ").append(limitLocals).append(NL);
+        code.append(body);
+
         code.append(".end method\n");
 
         // unset method
         currentMethod = null;
+        currentCfg = null;
         //System.out.println("ENDING METHOD " + method.getMethodName());
         return code.toString();
     }
@@ -551,6 +595,63 @@ public class JasminGenerator {
         return code.toString();
     }
     
+    /**
+     * Finds the comparison the condition variable of a branch holds, when the branch can test its left operand
+     * instead: the last assignment of the variable before the branch is in the same block, and the left operand is
+     * not assigned between them.
+     */
+    private BinaryOpInstruction findComparison(CondBranchInstruction branch, String condVarName) {
+        var instructions = getCurrentCfg().getBlock(branch).getInstructions();
+        int branchIndex = instructions.indexOf(branch);
+
+        for (int i = branchIndex - 1; i >= 0; i--) {
+            if (!condVarName.equals(getAssignedVariable(instructions.get(i)))) {
+                continue;
+            }
+
+            if (!(((AssignInstruction) instructions.get(i)).getRhs() instanceof BinaryOpInstruction binOp)) {
+                return null;
+            }
+
+            // An array element can change without its variables being assigned
+            var leftOperand = binOp.getOperands().get(0);
+            if (leftOperand instanceof ArrayOperand && i + 1 < branchIndex) {
+                return null;
+            }
+
+            for (int j = i + 1; j < branchIndex; j++) {
+                if (leftOperand instanceof Operand operand
+                        && operand.getName().equals(getAssignedVariable(instructions.get(j)))) {
+                    return null;
+                }
+            }
+
+            return binOp;
+        }
+
+        return null;
+    }
+
+    /**
+     * The variable the instruction assigns, or null if it assigns an array element or nothing.
+     */
+    private static String getAssignedVariable(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign && !(assign.getDest() instanceof ArrayOperand)
+                && assign.getDest() instanceof Operand dest) {
+            return dest.getName();
+        }
+
+        return null;
+    }
+
+    private ControlFlowGraph getCurrentCfg() {
+        if (currentCfg == null) {
+            currentCfg = ControlFlowGraph.build(currentMethod);
+        }
+
+        return currentCfg;
+    }
+
     private boolean isComparisonWithZero(OperationType opType, Element rightOperand) {
         if (rightOperand instanceof LiteralElement && 
             (opType == OperationType.LTH || opType == OperationType.GTH || 
@@ -877,54 +978,37 @@ public class JasminGenerator {
         var label = condBranchInstruction.getLabel();
         
         // Check if this is a variable that holds a comparison result
-        if (condition instanceof SingleOpInstruction && ((SingleOpInstruction) condition).getSingleOperand() instanceof Operand) {
-            SingleOpInstruction singleOp = (SingleOpInstruction) condition;
-            Operand condOperand = (Operand) singleOp.getSingleOperand();
-            String condVarName = condOperand.getName();
-            
-            // Try to find the most recent assignment to this variable
-            for (int i = currentMethod.getInstructions().size() - 1; i >= 0; i--) {
-                Instruction inst = currentMethod.getInstructions().get(i);
-                if (inst instanceof AssignInstruction) {
-                    AssignInstruction assign = (AssignInstruction) inst;
-                    if (assign.getDest() instanceof Operand && 
-                        ((Operand) assign.getDest()).getName().equals(condVarName)) {
-                        
-                        // Found the assignment to our condition variable
-                        if (assign.getRhs() instanceof BinaryOpInstruction) {
-                            BinaryOpInstruction binOp = (BinaryOpInstruction) assign.getRhs();
-                            OperationType opType = binOp.getOperation().getOpType();
-                            Element leftOperand = binOp.getOperands().get(0);
-                            Element rightOperand = binOp.getOperands().get(1);
-                            
-                            // Check if this is a comparison with zero
-                            if (isComparisonWithZero(opType, rightOperand) && rightOperand instanceof LiteralElement) {
-                                // Apply the optimization - load the left operand and use the appropriate branch
-                                code.append(apply(leftOperand));
-                                
-                                switch (opType) {
-                                    case LTH:
-                                        code.append("iflt ").append(label).append(NL);
-                                        return code.toString();
-                                    case GTH:
-                                        code.append("ifgt ").append(label).append(NL);
-                                        return code.toString();
-                                    case GTE:
-                                        code.append("ifge ").append(label).append(NL);
-                                        return code.toString();
-                                    case LTE:
-                                        code.append("ifle ").append(label).append(NL);
-                                        return code.toString();
-                                    case EQ:
-                                        code.append("ifeq ").append(label).append(NL);
-                                        return code.toString();
-                                    case NEQ:
-                                        code.append("ifne ").append(label).append(NL);
-                                        return code.toString();
-                                }
-                            }
-                        }
-                        break; // Stop after finding the first assignment to this variable
+        if (condition instanceof SingleOpInstruction singleOp && singleOp.getSingleOperand() instanceof Operand condOperand) {
+            BinaryOpInstruction binOp = findComparison(condBranchInstruction, condOperand.getName());
+            if (binOp != null) {
+                OperationType opType = binOp.getOperation().getOpType();
+                Element leftOperand = binOp.getOperands().get(0);
+                Element rightOperand = binOp.getOperands().get(1);
+
+                // Check if this is a comparison with zero
+                if (isComparisonWithZero(opType, rightOperand) && rightOperand instanceof LiteralElement) {
+                    // Apply the optimization - load the left operand and use the appropriate branch
+                    code.append(apply(leftOperand));
+
+                    switch (opType) {
+                        case LTH:
+                            code.append("iflt ").append(label).append(NL);
+                            return code.toString();
+                        case GTH:
+                            code.append("ifgt ").append(label).append(NL);
+                            return code.toString();
+                        case GTE:
+                            code.append("ifge ").append(label).append(NL);
+                            return code.toString();
+                        case LTE:
+                            code.append("ifle ").append(label).append(NL);
+                            return code.toString();
+                        case EQ:
+                            code.append("ifeq ").append(label).append(NL);
+                            return code.toString();
+                        case NEQ:
+                            code.append("ifne ").append(label).append(NL);
+                            return code.toString();
                     }
                 }
             }
@@ -1227,106 +1311,6 @@ public class JasminGenerator {
         
         return maxReg;
     }
-    
-    /**
-     * Calculate the maximum stack size needed for a method.
-     * This is a simplified version, a more accurate implementation would track
-     * stack depths for each instruction.
-     */
-    private int calculateLimitStack(Method method) {
-        // For simple methods, ensure a minimum stack size
-        if (method.getInstructions().size() < 2) {
-            return 2;
-        }
-        
-        // For array operations, we use a larger stack to be safe
-        for (Instruction instruction : method.getInstructions()) {
-            if (instruction instanceof ArrayLengthInstruction || 
-                (instruction instanceof AssignInstruction && ((AssignInstruction)instruction).getDest() instanceof ArrayOperand) ||
-                (instruction instanceof NewInstruction && 
-                 ((NewInstruction)instruction).getCaller().getType().toString().endsWith("[]"))) {
-                return 3; // Arrays typically need 3 stack slots at minimum
-            }
-            
-            // Check for virtual method calls which need more stack space
-            if (instruction instanceof InvokeVirtualInstruction) {
-                InvokeVirtualInstruction invoke = (InvokeVirtualInstruction) instruction;
-                if (invoke.getOperands().size() > 3) {  // If more than 2 args + object
-                    return Math.max(4, invoke.getOperands().size());
-                }
-                return 3;
-            }
-        }
-        
-        // Default stack calculation for other methods
-        int maxStack = 0;
-        int currentStack = 0;
-        
-        for (Instruction instruction : method.getInstructions()) {
-            // Calculate stack changes for different instruction types
-            if (instruction instanceof AssignInstruction) {
-                AssignInstruction assign = (AssignInstruction) instruction;
-                Instruction rhs = assign.getRhs();
-                Element lhs = assign.getDest();
-                
-                // For array assignments (a[i] = x), we need array ref + index + value
-                if (lhs instanceof ArrayOperand) {
-                    currentStack = Math.max(3, currentStack);
-                }
-                // Handle different types of right-hand side expressions
-                else if (rhs instanceof BinaryOpInstruction) {
-                    // Binary operations pop 2 values and push 1
-                    currentStack = Math.max(2, currentStack); // Need at least 2 slots
-                } else if (rhs instanceof NewInstruction) {
-                    // New array needs index + array reference
-                    NewInstruction newInst = (NewInstruction) rhs;
-                    String typeStr = newInst.getCaller().getType().toString();
-                    if (typeStr.endsWith("[]")) {
-                        currentStack = Math.max(2, currentStack);
-                    } else {
-                        currentStack = Math.max(1, currentStack); 
-                    }
-                } else if (rhs instanceof InvokeVirtualInstruction) {
-                    // Method calls need space for all arguments + this
-                    int argCount = ((InvokeVirtualInstruction) rhs).getOperands().size() - 1; // -1 for object reference
-                    currentStack = Math.max(argCount + 1, currentStack);
-                } else if (rhs instanceof InvokeStaticInstruction) {
-                    // Static method calls need space for all arguments
-                    int argCount = ((InvokeStaticInstruction) rhs).getOperands().size() - 1; // -1 for class name
-                    currentStack = Math.max(argCount, currentStack);
-                } else if (rhs instanceof ArrayLengthInstruction) {
-                    // Array length needs array reference
-                    currentStack = Math.max(1, currentStack);
-                } else {
-                    // Simple expression (literal, variable)
-                    currentStack = Math.max(1, currentStack);
-                }
-            } 
-            else if (instruction instanceof ReturnInstruction) {
-                ReturnInstruction ret = (ReturnInstruction) instruction;
-                if (ret.hasReturnValue()) {
-                    currentStack = Math.max(1, currentStack);
-                }
-            }
-            else if (instruction instanceof CondBranchInstruction) {
-                // Condition branch typically needs 2 slots for comparison
-                currentStack = Math.max(2, currentStack);
-            }
-            else if (instruction instanceof PutFieldInstruction || instruction instanceof GetFieldInstruction) {
-                // Field access needs ref + value for put, just ref for get
-                currentStack = Math.max(2, currentStack); 
-            }
-            else if (instruction instanceof ArrayLengthInstruction) {
-                // Array length operation needs array reference
-                currentStack = Math.max(1, currentStack);
-            }
-            
-            maxStack = Math.max(maxStack, currentStack);
-        }
-        
-        // A minimum stack size is necessary
-        return Math.max(2, maxStack);
-    }
 
 
 }
\ No newline at end of file
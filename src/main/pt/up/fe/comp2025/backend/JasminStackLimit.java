@@ -0,0 +1,113 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+import pt.up.fe.specs.util.utilities.StringLines;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the '.limit stack' of a method from its Jasmin instructions, tracking the depth of the operand stack
+ * after each one.
+ * <p>
+ * Jumps record the depth at their label, so the code after a 'goto' or a return starts at the depth its label is
+ * reached with (the 'iconst_0 / goto / iconst_1' of a comparison pushes one value, not two).
+ */
+class JasminStackLimit {
+
+    private JasminStackLimit() {
+    }
+
+    static int compute(String methodCode) {
+        Map<String, Integer> labelDepths = new HashMap<>();
+        int depth = 0;
+        int maxDepth = 0;
+        boolean reachable = true;
+
+        for (var line : StringLines.getLines(methodCode)) {
+            var instruction = line.trim();
+            if (instruction.isEmpty() || instruction.startsWith(";") || instruction.startsWith(".")) {
+                continue;
+            }
+
+            if (instruction.endsWith(":")) {
+                // Only reached through a jump, which recorded its depth (loops jump back with an empty stack)
+                if (!reachable) {
+                    depth = labelDepths.getOrDefault(instruction.substring(0, instruction.length() - 1), 0);
+                }
+                reachable = true;
+                continue;
+            }
+
+            var parts = instruction.split("\\s+");
+            var opcode = parts[0];
+            var operand = parts.length > 1 ? parts[parts.length - 1] : "";
+
+            depth += delta(opcode, operand);
+            maxDepth = Math.max(maxDepth, depth);
+
+            if (opcode.startsWith("if") || opcode.equals("goto")) {
+                labelDepths.merge(operand, depth, Math::max);
+            }
+
+            if (opcode.equals("goto") || opcode.endsWith("return") || opcode.equals("athrow")) {
+                reachable = false;
+            }
+        }
+
+        return maxDepth;
+    }
+
+    /**
+     * Values pushed minus values popped by an instruction.
+     */
+    private static int delta(String opcode, String operand) {
+        if (opcode.startsWith("invoke")) {
+            return invokeDelta(opcode, operand);
+        }
+
+        if (opcode.matches("[ia](load|const)(_m?\\d)?")) {
+            return 1;
+        }
+
+        if (opcode.matches("[ia]store(_\\d)?")) {
+            return -1;
+        }
+
+        return switch (opcode) {
+            case "aconst_null", "bipush", "sipush", "ldc", "new", "dup", "getstatic" -> 1;
+            case "iinc", "nop", "swap", "ineg", "newarray", "anewarray", "arraylength", "getfield", "checkcast",
+                 "instanceof", "goto", "return" -> 0;
+            case "iadd", "isub", "imul", "idiv", "irem", "iand", "ior", "ixor", "ishl", "ishr", "iushr",
+                 "iaload", "baload", "aaload", "pop", "putstatic", "ireturn", "areturn", "athrow",
+                 "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle", "ifnull", "ifnonnull" -> -1;
+            case "if_icmpeq", "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple",
+                 "if_acmpeq", "if_acmpne", "putfield", "pop2" -> -2;
+            case "iastore", "bastore", "aastore" -> -3;
+            default -> throw new NotImplementedException("Stack effect of '" + opcode + "'");
+        };
+    }
+
+    /**
+     * A call pops its arguments (and the object, unless static) and pushes its result, unless void.
+     */
+    private static int invokeDelta(String opcode, String method) {
+        var descriptor = method.substring(method.indexOf('('));
+        int popped = opcode.equals("invokestatic") ? 0 : 1;
+
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            var type = descriptor.charAt(i);
+            while (type == '[') {
+                type = descriptor.charAt(++i);
+            }
+            if (type == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            popped++;
+            i++;
+        }
+
+        return (descriptor.endsWith(")V") ? 0 : 1) - popped;
+    }
+}
@@ -0,0 +1,100 @@
+package pt.up.fe.comp2025.classpath;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the name, superclass, fields and methods of a .class file, skipping everything else (code, attributes).
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private ClassFileReader() {
+    }
+
+    public static ClassSignature read(byte[] classFile) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(classFile));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+
+        // minor and major versions
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        var constantPool = readConstantPool(in);
+
+        in.readUnsignedShort(); // access flags
+        var name = className(constantPool, in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        var superName = superIndex == 0 ? "" : className(constantPool, superIndex);
+
+        int interfaces = in.readUnsignedShort();
+        in.skipBytes(2 * interfaces);
+
+        var fields = readMembers(in, constantPool);
+        var methods = readMembers(in, constantPool);
+
+        return new ClassSignature(name, superName, fields, methods);
+    }
+
+    /**
+     * Only UTF-8 entries and the name index of class entries are kept, the other entries are skipped.
+     */
+    private static Object[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        var constantPool = new Object[count];
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> constantPool[i] = in.readUTF(); // Utf8
+                case 7 -> constantPool[i] = in.readUnsignedShort(); // Class
+                case 8, 16, 19, 20 -> in.skipBytes(2); // String, MethodType, Module, Package
+                case 15 -> in.skipBytes(3); // MethodHandle
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4); // Integer, Float, refs, NameAndType, dynamic
+                case 5, 6 -> { // Long and Double take two entries
+                    in.skipBytes(8);
+                    i++;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag + " at entry " + i);
+            }
+        }
+
+        return constantPool;
+    }
+
+    private static String className(Object[] constantPool, int classIndex) {
+        var internalName = (String) constantPool[(Integer) constantPool[classIndex]];
+        return internalName.replace('/', '.');
+    }
+
+    private static List<ClassSignature.Member> readMembers(DataInputStream in, Object[] constantPool) throws IOException {
+        int count = in.readUnsignedShort();
+        var members = new ArrayList<ClassSignature.Member>(count);
+
+        for (int i = 0; i < count; i++) {
+            int accessFlags = in.readUnsignedShort();
+            var name = (String) constantPool[in.readUnsignedShort()];
+            var descriptor = (String) constantPool[in.readUnsignedShort()];
+            skipAttributes(in);
+
+            members.add(new ClassSignature.Member(name, descriptor, accessFlags));
+        }
+
+        return members;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.readUnsignedShort(); // name
+            in.skipNBytes(Integer.toUnsignedLong(in.readInt()));
+        }
+    }
+}
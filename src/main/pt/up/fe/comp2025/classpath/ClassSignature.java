@@ -0,0 +1,113 @@
+package pt.up.fe.comp2025.classpath;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fields and methods declared by a compiled class, with their JVM descriptors.
+ */
+public class ClassSignature {
+
+    /**
+     * A field or method: its name, JVM descriptor and access flags.
+     */
+    public record Member(String name, String descriptor, int accessFlags) {
+
+        private static final int ACC_STATIC = 0x0008;
+        private static final int ACC_VARARGS = 0x0080;
+
+        public boolean isStatic() {
+            return (accessFlags & ACC_STATIC) != 0;
+        }
+
+        public boolean isVarargs() {
+            return (accessFlags & ACC_VARARGS) != 0;
+        }
+    }
+
+    private final String name;
+    private final String superName;
+    private final List<Member> fields;
+    private final List<Member> methods;
+
+    /**
+     * @param name      the fully qualified name of the class, with dots (e.g. pt.up.fe.comp.Foo)
+     * @param superName the fully qualified name of the superclass, or an empty string
+     */
+    public ClassSignature(String name, String superName, List<Member> fields, List<Member> methods) {
+        this.name = name;
+        this.superName = superName;
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSimpleName() {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<Member> getFields() {
+        return fields;
+    }
+
+    public List<Member> getMethods() {
+        return methods;
+    }
+
+    /**
+     * The overloads of a method declared in this class (not in its superclasses).
+     */
+    public List<Member> getMethods(String methodName) {
+        return methods.stream().filter(method -> method.name().equals(methodName)).toList();
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeUTF(superName);
+        writeMembers(out, fields);
+        writeMembers(out, methods);
+    }
+
+    public static ClassSignature read(DataInput in) throws IOException {
+        var name = in.readUTF();
+        var superName = in.readUTF();
+        var fields = readMembers(in);
+        var methods = readMembers(in);
+
+        return new ClassSignature(name, superName, fields, methods);
+    }
+
+    private static void writeMembers(DataOutput out, List<Member> members) throws IOException {
+        out.writeShort(members.size());
+        for (var member : members) {
+            out.writeUTF(member.name());
+            out.writeUTF(member.descriptor());
+            out.writeShort(member.accessFlags());
+        }
+    }
+
+    private static List<Member> readMembers(DataInput in) throws IOException {
+        int count = in.readUnsignedShort();
+        var members = new ArrayList<Member>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(new Member(in.readUTF(), in.readUTF(), in.readUnsignedShort()));
+        }
+
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return name + " extends " + superName + " " + fields + " " + methods;
+    }
+}
@@ -0,0 +1,75 @@
+package pt.up.fe.comp2025.classpath;
+
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp2025.ast.TypeUniverse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts JVM descriptors to Java-- types.
+ * <p>
+ * Classes are known by their simple name in Java--, so 'Lpt/up/fe/comp/Foo;' becomes Foo. Primitive types
+ * that do not exist in Java-- (long, char, ...) keep their Java name, and never match a Java-- type.
+ */
+public class Descriptors {
+
+    private Descriptors() {
+    }
+
+    public static Type returnType(String methodDescriptor, TypeUniverse universe) {
+        return toType(methodDescriptor.substring(methodDescriptor.indexOf(')') + 1), universe);
+    }
+
+    public static List<Type> parameterTypes(String methodDescriptor, TypeUniverse universe) {
+        var types = new ArrayList<Type>();
+
+        int index = 1;
+        while (methodDescriptor.charAt(index) != ')') {
+            int end = index;
+            while (methodDescriptor.charAt(end) == '[') {
+                end++;
+            }
+            end = methodDescriptor.charAt(end) == 'L' ? methodDescriptor.indexOf(';', end) + 1 : end + 1;
+
+            types.add(toType(methodDescriptor.substring(index, end), universe));
+            index = end;
+        }
+
+        return types;
+    }
+
+    /**
+     * Converts a field descriptor (e.g. I, [I, Ljava/lang/String;) to a type.
+     */
+    public static Type toType(String descriptor, TypeUniverse universe) {
+        int dimensions = 0;
+        while (descriptor.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+
+        String name = switch (descriptor.charAt(dimensions)) {
+            case 'I' -> "int";
+            case 'Z' -> "boolean";
+            case 'V' -> "void";
+            case 'J' -> "long";
+            case 'D' -> "double";
+            case 'F' -> "float";
+            case 'C' -> "char";
+            case 'B' -> "byte";
+            case 'S' -> "short";
+            case 'L' -> {
+                var className = descriptor.substring(dimensions + 1, descriptor.length() - 1);
+                yield className.substring(className.lastIndexOf('/') + 1);
+            }
+            default -> throw new IllegalArgumentException("Invalid descriptor '" + descriptor + "'");
+        };
+
+        // Java-- only has one-dimensional arrays, deeper arrays keep the extra dimensions in the name
+        if (dimensions > 1) {
+            name += "[]".repeat(dimensions - 1);
+        }
+
+        return universe.get(name, dimensions > 0);
+    }
+}
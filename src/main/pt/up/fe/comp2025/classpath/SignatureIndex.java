@@ -0,0 +1,465 @@
+package pt.up.fe.comp2025.classpath;
+
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signatures of the compiled classes on the classpath of the Java-- programs ('-c').
+ * <p>
+ * The signatures are kept in a cache file, where each class is stored under the SHA-256 hash of its .class file.
+ * When loading the index, the class files are only hashed: classes already in the cache are decoded from the
+ * memory-mapped cache file the first time they are needed, and only new or changed class files are parsed, after
+ * which the cache is rewritten. Indexes are shared by all compilations with the same classpath: each time an index
+ * is requested its class files are checked again, and the index is reloaded when any class was added, changed or
+ * removed since it was loaded (e.g., a library rebuilt while the compile server is running).
+ * <p>
+ * The hash of each class file is kept with its modification time and size, and the file is only read and hashed
+ * again when one of them changes. A file modified shortly before it was hashed could be rewritten without changing
+ * either, so its hash is only trusted once it was taken well after the modification.
+ * <p>
+ * Only folders of .class files are supported as classpath entries.
+ *
+ * <pre>
+ * cache file: MAGIC VERSION count { hash[32] length signature[length] }*
+ * </pre>
+ */
+public class SignatureIndex {
+
+    private static final int MAGIC = 0x4A4D4D53; // JMMS
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+
+    // Covers the coarsest timestamps of common file systems
+    private static final long RACY_MILLIS = 2000;
+
+    private static final SignatureIndex EMPTY = new SignatureIndex(Map.of(), Map.of(), null, 0, 0, "");
+
+    private static final Map<List<File>, SignatureIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private static final Map<File, ClassFileStamp> STAMPS = new ConcurrentHashMap<>();
+
+    // For each class name, where its signature is in the cache file, or the signature itself once parsed or decoded
+    private final Map<String, Integer> cachedOffsets;
+    private final Map<String, ClassSignature> signatures;
+    private final ByteBuffer cache;
+    private final int parsedClasses;
+    private final int cachedClasses;
+    private final String fingerprint;
+
+    private SignatureIndex(Map<String, Integer> cachedOffsets, Map<String, ClassSignature> parsed, ByteBuffer cache,
+                           int parsedClasses, int cachedClasses, String fingerprint) {
+        this.cachedOffsets = cachedOffsets;
+        this.signatures = new ConcurrentHashMap<>(parsed);
+        this.cache = cache;
+        this.parsedClasses = parsedClasses;
+        this.cachedClasses = cachedClasses;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * An index without classes, used when no classpath is given.
+     */
+    public static SignatureIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the index of the classpath of the config ('-c'), logging to the logger of the config.
+     */
+    public static SignatureIndex forConfig(Map<String, String> config) {
+        return forClasspath(CompilerConfig.getClasspath(config), CompilerLogger.forConfig(config));
+    }
+
+    public static SignatureIndex forClasspath(List<File> classpath) {
+        return forClasspath(classpath, CompilerLogger.quiet());
+    }
+
+    /**
+     * Returns the index of the given classpath, with the cache file in the temporary folder. The index is loaded
+     * the first time, and again whenever the classes on the classpath no longer match the loaded index.
+     */
+    public static SignatureIndex forClasspath(List<File> classpath, CompilerLogger logger) {
+        if (classpath.isEmpty()) {
+            return EMPTY;
+        }
+
+        var entries = List.copyOf(classpath);
+        var fingerprint = fingerprint(findClassFiles(entries));
+
+        var index = INDEXES.get(entries);
+        if (index != null && index.fingerprint.equals(fingerprint)) {
+            return index;
+        }
+
+        return INDEXES.compute(entries, (key, current) -> current != null && current.fingerprint.equals(fingerprint)
+                ? current
+                : load(key, defaultCacheFile(key), logger));
+    }
+
+    static File defaultCacheFile(List<File> classpath) {
+        var key = classpath.stream().map(File::getAbsolutePath).toList().toString();
+        var name = "jmm-signatures-" + HexFormat.of().formatHex(sha256(key.getBytes(StandardCharsets.UTF_8))) + ".idx";
+
+        return new File(System.getProperty("java.io.tmpdir"), name);
+    }
+
+    public static SignatureIndex load(List<File> classpath, File cacheFile) {
+        return load(classpath, cacheFile, CompilerLogger.quiet());
+    }
+
+    /**
+     * Loads the signatures of the classes in the given folders, using and updating the cache file.
+     * When a class is in more than one folder, the first one wins.
+     */
+    public static SignatureIndex load(List<File> classpath, File cacheFile, CompilerLogger logger) {
+        var classFiles = findClassFiles(classpath);
+
+        var cache = mapCache(cacheFile);
+        var cacheEntries = readCacheEntries(cache);
+
+        var cachedOffsets = new HashMap<String, Integer>();
+        var parsed = new HashMap<String, ClassSignature>();
+        var hashes = new HashMap<String, byte[]>();
+
+        for (var classFile : classFiles.entrySet()) {
+            var hash = hash(classFile.getValue());
+            hashes.put(classFile.getKey(), hash);
+
+            var offset = cacheEntries.get(new HashKey(hash));
+            if (offset != null) {
+                cachedOffsets.put(classFile.getKey(), offset);
+                continue;
+            }
+
+            try {
+                parsed.put(classFile.getKey(), ClassFileReader.read(readBytes(classFile.getValue())));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read class file '" + classFile.getValue() + "'", e);
+            }
+        }
+
+        // Rewrite the cache when classes were added, changed or removed
+        if (!parsed.isEmpty() || cacheEntries.size() != classFiles.size()) {
+            var records = new ArrayList<byte[]>(classFiles.size());
+            var recordHashes = new ArrayList<byte[]>(classFiles.size());
+            for (var className : classFiles.keySet()) {
+                var offset = cachedOffsets.get(className);
+                records.add(offset != null ? recordAt(cache, offset) : encode(parsed.get(className)));
+                recordHashes.add(hashes.get(className));
+            }
+
+            writeCache(cacheFile, recordHashes, records, logger);
+        }
+
+        return new SignatureIndex(cachedOffsets, parsed, cache, parsed.size(), cachedOffsets.size(),
+                fingerprint(classFiles.keySet(), hashes));
+    }
+
+    /**
+     * Finds a class by its fully qualified name (e.g. io, pt.up.fe.comp.Foo).
+     */
+    public Optional<ClassSignature> find(String className) {
+        var signature = signatures.get(className);
+        if (signature != null) {
+            return Optional.of(signature);
+        }
+
+        var offset = cachedOffsets.get(className);
+        if (offset == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(signatures.computeIfAbsent(className, name -> decode(recordAt(cache, offset))));
+    }
+
+    /**
+     * All overloads of a method in a class and its superclasses.
+     *
+     * @return the overloads, or empty if the class, or one of its superclasses (except Object), is not on the classpath
+     */
+    public Optional<List<ClassSignature.Member>> findMethods(String className, String methodName) {
+        var methods = new ArrayList<ClassSignature.Member>();
+
+        var currentClass = className;
+        while (!currentClass.isEmpty() && !currentClass.equals("java.lang.Object")) {
+            var signature = find(currentClass);
+            if (signature.isEmpty()) {
+                return Optional.empty();
+            }
+
+            methods.addAll(signature.get().getMethods(methodName));
+            currentClass = signature.get().getSuperName();
+        }
+
+        return Optional.of(methods);
+    }
+
+    /**
+     * A hash of the names and contents of all classes, empty for the empty index.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return cachedOffsets.size() + parsedClasses;
+    }
+
+    /**
+     * Number of classes whose .class file was parsed when loading the index (i.e., not found in the cache).
+     */
+    public int getParsedClasses() {
+        return parsedClasses;
+    }
+
+    public int getCachedClasses() {
+        return cachedClasses;
+    }
+
+    /**
+     * The class files of the given folders, by class name. When a class is in more than one folder, the first one wins.
+     */
+    private static Map<String, File> findClassFiles(List<File> classpath) {
+        var classFiles = new LinkedHashMap<String, File>();
+        for (var folder : classpath) {
+            findClassFiles(folder, "", classFiles);
+        }
+
+        return classFiles;
+    }
+
+    /**
+     * The fingerprint of the classes as they are now on disk, the same as the one of an index loaded from them.
+     */
+    private static String fingerprint(Map<String, File> classFiles) {
+        var hashes = new HashMap<String, byte[]>();
+        for (var classFile : classFiles.entrySet()) {
+            hashes.put(classFile.getKey(), hash(classFile.getValue()));
+        }
+
+        return fingerprint(classFiles.keySet(), hashes);
+    }
+
+    /**
+     * Identifies the content of the whole classpath, from the name and hash of each class.
+     */
+    private static String fingerprint(Iterable<String> classNames, Map<String, byte[]> hashes) {
+        var fingerprint = new ByteArrayOutputStream();
+        for (var className : classNames) {
+            fingerprint.writeBytes(className.getBytes(StandardCharsets.UTF_8));
+            fingerprint.writeBytes(hashes.get(className));
+        }
+
+        return HexFormat.of().formatHex(sha256(fingerprint.toByteArray()));
+    }
+
+    /**
+     * The SHA-256 hash of a class file, reused while its modification time and size stay the same.
+     */
+    private static byte[] hash(File classFile) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(classFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file '" + classFile + "'", e);
+        }
+
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        var file = classFile.getAbsoluteFile();
+        var stamp = STAMPS.get(file);
+        if (stamp != null && stamp.modified() == modified && stamp.size() == size
+                && modified + RACY_MILLIS < stamp.hashedAt()) {
+            return stamp.hash();
+        }
+
+        long hashedAt = System.currentTimeMillis();
+        var hash = sha256(readBytes(classFile));
+        STAMPS.put(file, new ClassFileStamp(modified, size, hashedAt, hash));
+
+        return hash;
+    }
+
+    private static void findClassFiles(File folder, String packagePrefix, Map<String, File> classFiles) {
+        var files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+        for (var file : files) {
+            if (file.isDirectory()) {
+                findClassFiles(file, packagePrefix + file.getName() + ".", classFiles);
+            } else if (file.getName().endsWith(".class")) {
+                var className = packagePrefix + file.getName().substring(0, file.getName().length() - ".class".length());
+                classFiles.putIfAbsent(className, file);
+            }
+        }
+    }
+
+    private static ByteBuffer mapCache(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try (var channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            // An unreadable cache is rebuilt
+            return null;
+        }
+    }
+
+    /**
+     * Reads the hash and offset of each record, without decoding the signatures. A cache whose records do not
+     * exactly fill the file (e.g., truncated or corrupted) is treated as empty.
+     */
+    private static Map<HashKey, Integer> readCacheEntries(ByteBuffer cache) {
+        if (cache == null || cache.limit() < 12 || cache.getInt(0) != MAGIC || cache.getInt(4) != VERSION) {
+            return Map.of();
+        }
+
+        var entries = new HashMap<HashKey, Integer>();
+        int count = cache.getInt(8);
+        int position = 12;
+        for (int i = 0; i < count; i++) {
+            if (cache.limit() - position < HASH_BYTES + 4) {
+                return Map.of();
+            }
+
+            int length = cache.getInt(position + HASH_BYTES);
+            if (length < 0 || length > cache.limit() - position - HASH_BYTES - 4) {
+                return Map.of();
+            }
+
+            var hash = new byte[HASH_BYTES];
+            cache.get(position, hash);
+            entries.put(new HashKey(hash), position + HASH_BYTES);
+
+            position += HASH_BYTES + 4 + length;
+        }
+
+        return position == cache.limit() ? entries : Map.of();
+    }
+
+    /**
+     * The encoded signature at the given offset (its length followed by its bytes), at an offset read by
+     * {@link #readCacheEntries(ByteBuffer)}, which checked that the record is inside the cache.
+     */
+    private static byte[] recordAt(ByteBuffer cache, int offset) {
+        var record = new byte[cache.getInt(offset)];
+        cache.get(offset + 4, record);
+
+        return record;
+    }
+
+    private static byte[] encode(ClassSignature signature) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            signature.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static ClassSignature decode(byte[] record) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(record))) {
+            return ClassSignature.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes to a temporary file that then replaces the cache, so concurrent compilers never see a partial cache.
+     * The cache is only an optimization, the index is still valid when it cannot be written.
+     */
+    private static void writeCache(File cacheFile, List<byte[]> hashes, List<byte[]> records, CompilerLogger logger) {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("jmm-signatures", ".tmp", cacheFile.getAbsoluteFile().getParentFile());
+
+            try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(records.size());
+                for (int i = 0; i < records.size(); i++) {
+                    out.write(hashes.get(i));
+                    out.writeInt(records.get(i).length);
+                    out.write(records.get(i));
+                }
+            }
+
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn(Phase.CACHE, () -> "Could not write the signature cache '" + cacheFile + "': " + e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static byte[] readBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file '" + file + "'", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record ClassFileStamp(long modified, long size, long hashedAt, byte[] hash) {
+    }
+
+    private record HashKey(byte[] hash) {
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof HashKey other && Arrays.equals(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(hash);
+        }
+    }
+}
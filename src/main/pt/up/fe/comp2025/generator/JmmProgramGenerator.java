@@ -0,0 +1,310 @@
+package pt.up.fe.comp2025.generator;
+
+import java.util.Random;
+
+/**
+ * Generates valid Java-- programs of configurable size, to measure how each stage scales with its input.
+ * <p>
+ * The generated class has {@code methods} methods with roughly {@code statementsPerMethod} statements each,
+ * mixing assignments of arithmetic expressions, if-else statements, while loops nested up to
+ * {@code loopDepth} levels, calls to previously generated methods and to an imported class, and array reads
+ * and writes. Loops always terminate and methods only call methods declared before them, so the programs
+ * can also be executed. The same configuration and seed always generate the same program.
+ */
+public class JmmProgramGenerator {
+
+    private static final String INDENT = "    ";
+    private static final int ARRAY_SIZE = 16;
+    private static final int LOOP_ITERATIONS = 3;
+
+    private final int methods;
+    private final int statementsPerMethod;
+    private final int loopDepth;
+    private final int variables;
+    private final double callDensity;
+    private final double arrayUsage;
+    private final long seed;
+
+    private Random random;
+    private StringBuilder code;
+    private int currentMethod;
+
+    private JmmProgramGenerator(Builder builder) {
+        this.methods = builder.methods;
+        this.statementsPerMethod = builder.statementsPerMethod;
+        this.loopDepth = builder.loopDepth;
+        this.variables = builder.variables;
+        this.callDensity = builder.callDensity;
+        this.arrayUsage = builder.arrayUsage;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int methods = 4;
+        private int statementsPerMethod = 20;
+        private int loopDepth = 2;
+        private int variables = 4;
+        private double callDensity = 0.1;
+        private double arrayUsage = 0.1;
+        private long seed = 0;
+
+        public Builder methods(int methods) {
+            this.methods = methods;
+            return this;
+        }
+
+        public Builder statementsPerMethod(int statementsPerMethod) {
+            this.statementsPerMethod = statementsPerMethod;
+            return this;
+        }
+
+        /**
+         * Maximum nesting of while loops.
+         */
+        public Builder loopDepth(int loopDepth) {
+            this.loopDepth = loopDepth;
+            return this;
+        }
+
+        /**
+         * Number of int local variables of each method (at least 1).
+         */
+        public Builder variables(int variables) {
+            this.variables = variables;
+            return this;
+        }
+
+        /**
+         * Fraction of simple statements that are method calls, between 0 and 1.
+         */
+        public Builder callDensity(double callDensity) {
+            this.callDensity = callDensity;
+            return this;
+        }
+
+        /**
+         * Fraction of simple statements that read or write an array, between 0 and 1.
+         */
+        public Builder arrayUsage(double arrayUsage) {
+            this.arrayUsage = arrayUsage;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public JmmProgramGenerator build() {
+            if (methods < 1 || statementsPerMethod < 0 || loopDepth < 0 || variables < 1) {
+                throw new IllegalArgumentException("Invalid program size");
+            }
+            if (callDensity < 0 || callDensity > 1 || arrayUsage < 0 || arrayUsage > 1) {
+                throw new IllegalArgumentException("Call density and array usage must be between 0 and 1");
+            }
+
+            return new JmmProgramGenerator(this);
+        }
+    }
+
+    /**
+     * Generates the source code of a class named {@code className}.
+     */
+    public String generate(String className) {
+        random = new Random(seed);
+        code = new StringBuilder();
+
+        code.append("import io;\n\n");
+        code.append("class ").append(className).append(" {\n\n");
+
+        for (currentMethod = 0; currentMethod < methods; currentMethod++) {
+            generateMethod();
+        }
+
+        code.append(INDENT).append("public static void main(String[] args) {\n");
+        code.append(INDENT).append(INDENT).append(className).append(" program;\n");
+        code.append(INDENT).append(INDENT).append("program = new ").append(className).append("();\n");
+        code.append(INDENT).append(INDENT).append("io.println(program.m0(1, 2));\n");
+        code.append(INDENT).append("}\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private void generateMethod() {
+        var indent = INDENT + INDENT;
+
+        code.append(INDENT).append("public int m").append(currentMethod).append("(int p0, int p1) {\n");
+
+        // Declarations
+        for (int i = 0; i < variables; i++) {
+            line(indent, "int v" + i + ";");
+        }
+        for (int i = 0; i < loopDepth; i++) {
+            line(indent, "int c" + i + ";");
+        }
+        line(indent, "boolean flag;");
+        if (arrayUsage > 0) {
+            line(indent, "int[] arr;");
+        }
+
+        // Initializations
+        for (int i = 0; i < variables; i++) {
+            line(indent, "v" + i + " = " + (i % 2 == 0 ? "p0" : "p1") + " + " + i + ";");
+        }
+        line(indent, "flag = v0 < p1;");
+        if (arrayUsage > 0) {
+            line(indent, "arr = new int[" + ARRAY_SIZE + "];");
+        }
+
+        generateStatements(statementsPerMethod, 0, indent);
+
+        line(indent, "return " + variable() + ";");
+        code.append(INDENT).append("}\n\n");
+    }
+
+    /**
+     * Generates statements until {@code count} statements were emitted, counting the ones inside compound statements.
+     */
+    private void generateStatements(int count, int loopLevel, String indent) {
+        while (count > 0) {
+            double choice = random.nextDouble();
+
+            if (count >= 3 && loopLevel < loopDepth && choice < 0.15) {
+                int bodySize = 1 + random.nextInt(Math.min(count - 1, 6));
+                generateLoop(bodySize, loopLevel, indent);
+                count -= bodySize + 1;
+            } else if (count >= 3 && choice < 0.3) {
+                int thenSize = 1 + random.nextInt(Math.min(count - 2, 3));
+                int elseSize = 1 + random.nextInt(Math.min(count - thenSize - 1, 3));
+                generateIf(thenSize, elseSize, loopLevel, indent);
+                count -= thenSize + elseSize + 1;
+            } else {
+                generateSimpleStatement(indent);
+                count--;
+            }
+        }
+    }
+
+    private void generateLoop(int bodySize, int loopLevel, String indent) {
+        var counter = "c" + loopLevel;
+
+        line(indent, counter + " = 0;");
+        line(indent, "while (" + counter + " < " + LOOP_ITERATIONS + ") {");
+        generateStatements(bodySize, loopLevel + 1, indent + INDENT);
+        line(indent + INDENT, counter + " = " + counter + " + 1;");
+        line(indent, "}");
+    }
+
+    private void generateIf(int thenSize, int elseSize, int loopLevel, String indent) {
+        line(indent, "if (" + condition() + ") {");
+        generateStatements(thenSize, loopLevel, indent + INDENT);
+        line(indent, "} else {");
+        generateStatements(elseSize, loopLevel, indent + INDENT);
+        line(indent, "}");
+    }
+
+    private void generateSimpleStatement(String indent) {
+        double choice = random.nextDouble();
+
+        if (choice < callDensity) {
+            generateCall(indent);
+        } else if (choice < callDensity + arrayUsage) {
+            generateArrayAccess(indent);
+        } else if (random.nextInt(8) == 0) {
+            line(indent, "flag = " + condition() + ";");
+        } else {
+            line(indent, variable() + " = " + expression(2) + ";");
+        }
+    }
+
+    private void generateCall(String indent) {
+        // Only methods declared before the current one are called, so there is no recursion
+        if (currentMethod > 0 && random.nextBoolean()) {
+            int callee = random.nextInt(currentMethod);
+            line(indent, variable() + " = this.m" + callee + "(" + expression(1) + ", " + expression(1) + ");");
+        } else {
+            line(indent, "io.println(" + expression(1) + ");");
+        }
+    }
+
+    private void generateArrayAccess(String indent) {
+        var index = random.nextInt(ARRAY_SIZE);
+
+        if (random.nextBoolean()) {
+            line(indent, "arr[" + index + "] = " + expression(2) + ";");
+        } else {
+            line(indent, variable() + " = arr[" + index + "] + " + expression(1) + ";");
+        }
+    }
+
+    private String expression(int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return random.nextInt(4) == 0 ? Integer.toString(random.nextInt(100)) : variable();
+        }
+
+        var operator = switch (random.nextInt(4)) {
+            case 0 -> " + ";
+            case 1 -> " - ";
+            case 2 -> " * ";
+            // dividing by a positive literal is always safe
+            default -> " / ";
+        };
+
+        var right = operator.equals(" / ") ? Integer.toString(1 + random.nextInt(9)) : expression(depth - 1);
+
+        return expression(depth - 1) + operator + right;
+    }
+
+    private String condition() {
+        var comparison = expression(1) + " < " + expression(1);
+
+        return switch (random.nextInt(4)) {
+            case 0 -> "flag && " + comparison;
+            case 1 -> "!flag";
+            default -> comparison;
+        };
+    }
+
+    private String variable() {
+        return "v" + random.nextInt(variables);
+    }
+
+    private void line(String indent, String statement) {
+        code.append(indent).append(statement).append("\n");
+    }
+
+    /**
+     * Prints a generated program. Arguments have the form {@code name=value}, using the names of the
+     * {@link Builder} methods, plus {@code className}.
+     */
+    public static void main(String[] args) {
+        var builder = builder();
+        var className = "Generated";
+
+        for (String arg : args) {
+            var parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, got '" + arg + "'");
+            }
+
+            switch (parts[0]) {
+                case "methods" -> builder.methods(Integer.parseInt(parts[1]));
+                case "statementsPerMethod" -> builder.statementsPerMethod(Integer.parseInt(parts[1]));
+                case "loopDepth" -> builder.loopDepth(Integer.parseInt(parts[1]));
+                case "variables" -> builder.variables(Integer.parseInt(parts[1]));
+                case "callDensity" -> builder.callDensity(Double.parseDouble(parts[1]));
+                case "arrayUsage" -> builder.arrayUsage(Double.parseDouble(parts[1]));
+                case "seed" -> builder.seed(Long.parseLong(parts[1]));
+                case "className" -> className = parts[1];
+                default -> throw new IllegalArgumentException("Unknown option '" + parts[0] + "'");
+            }
+        }
+
+        System.out.print(builder.build().generate(className));
+    }
+}
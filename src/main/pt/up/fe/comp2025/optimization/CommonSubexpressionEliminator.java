@@ -0,0 +1,306 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp2025.optimization.ir.BasicBlock;
+import pt.up.fe.comp2025.optimization.ir.ControlFlowGraph;
+import pt.up.fe.comp2025.optimization.ir.SsaForm;
+import pt.up.fe.comp2025.optimization.ir.SsaValue;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Common subexpression elimination with global value numbering over the {@link SsaForm SSA form} of each OLLIR
+ * method.
+ * <p>
+ * Each value gets a number, and values computed by the same operation from values with the same numbers get the
+ * same number; a copy gets the number of the value it copies. The dominator tree is walked with a scoped table of
+ * the expressions already computed, so an expression is available in the blocks its computation dominates. An
+ * assignment that computes an available expression again becomes a copy of the variable that holds it, when that
+ * variable is assigned only once, and so still holds the value.
+ * <p>
+ * Field and array loads are only available until a store that can change them, or a call, on some path from the
+ * load. Comparisons are not replaced: the backend joins them with the branch that reads them.
+ */
+public class CommonSubexpressionEliminator {
+
+    private static final Set<OperationType> COMMUTATIVE = Set.of(OperationType.ADD, OperationType.MUL,
+            OperationType.AND, OperationType.OR, OperationType.XOR, OperationType.EQ, OperationType.NEQ,
+            OperationType.ANDB, OperationType.ORB);
+
+    // What a load reads: array elements, or a field (by name)
+    private static final String ARRAYS = "[]";
+
+    // An expression computed in a dominating block, the variable assigned only once that holds it, and where
+    private record Available(int number, String variable, Element dest, BasicBlock block, int index) {
+    }
+
+    // The expressions a block made available, and the ones they replaced, restored when the walk leaves the block
+    private record Scope(List<String> keys, List<Available> previous) {
+    }
+
+    private final SsaForm ssa;
+
+    private final Map<SsaValue, Integer> numbers = new IdentityHashMap<>();
+    private final Map<String, Integer> expressionNumbers = new HashMap<>();
+    private final Map<String, Available> available = new HashMap<>();
+    private final Map<String, Integer> definitionCounts = new HashMap<>();
+
+    private int nextNumber = 0;
+    private int redundant = 0;
+
+    private CommonSubexpressionEliminator(SsaForm ssa) {
+        this.ssa = ssa;
+
+        for (var block : ssa.getCfg().getBlocks()) {
+            for (var instruction : block.getInstructions()) {
+                var variable = ssa.getDefinedVariable(instruction);
+                if (variable != null) {
+                    definitionCounts.merge(variable, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the expressions of each method of the class that are computed again.
+     *
+     * @return true if any method changed
+     */
+    public static boolean eliminate(ClassUnit classUnit, CompilerMetrics metrics) {
+        int redundant = 0;
+        int values = 0;
+
+        for (var method : classUnit.getMethods()) {
+            if (method.isConstructMethod()) {
+                continue;
+            }
+
+            var cfg = ControlFlowGraph.build(method);
+            var eliminator = new CommonSubexpressionEliminator(SsaForm.build(cfg));
+            eliminator.walk();
+
+            if (eliminator.redundant > 0) {
+                cfg.lower();
+            }
+
+            redundant += eliminator.redundant;
+            values += eliminator.nextNumber;
+        }
+
+        metrics.count("optimization/redundant-expressions", redundant);
+        metrics.count("optimization/value-numbers", values);
+
+        return redundant > 0;
+    }
+
+    private void walk() {
+        ssa.getDominators().walk(this::visit, scope -> {
+            for (int i = scope.keys().size() - 1; i >= 0; i--) {
+                if (scope.previous().get(i) == null) {
+                    available.remove(scope.keys().get(i));
+                } else {
+                    available.put(scope.keys().get(i), scope.previous().get(i));
+                }
+            }
+        });
+    }
+
+    private Scope visit(BasicBlock block) {
+        var scope = new Scope(new ArrayList<>(), new ArrayList<>());
+        for (var phi : ssa.getPhis(block)) {
+            numbers.put(phi, nextNumber++);
+        }
+
+        var instructions = block.getInstructions();
+        for (int i = 0; i < instructions.size(); i++) {
+            var definition = ssa.getDefinition(instructions.get(i));
+            if (definition == null) {
+                continue;
+            }
+
+            var assign = ssa.getInstruction(definition);
+            var rhs = assign.getRhs();
+
+            // A copy is the value it copies
+            if (rhs instanceof SingleOpInstruction single && !(single.getSingleOperand() instanceof ArrayOperand)
+                    && single.getSingleOperand() instanceof Operand operand
+                    && ssa.getValue(assign, operand.getName()) != null) {
+                numbers.put(definition, number(ssa.getValue(assign, operand.getName())));
+                continue;
+            }
+
+            var key = key(assign);
+            if (key == null) {
+                numbers.put(definition, nextNumber++);
+                continue;
+            }
+
+            var memory = reads(rhs);
+            var previous = available.get(key);
+            if (previous != null && !isComparison(rhs)
+                    && (memory == null || !isChangedBetween(memory, previous.block(), previous.index(), block, i))) {
+                var copy = new SingleOpInstruction(new Operand(previous.variable(), previous.dest().getType()));
+                instructions.set(i, new AssignInstruction(assign.getDest(), assign.getTypeOfAssign(), copy));
+                numbers.put(definition, previous.number());
+                redundant++;
+                continue;
+            }
+
+            // Loads of the same place can read different values, so only pure expressions share numbers
+            int number = memory == null ? expressionNumbers.computeIfAbsent(key, k -> nextNumber++) : nextNumber++;
+            numbers.put(definition, number);
+            if (definitionCounts.get(definition.getVariable()) == 1) {
+                scope.keys().add(key);
+                scope.previous().add(available.put(key,
+                        new Available(number, definition.getVariable(), assign.getDest(), block, i)));
+            }
+        }
+
+        return scope;
+    }
+
+    private int number(SsaValue value) {
+        // Phis of loop headers and entries can be read before they are numbered
+        return numbers.computeIfAbsent(value, v -> nextNumber++);
+    }
+
+    /**
+     * The operation of the assignment and the numbers of its operands, or null if it is not an expression that can
+     * be computed again with the same result.
+     */
+    private String key(AssignInstruction assign) {
+        var type = " : " + assign.getTypeOfAssign();
+        return switch (assign.getRhs()) {
+            case SingleOpInstruction single when single.getSingleOperand() instanceof ArrayOperand array
+                    && array.getIndexOperands().size() == 1 ->
+                    "load " + key(assign, new Operand(array.getName(), array.getType())) + "["
+                            + key(assign, array.getIndexOperands().getFirst()) + "]" + type;
+            case GetFieldInstruction get -> "getfield " + key(assign, get.getObject()) + "." + get.getField().getName()
+                    + type;
+            case ArrayLengthInstruction length -> "length " + key(assign, length.getCaller()) + type;
+            case UnaryOpInstruction unary when isPlain(unary.getOperand()) ->
+                    unary.getOperation().getOpType() + " " + key(assign, unary.getOperand()) + type;
+            case BinaryOpInstruction binary when isPlain(binary.getLeftOperand())
+                    && isPlain(binary.getRightOperand()) -> {
+                var left = key(assign, binary.getLeftOperand());
+                var right = key(assign, binary.getRightOperand());
+                var operation = binary.getOperation().getOpType();
+                if (COMMUTATIVE.contains(operation) && left.compareTo(right) > 0) {
+                    yield operation + " " + right + " " + left + type;
+                }
+                yield operation + " " + left + " " + right + type;
+            }
+            default -> null;
+        };
+    }
+
+    private String key(Instruction instruction, Element element) {
+        if (element instanceof LiteralElement literal) {
+            return literal.getLiteral() + "." + literal.getType();
+        }
+
+        var name = ((Operand) element).getName();
+        var value = ssa.getValue(instruction, name);
+        return value == null ? name : "#" + number(value);
+    }
+
+    private static boolean isPlain(Element element) {
+        return !(element instanceof ArrayOperand);
+    }
+
+    private static boolean isComparison(Instruction rhs) {
+        return rhs instanceof BinaryOpInstruction binary && binary.getOperation().getOpType().isConditional();
+    }
+
+    /**
+     * What the expression loads from memory, or null if it does not. The length of an array never changes.
+     */
+    private static String reads(Instruction rhs) {
+        return switch (rhs) {
+            case SingleOpInstruction single when single.getSingleOperand() instanceof ArrayOperand -> ARRAYS;
+            case GetFieldInstruction get -> get.getField().getName();
+            default -> null;
+        };
+    }
+
+    /**
+     * True if the instruction can change what a load reads.
+     */
+    private static boolean changes(Instruction instruction, String memory) {
+        return switch (instruction) {
+            case AssignInstruction assign when assign.getDest() instanceof ArrayOperand ->
+                    memory.equals(ARRAYS) || changes(assign.getRhs(), memory);
+            case AssignInstruction assign -> changes(assign.getRhs(), memory);
+            case PutFieldInstruction put -> memory.equals(put.getField().getName());
+            case NewInstruction newInstruction -> false;
+            case ArrayLengthInstruction length -> false;
+            case CallInstruction call -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * True if, on some path from the first instruction to the second one, an instruction can change what a load
+     * reads. The block of the first instruction dominates the block of the second one.
+     */
+    private boolean isChangedBetween(String memory, BasicBlock from, int fromIndex, BasicBlock to, int toIndex) {
+        if (from == to) {
+            return changesAny(from.getInstructions().subList(fromIndex + 1, toIndex), memory);
+        }
+
+        // The blocks a path from the first block to the second one can go through, without running the load again
+        var forward = reachable(from.getSuccessors(), from, true);
+        var backward = reachable(to.getPredecessors(), from, false);
+        forward.retainAll(backward);
+
+        for (var block : forward) {
+            if (block != to && changesAny(block.getInstructions(), memory)) {
+                return true;
+            }
+        }
+
+        // The second block runs whole before the second instruction when it is in a loop the first block is not
+        var toInstructions = to.getInstructions();
+        return changesAny(from.getInstructions().subList(fromIndex + 1, from.getInstructions().size()), memory)
+                || changesAny(forward.contains(to) ? toInstructions : toInstructions.subList(0, toIndex), memory);
+    }
+
+    private static boolean changesAny(List<Instruction> instructions, String memory) {
+        return instructions.stream().anyMatch(instruction -> changes(instruction, memory));
+    }
+
+    private static Set<BasicBlock> reachable(List<BasicBlock> start, BasicBlock excluded, boolean forward) {
+        var reached = new HashSet<BasicBlock>();
+        var worklist = new ArrayDeque<BasicBlock>();
+        for (var block : start) {
+            if (block != excluded && reached.add(block)) {
+                worklist.add(block);
+            }
+        }
+
+        while (!worklist.isEmpty()) {
+            var block = worklist.poll();
+            for (var next : forward ? block.getSuccessors() : block.getPredecessors()) {
+                if (next != excluded && reached.add(next)) {
+                    worklist.add(next);
+                }
+            }
+        }
+
+        return reached;
+    }
+}
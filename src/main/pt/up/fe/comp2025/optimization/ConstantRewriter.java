@@ -0,0 +1,392 @@
+package pt.up.fe.comp2025.optimization;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.optimization.MethodSsa.Block;
+import pt.up.fe.comp2025.optimization.ir.SsaValue;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Definition;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Phi;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Constant propagation and constant folding on the AST, with sparse conditional constant propagation over the
+ * {@link MethodSsa SSA form} of each method.
+ * <p>
+ * The value of each variable starts undetermined, and can only go down to a constant and then to unknown. Two
+ * worklists drive the analysis: a block is evaluated when an edge into it first becomes executable, and a value is
+ * evaluated again when one of the values it is computed from changes. A branch on a constant only makes the edge
+ * it takes executable, so the assignments of a branch that never runs do not reach the phis after it, and a
+ * variable that keeps its value around a loop stays constant. Each value goes down at most twice, so the work is
+ * proportional to the size of the method.
+ * <p>
+ * Afterwards, variable references and side-effect free expressions with a constant value are replaced by literals,
+ * an 'if' on a constant is replaced by the branch it takes, and a 'while' that is never entered is removed.
+ * Comparisons in the condition of a loop that stays are not folded, so the loop keeps its structure.
+ */
+public class ConstantRewriter {
+
+    // The value of an expression that only depends on code not reached so far, and of one that is not a constant
+    private static final Object UNDETERMINED = new Object();
+    private static final Object UNKNOWN = new Object();
+
+    private record Edge(Block from, Block to) {
+    }
+
+    private final MethodSsa ssa;
+
+    private final Map<SsaValue, Object> constants = new IdentityHashMap<>();
+    private final Set<Block> visited = new HashSet<>();
+    private final Set<Edge> executable = new HashSet<>();
+
+    private final ArrayDeque<Block> blockWorklist = new ArrayDeque<>();
+    private final ArrayDeque<Object> valueWorklist = new ArrayDeque<>();
+
+    private long worklistItems = 0;
+    private int rewrites = 0;
+
+    private ConstantRewriter(MethodSsa ssa) {
+        this.ssa = ssa;
+    }
+
+    /**
+     * Rewrites each method of the AST with the constants found in it.
+     *
+     * @return true if the AST changed
+     */
+    public static boolean rewrite(JmmNode root, CompilerMetrics metrics) {
+        long worklistItems = 0;
+        int rewrites = 0;
+
+        for (var method : root.getDescendants(Kind.METHOD_DECL)) {
+            var rewriter = new ConstantRewriter(MethodSsa.build(method));
+            rewriter.analyze();
+            rewriter.rewriteStatements(method);
+
+            worklistItems += rewriter.worklistItems;
+            rewrites += rewriter.rewrites;
+        }
+
+        metrics.count("optimization/worklist", worklistItems);
+        metrics.count("optimization/rewrites", rewrites);
+
+        return rewrites > 0;
+    }
+
+    private void analyze() {
+        // Parameters, and locals read before being assigned, are never constants
+        for (var entry : ssa.getEntries()) {
+            constants.put(entry, UNKNOWN);
+        }
+
+        blockWorklist.add(ssa.getEntry());
+        while (!blockWorklist.isEmpty() || !valueWorklist.isEmpty()) {
+            while (!blockWorklist.isEmpty()) {
+                worklistItems++;
+                visitBlock(blockWorklist.poll());
+            }
+
+            while (!valueWorklist.isEmpty()) {
+                worklistItems++;
+                switch (valueWorklist.poll()) {
+                    case Definition definition when visited.contains(ssa.getBlock(definition)) ->
+                            set(definition, evaluate(ssa.getExpression(definition)));
+                    case Phi phi when visited.contains(ssa.getBlock(phi)) -> evaluatePhi(phi);
+                    case Block block when visited.contains(block) -> evaluateBranch(block);
+                    default -> {
+                        // Not reached yet, evaluated when its block is
+                    }
+                }
+            }
+        }
+    }
+
+    private void visitBlock(Block block) {
+        // Phis are evaluated again for each new incoming edge, the rest of the block only the first time
+        for (var phi : block.getPhis()) {
+            evaluatePhi(phi);
+        }
+
+        if (!visited.add(block)) {
+            return;
+        }
+
+        for (var definition : block.getDefinitions()) {
+            set(definition, evaluate(ssa.getExpression(definition)));
+        }
+
+        if (block.getCondition() != null) {
+            evaluateBranch(block);
+        } else {
+            for (var successor : block.getSuccessors()) {
+                markExecutable(block, successor);
+            }
+        }
+    }
+
+    private void evaluateBranch(Block block) {
+        var condition = evaluate(block.getCondition());
+        if (condition == UNDETERMINED) {
+            return;
+        }
+
+        var successors = block.getSuccessors();
+        if (!Boolean.FALSE.equals(condition)) {
+            markExecutable(block, successors.get(0));
+        }
+        if (!Boolean.TRUE.equals(condition)) {
+            markExecutable(block, successors.get(1));
+        }
+    }
+
+    private void evaluatePhi(Phi phi) {
+        var block = ssa.getBlock(phi);
+        var predecessors = block.getPredecessors();
+
+        var value = UNDETERMINED;
+        for (int i = 0; i < predecessors.size(); i++) {
+            if (executable.contains(new Edge(predecessors.get(i), block))) {
+                value = meet(value, constants.getOrDefault(phi.getOperands().get(i), UNDETERMINED));
+            }
+        }
+
+        set(phi, value);
+    }
+
+    private void markExecutable(Block from, Block to) {
+        if (executable.add(new Edge(from, to))) {
+            blockWorklist.add(to);
+        }
+    }
+
+    private void set(SsaValue value, Object constant) {
+        if (!constants.getOrDefault(value, UNDETERMINED).equals(constant)) {
+            constants.put(value, constant);
+            valueWorklist.addAll(value.getUsers());
+        }
+    }
+
+    private static Object meet(Object first, Object second) {
+        if (first == UNDETERMINED) {
+            return second;
+        }
+        if (second == UNDETERMINED) {
+            return first;
+        }
+
+        return first.equals(second) ? first : UNKNOWN;
+    }
+
+    /**
+     * The value of the expression: an Integer, a Boolean, {@link #UNKNOWN} or {@link #UNDETERMINED}.
+     */
+    private Object evaluate(JmmNode expr) {
+        if (Kind.INTEGER_LITERAL.check(expr)) {
+            try {
+                return Integer.parseInt(expr.get("value"));
+            } catch (NumberFormatException e) {
+                return UNKNOWN;
+            }
+        }
+
+        if (Kind.BOOLEAN_LITERAL.check(expr)) {
+            return Boolean.parseBoolean(expr.get("value"));
+        }
+
+        if (Kind.VAR_REF_EXPR.check(expr)) {
+            // Fields are not in the SSA form
+            var value = ssa.getValue(expr);
+            return value == null ? UNKNOWN : constants.getOrDefault(value, UNDETERMINED);
+        }
+
+        if (Kind.PARENTHESES.check(expr)) {
+            return evaluate(expr.getChild(0));
+        }
+
+        if (Kind.UNARY_OP.check(expr)) {
+            var operand = evaluate(expr.getChild(0));
+            if (operand instanceof Boolean value) {
+                return !value;
+            }
+            return operand == UNDETERMINED ? UNDETERMINED : UNKNOWN;
+        }
+
+        if (Kind.BINARY_EXPR.check(expr)) {
+            return evaluateBinary(expr.get("op"), expr.getChild(0), expr.getChild(1));
+        }
+
+        return UNKNOWN;
+    }
+
+    private Object evaluateBinary(String op, JmmNode leftExpr, JmmNode rightExpr) {
+        var left = evaluate(leftExpr);
+
+        if (op.equals("&&")) {
+            // The right operand is not evaluated when the left one is false
+            if (Boolean.FALSE.equals(left)) {
+                return false;
+            }
+
+            var right = evaluate(rightExpr);
+            if (Boolean.TRUE.equals(left) && right instanceof Boolean) {
+                return right;
+            }
+            if (Boolean.FALSE.equals(right) && left != UNDETERMINED) {
+                return false;
+            }
+            return left == UNDETERMINED || right == UNDETERMINED ? UNDETERMINED : UNKNOWN;
+        }
+
+        var right = evaluate(rightExpr);
+        if (left == UNKNOWN || right == UNKNOWN) {
+            return UNKNOWN;
+        }
+        if (left == UNDETERMINED || right == UNDETERMINED) {
+            return UNDETERMINED;
+        }
+        if (!(left instanceof Integer leftValue) || !(right instanceof Integer rightValue)) {
+            return UNKNOWN;
+        }
+
+        return switch (op) {
+            case "+" -> leftValue + rightValue;
+            case "-" -> leftValue - rightValue;
+            case "*" -> leftValue * rightValue;
+            // Division by zero is left for run time
+            case "/" -> rightValue == 0 ? UNKNOWN : leftValue / rightValue;
+            case "<" -> leftValue < rightValue;
+            default -> UNKNOWN;
+        };
+    }
+
+    private void rewriteStatements(JmmNode parent) {
+        // Rewriting can replace or remove the statements, so iterate over a copy
+        for (var child : List.copyOf(parent.getChildren())) {
+            if (Kind.STMT.check(child) || Kind.RETURN_STMT.check(child)) {
+                rewriteStatement(child);
+            }
+        }
+    }
+
+    private void rewriteStatement(JmmNode statement) {
+        // Statements that never run are left as they are
+        var block = ssa.getBlock(statement);
+        if (block == null || !visited.contains(block)) {
+            return;
+        }
+
+        if (Kind.IF_STMT.check(statement)) {
+            rewriteIf(statement, block);
+        } else if (Kind.WHILE_STMT.check(statement)) {
+            rewriteWhile(statement, block);
+        } else if (Kind.BLOCK_STMT.check(statement)) {
+            rewriteStatements(statement);
+        } else {
+            for (var child : List.copyOf(statement.getChildren())) {
+                rewriteExpr(child, false);
+            }
+        }
+    }
+
+    private void rewriteIf(JmmNode statement, Block branch) {
+        var condition = statement.getChild(0);
+        var thenTaken = executable.contains(new Edge(branch, branch.getSuccessors().get(0)));
+        var elseTaken = executable.contains(new Edge(branch, branch.getSuccessors().get(1)));
+
+        if (thenTaken != elseTaken && isPure(condition)) {
+            var taken = thenTaken ? statement.getChild(1)
+                    : statement.getNumChildren() > 2 ? statement.getChild(2) : null;
+            if (taken == null) {
+                removeStatement(statement);
+                return;
+            }
+
+            // Detached first, since replacing with a node that has a parent swaps both
+            statement.removeChild(taken);
+            statement.replace(taken);
+            rewrites++;
+            rewriteStatement(taken);
+            return;
+        }
+
+        rewriteExpr(condition, false);
+        for (int i = 1; i < statement.getNumChildren(); i++) {
+            rewriteStatement(statement.getChild(i));
+        }
+    }
+
+    private void rewriteWhile(JmmNode statement, Block header) {
+        var condition = statement.getChild(0);
+        var entered = executable.contains(new Edge(header, header.getSuccessors().get(0)));
+
+        if (!entered && isPure(condition)) {
+            removeStatement(statement);
+            return;
+        }
+
+        rewriteExpr(condition, true);
+        rewriteStatement(statement.getChild(1));
+    }
+
+    /**
+     * Removes a statement, leaving an empty block in its place when it is the branch or body of another statement.
+     */
+    private void removeStatement(JmmNode statement) {
+        var parent = statement.getParent();
+        if (Kind.IF_STMT.check(parent) || Kind.WHILE_STMT.check(parent)) {
+            statement.replace(new JmmNodeImpl(List.of(Kind.BLOCK_STMT.getNodeName(), Kind.STMT.getNodeName())));
+        } else {
+            parent.removeChild(statement);
+        }
+        rewrites++;
+    }
+
+    private void rewriteExpr(JmmNode expr, boolean keepComparisons) {
+        if (Kind.INTEGER_LITERAL.check(expr) || Kind.BOOLEAN_LITERAL.check(expr)) {
+            return;
+        }
+
+        var value = evaluate(expr);
+        if ((value instanceof Integer || value instanceof Boolean) && isPure(expr)
+                && !(keepComparisons && hasComparison(expr))) {
+            var kind = value instanceof Integer ? Kind.INTEGER_LITERAL : Kind.BOOLEAN_LITERAL;
+            JmmNode literal = new JmmNodeImpl(List.of(kind.getNodeName()));
+            literal.put("value", value.toString());
+
+            expr.replace(literal);
+            rewrites++;
+            return;
+        }
+
+        for (var child : List.copyOf(expr.getChildren())) {
+            rewriteExpr(child, keepComparisons);
+        }
+    }
+
+    /**
+     * True if the expression has no side effects and cannot throw, so it can be replaced by its value.
+     */
+    private static boolean isPure(JmmNode expr) {
+        if (!Kind.check(expr, Kind.INTEGER_LITERAL, Kind.BOOLEAN_LITERAL, Kind.VAR_REF_EXPR, Kind.PARENTHESES,
+                Kind.UNARY_OP, Kind.BINARY_EXPR)) {
+            return false;
+        }
+
+        return expr.getChildren().stream().allMatch(ConstantRewriter::isPure);
+    }
+
+    private static boolean hasComparison(JmmNode expr) {
+        if (Kind.BINARY_EXPR.check(expr) && expr.get("op").equals("<")) {
+            return true;
+        }
+
+        return expr.getChildren().stream().anyMatch(ConstantRewriter::hasComparison);
+    }
+}
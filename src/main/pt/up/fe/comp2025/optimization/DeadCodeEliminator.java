@@ -0,0 +1,276 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.VarScope;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp2025.optimization.ir.BasicBlock;
+import pt.up.fe.comp2025.optimization.ir.ControlFlowGraph;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes the code of each OLLIR method that never runs, and the assignments whose value is never read.
+ * <p>
+ * Branches on a constant become jumps (or are removed), then the blocks no longer reachable from the entry are
+ * removed, and so are the jumps to the next block. With the liveness the register allocator computes, each
+ * assignment of a variable that is not live after it is removed, when computing its value has no side effects and
+ * cannot throw. Removing an assignment can leave the variables it read dead too, so liveness is computed again
+ * until no assignment is removed. Locals that are no longer used leave the variable table, and the others are
+ * numbered again, so the method needs fewer locals even without register allocation.
+ * <p>
+ * For compatibility with the tests that look for them ('-k', on by default), the literal assignment constant
+ * propagation leaves of a local declared in the source, after replacing all its reads, stays so that the propagated
+ * constant is still visible in the OLLIR. The locals declared in the source are given by the caller, from the symbol
+ * table the OLLIR was generated from; the temporaries of the generator are never in it.
+ */
+public class DeadCodeEliminator {
+
+    private final ControlFlowGraph cfg;
+
+    // The locals declared in the source, whose propagated literal store is kept
+    private final Set<String> sourceLocals;
+
+    private int branches = 0;
+    private int blocks = 0;
+    private int jumps = 0;
+    private int stores = 0;
+    private int rounds = 0;
+
+    private DeadCodeEliminator(ControlFlowGraph cfg, Set<String> sourceLocals) {
+        this.cfg = cfg;
+        this.sourceLocals = sourceLocals;
+    }
+
+    /**
+     * Removes the dead code of each method of the class, including all the dead literal stores.
+     *
+     * @return true if any method changed
+     */
+    public static boolean eliminate(ClassUnit classUnit, CompilerMetrics metrics) {
+        return eliminate(classUnit, Map.of(), metrics);
+    }
+
+    /**
+     * Removes the dead code of each method of the class, keeping the propagated literal stores of the given locals.
+     *
+     * @param sourceLocals the locals declared in the source of each method, by method name
+     * @return true if any method changed
+     */
+    public static boolean eliminate(ClassUnit classUnit, Map<String, Set<String>> sourceLocals,
+                                    CompilerMetrics metrics) {
+        int blocks = 0;
+        int stores = 0;
+        int rounds = 0;
+        boolean changed = false;
+
+        for (var method : classUnit.getMethods()) {
+            if (method.isConstructMethod()) {
+                continue;
+            }
+
+            var eliminator = new DeadCodeEliminator(ControlFlowGraph.build(method),
+                    sourceLocals.getOrDefault(method.getMethodName(), Set.of()));
+            if (eliminator.eliminate(metrics)) {
+                removeUnusedLocals(method);
+                changed = true;
+            }
+
+            blocks += eliminator.blocks;
+            stores += eliminator.stores;
+            rounds += eliminator.rounds;
+        }
+
+        metrics.count("optimization/dead-blocks", blocks);
+        metrics.count("optimization/dead-stores", stores);
+        metrics.count("optimization/dead-store-rounds", rounds);
+
+        return changed;
+    }
+
+    private boolean eliminate(CompilerMetrics metrics) {
+        foldConstantBranches();
+        blocks = cfg.removeUnreachable();
+        removeJumpsToNext();
+        removeDeadStores(metrics);
+
+        if (branches + blocks + jumps + stores == 0) {
+            return false;
+        }
+
+        cfg.lower();
+        return true;
+    }
+
+    private void foldConstantBranches() {
+        for (var block : cfg.getBlocks()) {
+            var instructions = block.getInstructions();
+            if (instructions.isEmpty() || block.getSuccessors().size() != 2
+                    || !(instructions.getLast() instanceof SingleOpCondInstruction branch)
+                    || !(branch.getCondition().getSingleOperand() instanceof LiteralElement literal)) {
+                continue;
+            }
+
+            // The target of the branch is the first successor, and the next block the second one
+            var target = block.getSuccessors().get(0);
+            var next = block.getSuccessors().get(1);
+            instructions.removeLast();
+            if (!isZero(literal)) {
+                instructions.add(new GotoInstruction(branch.getLabel()));
+                cfg.removeEdge(block, next);
+            } else {
+                cfg.removeEdge(block, target);
+            }
+            branches++;
+        }
+    }
+
+    private static boolean isZero(LiteralElement literal) {
+        return literal.getLiteral().equals("0") || literal.getLiteral().equals("false");
+    }
+
+    private void removeJumpsToNext() {
+        var blockList = cfg.getBlocks();
+        for (int i = 0; i + 1 < blockList.size(); i++) {
+            var instructions = blockList.get(i).getInstructions();
+            if (!instructions.isEmpty() && instructions.getLast() instanceof GotoInstruction
+                    && blockList.get(i).getSuccessors().getFirst() == blockList.get(i + 1)) {
+                instructions.removeLast();
+                jumps++;
+            }
+        }
+    }
+
+    private void removeDeadStores(CompilerMetrics metrics) {
+        var varTable = cfg.getMethod().getVarTable();
+        var propagated = findPropagatedLocals();
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            rounds++;
+
+            Map<Instruction, Set<String>> liveIn = new HashMap<>();
+            Map<Instruction, Set<String>> liveOut = new HashMap<>();
+            RegisterAllocator.performLivenessAnalysis(cfg, liveIn, liveOut, metrics);
+
+            // Liveness only shrinks as assignments go, so all the ones dead now can go at once
+            for (BasicBlock block : cfg.getBlocks()) {
+                var iterator = block.getInstructions().iterator();
+                while (iterator.hasNext()) {
+                    var instruction = iterator.next();
+                    if (instruction instanceof AssignInstruction assign
+                            && !(assign.getDest() instanceof ArrayOperand)
+                            && assign.getDest() instanceof Operand dest
+                            && !dest.getName().equals("this")
+                            && varTable.containsKey(dest.getName())
+                            && varTable.get(dest.getName()).getScope() != VarScope.FIELD
+                            && !liveOut.get(instruction).contains(dest.getName())
+                            && !propagated.contains(dest.getName())
+                            && isRemovable(assign.getRhs())) {
+                        iterator.remove();
+                        stores++;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The locals declared in the source that are never read and whose only assignment is a literal: what constant
+     * propagation leaves of a variable after replacing its reads. Found before any store is removed, so a local that
+     * only becomes unread by removing dead code is not one of them.
+     */
+    private Set<String> findPropagatedLocals() {
+        var assignments = new HashMap<String, Integer>();
+        var literals = new HashSet<String>();
+        var read = new HashSet<String>();
+        for (var block : cfg.getBlocks()) {
+            for (var instruction : block.getInstructions()) {
+                RegisterAllocator.findDefinitionsAndUses(instruction, new HashSet<>(), read);
+                if (instruction instanceof AssignInstruction assign && !(assign.getDest() instanceof ArrayOperand)
+                        && assign.getDest() instanceof Operand dest) {
+                    assignments.merge(dest.getName(), 1, Integer::sum);
+                    if (assign.getRhs() instanceof SingleOpInstruction single
+                            && single.getSingleOperand() instanceof LiteralElement) {
+                        literals.add(dest.getName());
+                    }
+                }
+            }
+        }
+
+        var propagated = new HashSet<String>();
+        for (var name : literals) {
+            if (assignments.get(name) == 1 && !read.contains(name) && sourceLocals.contains(name)) {
+                propagated.add(name);
+            }
+        }
+
+        return propagated;
+    }
+
+    /**
+     * True if computing the value has no side effects and cannot throw. Calls, object and array creation, array
+     * accesses and divisions by a value that can be zero stay.
+     */
+    private static boolean isRemovable(Instruction rhs) {
+        return switch (rhs) {
+            case SingleOpInstruction single -> isPlain(single.getSingleOperand());
+            case UnaryOpInstruction unary -> isPlain(unary.getOperand());
+            case BinaryOpInstruction binary -> isPlain(binary.getLeftOperand()) && isPlain(binary.getRightOperand())
+                    && (binary.getOperation().getOpType() != OperationType.DIV
+                    || binary.getRightOperand() instanceof LiteralElement literal && !isZero(literal));
+            case GetFieldInstruction get -> get.getObject().getName().equals("this");
+            default -> false;
+        };
+    }
+
+    private static boolean isPlain(Element element) {
+        return !(element instanceof ArrayOperand);
+    }
+
+    /**
+     * Removes the locals no instruction uses from the variable table, and numbers the remaining ones after 'this'
+     * and the parameters, in their previous order.
+     */
+    private static void removeUnusedLocals(Method method) {
+        var used = new HashSet<String>();
+        for (var instruction : method.getInstructions()) {
+            RegisterAllocator.findDefinitionsAndUses(instruction, used, used);
+        }
+
+        var varTable = method.getVarTable();
+        var locals = varTable.entrySet().stream()
+                .filter(entry -> entry.getValue().getScope() == VarScope.LOCAL && !entry.getKey().equals("this"))
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().getVirtualReg()))
+                .toList();
+        if (locals.stream().allMatch(entry -> used.contains(entry.getKey()))) {
+            return;
+        }
+
+        int register = varTable.entrySet().stream()
+                .filter(entry -> !locals.contains(entry))
+                .filter(entry -> entry.getValue().getScope() != VarScope.FIELD)
+                .mapToInt(entry -> entry.getValue().getVirtualReg() + 1)
+                .max()
+                .orElse(0);
+        for (var entry : locals) {
+            if (used.contains(entry.getKey())) {
+                entry.getValue().setVirtualReg(register++);
+            } else {
+                varTable.remove(entry.getKey());
+            }
+        }
+    }
+}
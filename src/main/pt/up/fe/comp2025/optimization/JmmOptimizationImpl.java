@@ -1,26 +1,58 @@
 package pt.up.fe.comp2025.optimization;
 
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ollir.JmmOptimization;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.CompilerConfig;
 import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.IncrementalCompilation;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class JmmOptimizationImpl implements JmmOptimization {
 
     private final OptimizationManager optimizationManager;
     private final RegisterAllocator registerAllocator;
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
+    // The last OLLIR generated by toOllir, and the symbol table it was generated from
+    private Generated generated;
+
+    private record Generated(OllirResult ollirResult, SymbolTable table) {
+    }
     
     public JmmOptimizationImpl() {
         this.optimizationManager = new OptimizationManager();
         this.registerAllocator = new RegisterAllocator();
     }
     
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
+        this.optimizationManager.setMetrics(metrics);
+        this.registerAllocator.setMetrics(metrics);
+    }
+
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+        this.registerAllocator.setIncremental(incremental);
+    }
+    
     @Override
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
         // Run optimizations if the -o flag is enabled
@@ -29,18 +61,52 @@ public class JmmOptimizationImpl implements JmmOptimization {
         
         if (optimize) {
             // Apply optimizations before generating OLLIR code
-            optimize(semanticsResult);
+            semanticsResult = optimize(semanticsResult);
         }
 
         // Create visitor that will generate the OLLIR code
         var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable());
+        visitor.setIncremental(incremental);
 
         // Visit the AST and obtain OLLIR code
-        var ollirCode = visitor.visit(semanticsResult.getRootNode());
+        String ollirCode;
+        try (var timer = metrics.start("ollir")) {
+            ollirCode = visitor.visit(semanticsResult.getRootNode());
+        }
+
+        CompilerLogger.forConfig(semanticsResult.getConfig())
+                .debug(Phase.OLLIR, () -> "\nOLLIR:\n\n" + ollirCode);
 
-        System.out.println("\nOLLIR:\n\n" + ollirCode);
+        // Building the result parses the generated code into the OLLIR classes
+        OllirResult ollirResult;
+        try (var timer = metrics.start("ollir/parse")) {
+            ollirResult = new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+        }
+        generated = new Generated(ollirResult, semanticsResult.getSymbolTable());
+
+        return ollirResult;
+    }
+
+    /**
+     * The locals declared in the source of each method, whose propagated literal stores dead code elimination keeps
+     * ('-k'). None when the option is off, or when the OLLIR was not generated by {@link #toOllir}, since then the
+     * declared locals are not known.
+     */
+    private Map<String, Set<String>> getSourceLocals(OllirResult ollirResult) {
+        if (!CompilerConfig.getKeepPropagatedStores(ollirResult.getConfig()) || generated == null
+                || generated.ollirResult() != ollirResult) {
+            return Map.of();
+        }
+
+        var table = generated.table();
+        var sourceLocals = new HashMap<String, Set<String>>();
+        for (var method : table.getMethods()) {
+            sourceLocals.put(method, table.getLocalVariables(method).stream()
+                    .map(Symbol::getName)
+                    .collect(Collectors.toSet()));
+        }
 
-        return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+        return sourceLocals;
     }
 
     @Override
@@ -49,15 +115,25 @@ public class JmmOptimizationImpl implements JmmOptimization {
                           semanticsResult.getConfig().containsKey("-o");
         
         if (optimize) {
+            // The optimizations change the AST, which a compact AST does not allow, so they work on a copy
+            if (semanticsResult.getRootNode() instanceof CompactNode compactRoot) {
+                semanticsResult = new JmmSemanticsResult(compactRoot.getAst().toJmmNode(),
+                        semanticsResult.getSymbolTable(), semanticsResult.getReports(), semanticsResult.getConfig());
+            }
+
             JmmNode rootNode = semanticsResult.getRootNode();
-            System.out.println("Applying optimizations...");
+            var logger = CompilerLogger.forConfig(semanticsResult.getConfig());
+            logger.info(Phase.OPTIMIZATION, () -> "Applying optimizations...");
             
-            boolean changed = optimizationManager.optimize(rootNode, true);
+            boolean changed;
+            try (var timer = metrics.start("optimization/constants")) {
+                changed = optimizationManager.optimize(rootNode, true);
+            }
             
             if (changed) {
-                System.out.println("Optimizations applied successfully!");
+                logger.info(Phase.OPTIMIZATION, () -> "Optimizations applied successfully!");
             } else {
-                System.out.println("No optimizations were applied.");
+                logger.info(Phase.OPTIMIZATION, () -> "No optimizations were applied.");
             }
         }
 
@@ -67,22 +143,52 @@ public class JmmOptimizationImpl implements JmmOptimization {
     @Override
     public OllirResult optimize(OllirResult ollirResult) {
         List<Report> reports = new ArrayList<>(ollirResult.getReports());
+
+        boolean optimize = ollirResult.getConfig().containsKey("optimize") ||
+                          ollirResult.getConfig().containsKey("-o");
+
+        if (optimize) {
+            var logger = CompilerLogger.forConfig(ollirResult.getConfig());
+            boolean reused;
+            try (var timer = metrics.start("optimization/value-numbering")) {
+                reused = CommonSubexpressionEliminator.eliminate(ollirResult.getOllirClass(), metrics);
+            }
+
+            if (reused) {
+                logger.info(Phase.OPTIMIZATION, () -> "Common subexpressions reused.");
+            }
+
+            // Dead code goes before register allocation, so its variables do not take registers
+            boolean changed;
+            try (var timer = metrics.start("optimization/dead-code")) {
+                changed = DeadCodeEliminator.eliminate(ollirResult.getOllirClass(), getSourceLocals(ollirResult),
+                        metrics);
+            }
+
+            if (changed) {
+                logger.info(Phase.OPTIMIZATION, () -> "Dead code removed.");
+            }
+        }
         
         // Check if register allocation is requested
         int registerAllocation = ConfigOptions.getRegisterAllocation(ollirResult.getConfig());
         
         if (registerAllocation != -1) {
-            System.out.println("Performing register allocation with " + 
+            var logger = CompilerLogger.forConfig(ollirResult.getConfig());
+            logger.info(Phase.REGISTERS, () -> "Performing register allocation with " + 
                 (registerAllocation == 0 ? "minimized" : registerAllocation) + " registers...");
             
             // Perform register allocation
-            List<Report> regAllocReports = registerAllocator.allocateRegisters(ollirResult, registerAllocation);
+            List<Report> regAllocReports;
+            try (var timer = metrics.start("registers")) {
+                regAllocReports = registerAllocator.allocateRegisters(ollirResult, registerAllocation);
+            }
             reports.addAll(regAllocReports);
             
-            if (regAllocReports.isEmpty()) {
-                System.out.println("Register allocation completed successfully!");
+            if (!ReportUtils.anyError(regAllocReports)) {
+                logger.info(Phase.REGISTERS, () -> "Register allocation completed successfully!");
             } else {
-                System.out.println("Register allocation encountered issues. See reports for details.");
+                logger.warn(Phase.REGISTERS, () -> "Register allocation encountered issues. See reports for details.");
             }
         }
         
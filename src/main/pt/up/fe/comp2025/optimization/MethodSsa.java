@@ -0,0 +1,342 @@
+package pt.up.fe.comp2025.optimization;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.optimization.ir.SsaValue;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Definition;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Entry;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Phi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The control-flow graph of a method, built from its AST, with its parameters and locals in SSA form.
+ * <p>
+ * Each block holds the statements that run in sequence, and ends with the condition of an 'if' or 'while' when it
+ * branches (successors are then the 'true' and the 'false' targets, in that order). Each assignment of a variable
+ * is a new {@link Definition}, a variable assigned differently in the branches of an 'if', or in the body of a
+ * 'while', gets a {@link Phi} where the paths meet, and every variable reference of the method is linked to the
+ * value it reads. The users of a value are the definitions and phis computed from it, and the blocks that branch
+ * on it. Fields are not part of the SSA form, since calls can change them.
+ * <p>
+ * Java-- only has structured control flow, so the phis are placed while walking the AST: at the end of an 'if',
+ * and at the start of the condition of a 'while' for the variables its body assigns.
+ * <p>
+ * The values are the {@link SsaValue}s of the SSA form of OLLIR methods, but the graph is built from the AST: the
+ * {@link ConstantRewriter} runs before the OLLIR is generated, replacing expressions with literals and removing the
+ * branches that never run so that the generator never emits them, which needs the 'if' and 'while' statements that
+ * the OLLIR no longer has.
+ */
+public class MethodSsa {
+
+    public static class Block {
+
+        private final List<JmmNode> statements = new ArrayList<>();
+        private final List<Definition> definitions = new ArrayList<>();
+        private final List<Phi> phis = new ArrayList<>();
+        private final List<Block> predecessors = new ArrayList<>();
+        private final List<Block> successors = new ArrayList<>();
+        private JmmNode condition;
+
+        /**
+         * The assignments, array assignments, expression statements and return of the block, in order.
+         */
+        public List<JmmNode> getStatements() {
+            return statements;
+        }
+
+        public List<Definition> getDefinitions() {
+            return definitions;
+        }
+
+        public List<Phi> getPhis() {
+            return phis;
+        }
+
+        public List<Block> getPredecessors() {
+            return predecessors;
+        }
+
+        public List<Block> getSuccessors() {
+            return successors;
+        }
+
+        /**
+         * The condition the block branches on, or null if it has a single successor (or none, at the end).
+         */
+        public JmmNode getCondition() {
+            return condition;
+        }
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final Block entry;
+
+    private final Set<String> variables = new HashSet<>();
+    private final List<Entry> entries = new ArrayList<>();
+
+    // The assignment of each definition, and the block of each definition and phi
+    private final Map<Definition, JmmNode> assignments = new IdentityHashMap<>();
+    private final Map<SsaValue, Block> valueBlocks = new IdentityHashMap<>();
+
+    // The value read by each variable reference, and the block of each statement (the branching block of an 'if'
+    // or the condition block of a 'while')
+    private final Map<JmmNode, SsaValue> references = new IdentityHashMap<>();
+    private final Map<JmmNode, Block> statementBlocks = new IdentityHashMap<>();
+
+    // While building: the block being filled, and the current value of each variable
+    private Block current;
+    private Map<String, SsaValue> values = new HashMap<>();
+
+    private MethodSsa(JmmNode method) {
+        for (var child : method.getChildren()) {
+            if (Kind.PARAM.check(child) || Kind.MAIN_PARAM.check(child) || Kind.VAR_DECL.check(child)) {
+                variables.add(child.get("name"));
+            }
+        }
+        for (var variable : variables) {
+            var value = new Entry(variable);
+            entries.add(value);
+            values.put(variable, value);
+        }
+
+        this.entry = newBlock();
+        this.current = entry;
+    }
+
+    public static MethodSsa build(JmmNode method) {
+        var ssa = new MethodSsa(method);
+        for (var child : method.getChildren()) {
+            if (Kind.STMT.check(child) || Kind.RETURN_STMT.check(child)) {
+                ssa.statement(child);
+            }
+        }
+        ssa.current = null;
+        ssa.values = null;
+
+        return ssa;
+    }
+
+    private Block newBlock() {
+        var block = new Block();
+        blocks.add(block);
+        return block;
+    }
+
+    private static void edge(Block from, Block to) {
+        from.successors.add(to);
+        to.predecessors.add(from);
+    }
+
+    private void statement(JmmNode statement) {
+        if (Kind.BLOCK_STMT.check(statement)) {
+            statementBlocks.put(statement, current);
+            for (var child : statement.getChildren()) {
+                statement(child);
+            }
+        } else if (Kind.IF_STMT.check(statement)) {
+            ifStatement(statement);
+        } else if (Kind.WHILE_STMT.check(statement)) {
+            whileStatement(statement);
+        } else if (Kind.ASSIGN_STMT.check(statement) && variables.contains(statement.get("varName"))) {
+            var definition = new Definition(statement.get("varName"));
+            assignments.put(definition, statement);
+            valueBlocks.put(definition, current);
+            uses(statement.getChild(0), definition);
+            current.definitions.add(definition);
+            current.statements.add(statement);
+            statementBlocks.put(statement, current);
+
+            // The variable changes after the value is computed
+            values.put(definition.getVariable(), definition);
+        } else {
+            for (var child : statement.getChildren()) {
+                uses(child, null);
+            }
+            current.statements.add(statement);
+            statementBlocks.put(statement, current);
+        }
+    }
+
+    private void ifStatement(JmmNode statement) {
+        var branch = current;
+        branch.condition = statement.getChild(0);
+        uses(branch.condition, branch);
+        statementBlocks.put(statement, branch);
+
+        var before = values;
+
+        var thenBlock = newBlock();
+        edge(branch, thenBlock);
+        current = thenBlock;
+        values = new HashMap<>(before);
+        statement(statement.getChild(1));
+        var thenEnd = current;
+        var thenValues = values;
+
+        // An 'if' without 'else' has an empty 'false' block, so both targets are distinct blocks
+        var elseBlock = newBlock();
+        edge(branch, elseBlock);
+        current = elseBlock;
+        values = new HashMap<>(before);
+        if (statement.getNumChildren() > 2) {
+            statement(statement.getChild(2));
+        }
+        var elseEnd = current;
+        var elseValues = values;
+
+        var join = newBlock();
+        edge(thenEnd, join);
+        edge(elseEnd, join);
+
+        values = thenValues;
+        for (var variable : variables) {
+            var thenValue = thenValues.get(variable);
+            var elseValue = elseValues.get(variable);
+            if (thenValue != elseValue) {
+                var phi = newPhi(variable, join);
+                operand(phi, thenValue);
+                operand(phi, elseValue);
+                join.phis.add(phi);
+                values.put(variable, phi);
+            }
+        }
+
+        current = join;
+    }
+
+    private void whileStatement(JmmNode statement) {
+        var header = newBlock();
+        edge(current, header);
+
+        // The condition sees the value from before the loop or from the end of the body, for the variables the
+        // body assigns
+        values = new HashMap<>(values);
+        for (var variable : assignedIn(statement.getChild(1))) {
+            var phi = newPhi(variable, header);
+            operand(phi, values.get(variable));
+            header.phis.add(phi);
+            values.put(variable, phi);
+        }
+
+        header.condition = statement.getChild(0);
+        uses(header.condition, header);
+        statementBlocks.put(statement, header);
+        var headerValues = values;
+
+        var body = newBlock();
+        edge(header, body);
+        var exit = newBlock();
+        edge(header, exit);
+
+        current = body;
+        values = new HashMap<>(headerValues);
+        statement(statement.getChild(1));
+        edge(current, header);
+        for (var phi : header.phis) {
+            operand(phi, values.get(phi.getVariable()));
+        }
+
+        current = exit;
+        values = headerValues;
+    }
+
+    private Set<String> assignedIn(JmmNode statement) {
+        var assigned = new LinkedHashSet<String>();
+        for (var assignment : statement.getDescendantsAndSelfStream().filter(Kind.ASSIGN_STMT::check).toList()) {
+            var variable = assignment.get("varName");
+            if (variables.contains(variable)) {
+                assigned.add(variable);
+            }
+        }
+
+        return assigned;
+    }
+
+    private Phi newPhi(String variable, Block block) {
+        var phi = new Phi(variable);
+        valueBlocks.put(phi, block);
+        return phi;
+    }
+
+    private static void operand(Phi phi, SsaValue value) {
+        phi.getOperands().add(value);
+        value.getUsers().add(phi);
+    }
+
+    /**
+     * Links the variable references of the expression to their current values.
+     *
+     * @param user what is computed from the expression, or null if nothing
+     */
+    private void uses(JmmNode expr, Object user) {
+        if (Kind.VAR_REF_EXPR.check(expr)) {
+            var value = values.get(expr.get("name"));
+            if (value != null) {
+                references.put(expr, value);
+                if (user != null) {
+                    value.getUsers().add(user);
+                }
+            }
+            return;
+        }
+
+        for (var child : expr.getChildren()) {
+            uses(child, user);
+        }
+    }
+
+    public Block getEntry() {
+        return entry;
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The assignment statement of the definition.
+     */
+    public JmmNode getAssignment(Definition definition) {
+        return assignments.get(definition);
+    }
+
+    /**
+     * The expression whose value the definition assigns.
+     */
+    public JmmNode getExpression(Definition definition) {
+        return getAssignment(definition).getChild(0);
+    }
+
+    /**
+     * The block of a definition or phi, or null for the value a variable has at the entry.
+     */
+    public Block getBlock(SsaValue value) {
+        return valueBlocks.get(value);
+    }
+
+    /**
+     * The value the variable reference reads, or null if it reads a field.
+     */
+    public SsaValue getValue(JmmNode varRef) {
+        return references.get(varRef);
+    }
+
+    /**
+     * The block the statement runs in, or null if the statement is not part of the method.
+     */
+    public Block getBlock(JmmNode statement) {
+        return statementBlocks.get(statement);
+    }
+}
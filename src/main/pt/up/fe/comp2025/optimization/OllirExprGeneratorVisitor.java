@@ -7,6 +7,7 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp2025.ast.Kind;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 
 import java.util.List;
 
@@ -159,9 +160,11 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
 
     private OllirExprResult visitMethodCall(JmmNode node, Void unused) {
         //method call used when it is used inside expressions (some code is the same as in the normal ollir generator visitor)
-        String funcType = ".i32";
-        String tempVar = ollirTypes.nextTemp() + funcType;
         types.setCurrentMethod(currentMethod);
+        // the exact descriptor of imported methods is known when their class is on the classpath
+        var importedReturnType = types.getImportedReturnType(node).map(ollirTypes::toOllirType);
+        String funcType = importedReturnType.filter(type -> !type.equals(".V")).orElse(".i32");
+        String tempVar = ollirTypes.nextTemp() + funcType;
 
         String methodName = node.get("name");
         var firstChildType = types.getExprType(node.getChild(0)).getName();
@@ -217,6 +220,9 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         if(firstChildType.equals(table.getClassName())) {
             returnType = ollirTypes.toOllirType(table.getReturnType(methodName));
         }
+        else if(importedReturnType.isPresent()) {
+            returnType = importedReturnType.get();
+        }
         methodCall.append(returnType);
 
 
@@ -364,18 +370,10 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
     }
 
     private boolean isClassField(String varName) {
-        if (currentMethod != null) {
-            if (table.getParameters(currentMethod).stream().anyMatch(param -> param.getName().equals(varName))) {
-                return false;
-            }
-
-            if (table.getLocalVariables(currentMethod) != null &&
-                    table.getLocalVariables(currentMethod).stream().anyMatch(local -> local.getName().equals(varName))) {
-                return false;
-            }
-        }
+        // Locals and parameters shadow fields
+        var symbol = ((JmmSymbolTable) table).resolve(currentMethod, varName);
 
-        return table.getFields().stream().anyMatch(field -> field.getName().equals(varName));
+        return symbol != null && symbol.isField();
     }
 
     private OllirExprResult visitNewObject(JmmNode node, Void unused) {
@@ -4,8 +4,10 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.IncrementalCompilation;
 import pt.up.fe.comp2025.ast.Kind;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 
 import java.util.stream.Collectors;
 
@@ -34,6 +36,8 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private final OllirExprGeneratorVisitor exprVisitor;
 
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
     public OllirGeneratorVisitor(SymbolTable table) {
         this.table = table;
         this.types = new TypeUtils(table);
@@ -41,6 +45,10 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         exprVisitor = new OllirExprGeneratorVisitor(table);
     }
 
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+    }
+
 
     @Override
     protected void buildVisitor() {
@@ -123,18 +131,37 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private String visitArrayAssignStmt(JmmNode node, Void unused) {
         String varName = node.get("varName");
-        String firstChildCode = exprVisitor.visit(node.getChild(0)).getCode();
-        String secondChildCode = exprVisitor.visit(node.getChild(1)).getCode();
-        secondChildCode += END_STMT;
-        if(firstChildCode.isEmpty()){
-            firstChildCode = visit(node.getChild(0));
+        var valueExpr = node.getChild(1);
+
+        // The index and the value are computed before the store
+        var index = exprVisitor.visit(node.getChild(0));
+        StringBuilder code = new StringBuilder();
+        code.append(index.getComputation());
+
+        //inline binary expression (does not need a temp variable)
+        String valueCode;
+        if (valueExpr.getKind().equals(BINARY_EXPR.getNodeName())
+                && isSimpleOperand(valueExpr.getChild(0)) && isSimpleOperand(valueExpr.getChild(1))) {
+            var lhs = exprVisitor.visit(valueExpr.getChild(0));
+            var rhs = exprVisitor.visit(valueExpr.getChild(1));
+            code.append(lhs.getComputation());
+            code.append(rhs.getComputation());
+            valueCode = lhs.getCode() + valueExpr.get("op") + ".i32" + SPACE + rhs.getCode();
+        } else {
+            var value = exprVisitor.visit(valueExpr);
+            code.append(value.getComputation());
+            valueCode = value.getCode();
         }
 
-        String res = varName + "[" + firstChildCode + "]" + ".i32" + SPACE +
-                ASSIGN + ".i32" + SPACE +
-                secondChildCode.trim();
+        code.append(varName).append("[").append(index.getCode()).append("]").append(".i32").append(SPACE)
+                .append(ASSIGN).append(".i32").append(SPACE)
+                .append(valueCode).append(END_STMT);
+
+        return code.toString();
+    }
 
-        return res;
+    private static boolean isSimpleOperand(JmmNode expr) {
+        return expr.getKind().equals(INTEGER_LITERAL.getNodeName()) || expr.getKind().equals(VAR_REF_EXPR.getNodeName());
     }
 
     private String visitAssignStmt(JmmNode node, Void unused) {
@@ -236,18 +263,10 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
     private boolean isClassField(String varName) {
-        if (currentMethod != null) {
-            if (table.getParameters(currentMethod).stream().anyMatch(param -> param.getName().equals(varName))) {
-                return false;
-            }
+        // Locals and parameters shadow fields
+        var symbol = ((JmmSymbolTable) table).resolve(currentMethod, varName);
 
-            if (table.getLocalVariables(currentMethod) != null &&
-                    table.getLocalVariables(currentMethod).stream().anyMatch(local -> local.getName().equals(varName))) {
-                return false;
-            }
-        }
-
-        return table.getFields().stream().anyMatch(field -> field.getName().equals(varName));
+        return symbol != null && symbol.isField();
     }
 
 
@@ -288,6 +307,19 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
 
     private String visitMethodDecl(JmmNode node, Void unused) {
+        // temporaries and labels only need to be unique inside a method, so the stored code of a method is still valid
+        var stored = incremental.getOllirCode(node.get("name"));
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        var code = generateMethodDecl(node);
+        incremental.putOllirCode(node.get("name"), code);
+
+        return code;
+    }
+
+    private String generateMethodDecl(JmmNode node) {
 
         StringBuilder code = new StringBuilder(".method ");
 
@@ -362,8 +394,9 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
                         .map(this::visit)
                 .collect(Collectors.joining("\n   ", "   ", ""));
 
-       if(returnCode.trim().isEmpty() && stmtsCode.trim().endsWith(":")){
-           //end if stmt needs the return stmt even when the return type is void
+       if(returnCode.trim().isEmpty() && !stmtsCode.isBlank()){
+           //end if stmt needs the return stmt even when the return type is void,
+           //and so does any other void method with statements, or execution falls off the end of the code
             returnCode = "ret" + ollirTypes.toOllirType(TypeUtils.newVoidType()) + END_STMT;
         }
         code.append(returnCode);
@@ -471,6 +504,10 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         if(firstChildType.equals(table.getClassName())) {
             returnType = ollirTypes.toOllirType(table.getReturnType(methodName));
         }
+        else {
+            // the exact descriptor of imported methods is known when their class is on the classpath
+            returnType = types.getImportedReturnType(node).map(ollirTypes::toOllirType).orElse(returnType);
+        }
         methodCall.append(returnType).append(END_STMT);
         return methodCall.toString();
     }
@@ -1,19 +1,18 @@
 package pt.up.fe.comp2025.optimization;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 
 /**
  * Manager class that applies optimizations to the AST.
- * Applies constant propagation and constant folding until a fixed point is reached.
+ * Applies constant propagation and constant folding until a fixed point is reached (see {@link ConstantRewriter}).
  */
 public class OptimizationManager {
     
-    private final ConstantPropagationVisitor propagationVisitor;
-    private final ConstantFoldingVisitor foldingVisitor;
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
     
-    public OptimizationManager() {
-        this.propagationVisitor = new ConstantPropagationVisitor();
-        this.foldingVisitor = new ConstantFoldingVisitor();
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
     }
     
     /**
@@ -27,30 +26,7 @@ public class OptimizationManager {
             return false;
         }
         
-        boolean changed = false;
-        boolean currentIterationChanged;
-        
-        // Keep applying optimizations until no more changes are made
-        do {
-            currentIterationChanged = false;
-            
-            // Apply constant propagation
-            propagationVisitor.reset(); // Reset change tracking
-            propagationVisitor.visit(node);
-            if (propagationVisitor.hasChanged()) {
-                currentIterationChanged = true;
-                changed = true;
-            }
-            
-            // Apply constant folding
-            foldingVisitor.reset(); // Reset change tracking
-            foldingVisitor.visit(node, true);
-            if (foldingVisitor.hasChanged()) {
-                currentIterationChanged = true;
-                changed = true;
-            }
-        } while (currentIterationChanged);
-        
-        return changed;
+        // Only the nodes whose operands changed are visited again, instead of the whole AST until nothing changes
+        return ConstantRewriter.rewrite(node, metrics);
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,12 @@ import org.specs.comp.ollir.inst.*;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.IncrementalCompilation;
+import pt.up.fe.comp2025.optimization.ir.BasicBlock;
+import pt.up.fe.comp2025.optimization.ir.ControlFlowGraph;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,6 +21,21 @@ import java.util.stream.Collectors;
  */
 public class RegisterAllocator {
 
+    // Logger of the compilation being processed, set by allocateRegisters
+    private CompilerLogger logger = CompilerLogger.quiet();
+
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
+
+    private IncrementalCompilation incremental = IncrementalCompilation.disabled();
+
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setIncremental(IncrementalCompilation incremental) {
+        this.incremental = incremental;
+    }
+
     /**
      * Exception thrown when register allocation fails because not enough registers are available.
      */
@@ -41,14 +62,15 @@ public class RegisterAllocator {
     public List<Report> allocateRegisters(OllirResult ollirResult, int maxRegisters) {
         List<Report> reports = new ArrayList<>();
         ClassUnit classUnit = ollirResult.getOllirClass();
+        logger = CompilerLogger.forConfig(ollirResult.getConfig());
         
         // Skip register allocation if maxRegisters is -1 (default)
         if (maxRegisters == -1) {
-            System.out.println("Skipping register allocation (using default register allocation)");
+            logger.debug(Phase.REGISTERS, () -> "Skipping register allocation (using default register allocation)");
             return reports;
         }
         
-        System.out.println("Register allocation with " + (maxRegisters == 0 ? "minimized" : maxRegisters) + " registers");
+        logger.debug(Phase.REGISTERS, () -> "Register allocation with " + (maxRegisters == 0 ? "minimized" : maxRegisters) + " registers");
         
         // Process each method
         for (Method method : classUnit.getMethods()) {
@@ -56,7 +78,15 @@ public class RegisterAllocator {
                 continue; // Skip constructor method
             }
 
-            try {
+            // Methods whose Jasmin code is reused do not need their registers allocated again
+            var storedReports = incremental.getRegisterReports(method.getMethodName());
+            if (storedReports.isPresent()) {
+                reports.addAll(storedReports.get());
+                continue;
+            }
+
+            int methodReports = reports.size();
+            try (var timer = metrics.start("registers/method:" + method.getMethodName())) {
                 if (maxRegisters == 0) {
                     // Optimization: Use as few registers as possible
                     minimizeRegisters(method);
@@ -81,6 +111,8 @@ public class RegisterAllocator {
                     ": " + e.getMessage(), e));
                 throw new RuntimeException(e);
             }
+
+            incremental.putRegisterReports(method.getMethodName(), reports.subList(methodReports, reports.size()));
         }
 
         return reports;
@@ -97,9 +129,6 @@ public class RegisterAllocator {
         // Perform liveness analysis
         performLivenessAnalysis(method, liveIn, liveOut);
 
-        // Ensure CFG is built
-        method.buildCFG();
-
         // Build interference graph
         Map<String, Set<String>> interferenceGraph = buildInterferenceGraph(method, liveIn, liveOut);
 
@@ -136,10 +165,13 @@ public class RegisterAllocator {
         updateVarTable(method, colorAssignment);
         
         // Print register assignments for debugging
-        System.out.println("Register assignments:");
-        for (Map.Entry<String, Descriptor> entry : method.getVarTable().entrySet()) {
-            System.out.println("  " + entry.getKey() + ": " + entry.getValue().getVirtualReg());
-        }
+        logger.debug(Phase.REGISTERS, () -> {
+            var assignments = new StringBuilder("Register assignments:");
+            for (Map.Entry<String, Descriptor> entry : method.getVarTable().entrySet()) {
+                assignments.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue().getVirtualReg());
+            }
+            return assignments.toString();
+        });
     }
     
     /**
@@ -187,6 +219,10 @@ public class RegisterAllocator {
             }
         }
         
+        // Parameters keep their registers after 'this', only the locals are colored
+        removeParameters(method, interferenceGraph);
+        removeParameters(method, copyRelations);
+
         try {
             // Color the graph using a greedy algorithm, limiting to maxRegisters
             Map<String, Integer> colorAssignment = colorGraphLimited(interferenceGraph, copyRelations, maxRegisters);
@@ -200,6 +236,18 @@ public class RegisterAllocator {
         }
     }
     
+    /**
+     * Removes the parameters of the method from a graph over its variables.
+     */
+    private void removeParameters(Method method, Map<String, Set<String>> graph) {
+        for (Element param : method.getParams()) {
+            if (param instanceof Operand paramOp) {
+                graph.remove(paramOp.getName());
+                graph.values().forEach(related -> related.remove(paramOp.getName()));
+            }
+        }
+    }
+
     /**
      * Finds the minimum number of registers required for this interference graph.
      */
@@ -294,140 +342,100 @@ public class RegisterAllocator {
     private void performLivenessAnalysis(Method method, 
                                          Map<Instruction, Set<String>> liveIn, 
                                          Map<Instruction, Set<String>> liveOut) {
-        List<Instruction> instructions = method.getInstructions();
-        Map<Integer, List<Integer>> successors = new HashMap<>();
+        performLivenessAnalysis(ControlFlowGraph.build(method), liveIn, liveOut, metrics);
+    }
+
+    /**
+     * Performs liveness analysis over the basic blocks of a method, with a worklist of the blocks
+     * whose live-out set can still change, and then computes the sets of each instruction once.
+     * Also used by dead store elimination, on the blocks it is changing.
+     */
+    static void performLivenessAnalysis(ControlFlowGraph cfg,
+                                        Map<Instruction, Set<String>> liveIn,
+                                        Map<Instruction, Set<String>> liveOut,
+                                        CompilerMetrics metrics) {
+        List<BasicBlock> blocks = cfg.getBlocks();
         Map<Instruction, Set<String>> defineVars = new HashMap<>();
         Map<Instruction, Set<String>> useVars = new HashMap<>();
-        
-        // Initialize data structures
-        for (int i = 0; i < instructions.size(); i++) {
-            Instruction inst = instructions.get(i);
-            liveIn.put(inst, new HashSet<>());
-            liveOut.put(inst, new HashSet<>());
-            defineVars.put(inst, new HashSet<>());
-            useVars.put(inst, new HashSet<>());
-            
-            // Find variables defined and used by this instruction
-            findDefinitionsAndUses(inst, defineVars.get(inst), useVars.get(inst));
-            
-            // Compute control flow successors
-            successors.put(i, findSuccessors(method, i));
-        }
-        
-        // Iterative data flow analysis until reaching a fixed point
-        boolean changed;
-        do {
-            changed = false;
-            
-            // Traverse instructions in reverse order (for backward data flow analysis)
-            for (int i = instructions.size() - 1; i >= 0; i--) {
-                Instruction inst = instructions.get(i);
-                
-                // Save old values to check for changes
-                Set<String> oldLiveIn = new HashSet<>(liveIn.get(inst));
-                Set<String> oldLiveOut = new HashSet<>(liveOut.get(inst));
-                
-                // LiveOut = union of LiveIn of all successors
-                for (int succIndex : successors.get(i)) {
-                    if (succIndex >= 0 && succIndex < instructions.size()) {
-                        liveOut.get(inst).addAll(liveIn.get(instructions.get(succIndex)));
+
+        // Variables each block reads before assigning them, and variables each block assigns
+        List<Set<String>> blockUses = new ArrayList<>();
+        List<Set<String>> blockDefs = new ArrayList<>();
+        List<Set<String>> blockLiveIn = new ArrayList<>();
+        List<Set<String>> blockLiveOut = new ArrayList<>();
+
+        for (BasicBlock block : blocks) {
+            Set<String> uses = new HashSet<>();
+            Set<String> defs = new HashSet<>();
+            for (Instruction inst : block.getInstructions()) {
+                defineVars.put(inst, new HashSet<>());
+                useVars.put(inst, new HashSet<>());
+
+                // Find variables defined and used by this instruction
+                findDefinitionsAndUses(inst, defineVars.get(inst), useVars.get(inst));
+
+                for (String var : useVars.get(inst)) {
+                    if (!defs.contains(var)) {
+                        uses.add(var);
                     }
                 }
-                
-                // LiveIn = use ∪ (liveOut - def)
-                Set<String> newLiveIn = new HashSet<>(useVars.get(inst));
-                Set<String> liveOutMinusDef = new HashSet<>(liveOut.get(inst));
-                liveOutMinusDef.removeAll(defineVars.get(inst));
-                newLiveIn.addAll(liveOutMinusDef);
-                liveIn.put(inst, newLiveIn);
-                
-                // Check if anything changed
-                if (!oldLiveIn.equals(liveIn.get(inst)) || !oldLiveOut.equals(liveOut.get(inst))) {
-                    changed = true;
-                }
+                defs.addAll(defineVars.get(inst));
             }
-        } while (changed);
-    }
-    
-    /**
-     * Finds the successor instruction indices for a given instruction index.
-     */
-    private List<Integer> findSuccessors(Method method, int instructionIndex) {
-        List<Instruction> instructions = method.getInstructions();
-        int instructionCount = instructions.size();
-        List<Integer> successors = new ArrayList<>();
-        Instruction inst = instructions.get(instructionIndex);
 
-        if (inst instanceof ReturnInstruction) {
-            // Return: no successors
-            return successors;
+            blockUses.add(uses);
+            blockDefs.add(defs);
+            blockLiveIn.add(new HashSet<>(uses));
+            blockLiveOut.add(new HashSet<>());
         }
-        
-        // Handle control flow instructions
-        if (inst instanceof GotoInstruction gotoInst) {
-            // Goto: try to find the actual target, fall back to next if exists
-            String targetLabel = gotoInst.getLabel();
-            Integer targetIndex = findLabelTarget(method, targetLabel);
-            if (targetIndex != null) {
-                successors.add(targetIndex);
-                return successors;
-            }
-            
-            if (instructionIndex + 1 < instructionCount) {
-                successors.add(instructionIndex + 1);
+
+        // Backward data flow: visiting the blocks from the end first, a block is visited again
+        // only when the live-in set of one of its successors grows
+        Deque<BasicBlock> worklist = new ArrayDeque<>(blocks.reversed());
+        boolean[] queued = new boolean[blocks.size()];
+        Arrays.fill(queued, true);
+        long visits = 0;
+
+        while (!worklist.isEmpty()) {
+            BasicBlock block = worklist.poll();
+            queued[block.getIndex()] = false;
+            visits++;
+
+            // LiveOut = union of LiveIn of all successors
+            Set<String> out = blockLiveOut.get(block.getIndex());
+            for (BasicBlock successor : block.getSuccessors()) {
+                out.addAll(blockLiveIn.get(successor.getIndex()));
             }
-            return successors;
-        }
-        
-        if (inst instanceof CondBranchInstruction condBranch) {
-            // Conditional branch: check for label and add fall-through
-            String targetLabel = condBranch.getLabel();
-            Integer targetIndex = findLabelTarget(method, targetLabel);
-            if (targetIndex != null) {
-                successors.add(targetIndex);
+
+            // LiveIn = use ∪ (liveOut - def)
+            Set<String> in = blockLiveIn.get(block.getIndex());
+            boolean changed = false;
+            for (String var : out) {
+                if (!blockDefs.get(block.getIndex()).contains(var)) {
+                    changed |= in.add(var);
+                }
             }
-            
-            // Next instruction is also a successor for condition branches
-            if (instructionIndex + 1 < instructionCount) {
-                successors.add(instructionIndex + 1);
+
+            if (changed) {
+                for (BasicBlock predecessor : block.getPredecessors()) {
+                    if (!queued[predecessor.getIndex()]) {
+                        queued[predecessor.getIndex()] = true;
+                        worklist.add(predecessor);
+                    }
+                }
             }
-            
-            return successors;
-        }
-        
-        // For normal instructions, just fall through to next instruction
-        if (instructionIndex + 1 < instructionCount) {
-            successors.add(instructionIndex + 1);
-        }
-        
-        return successors;
-    }
-    
-    /**
-     * Find the instruction index for a given label.
-     */
-    private Integer findLabelTarget(Method method, String label) {
-        if (label == null) {
-            return null;
         }
-        
-        // Get the label map from the method's CFG
-        method.buildCFG();
-        HashMap<String, Instruction> labels = method.getLabels();
-        
-        if (labels != null && labels.containsKey(label)) {
-            // Find the index of the instruction with this label
-            List<Instruction> instructions = method.getInstructions();
-            Instruction targetInst = labels.get(label);
-            
-            for (int i = 0; i < instructions.size(); i++) {
-                if (instructions.get(i) == targetInst) {
-                    return i;
-                }
+        metrics.count("registers/liveness-visits", visits);
+
+        // Sets of each instruction, from the end of its block
+        for (BasicBlock block : blocks) {
+            Set<String> live = new HashSet<>(blockLiveOut.get(block.getIndex()));
+            for (Instruction inst : block.getInstructions().reversed()) {
+                liveOut.put(inst, new HashSet<>(live));
+                live.removeAll(defineVars.get(inst));
+                live.addAll(useVars.get(inst));
+                liveIn.put(inst, new HashSet<>(live));
             }
         }
-        
-        return null;
     }
     
     /**
@@ -454,7 +462,8 @@ public class RegisterAllocator {
                 if (assign.getDest() instanceof Operand) {
                     String destVar = ((Operand) assign.getDest()).getName();
                     if (assign.getRhs() instanceof SingleOpInstruction sop &&
-                        sop.getSingleOperand() instanceof Operand) {
+                        sop.getSingleOperand() instanceof Operand &&
+                        !(sop.getSingleOperand() instanceof ArrayOperand)) {
                         String srcVar = ((Operand) sop.getSingleOperand()).getName();
                         destinationMappings.put(destVar, srcVar);
                     } else if (assign.getRhs() instanceof CallInstruction) {
@@ -475,12 +484,13 @@ public class RegisterAllocator {
                 String destVar = ((Operand) dest).getName();
                 if (destVar.equals("this")) continue;
                 
-                // Find the source variable (if this is a copy instruction)
+                // Find the source variable (if this is a copy instruction, reading an array element is not)
                 String srcVar = null;
                 boolean isCopy = false;
                 
                 if (assign.getRhs() instanceof SingleOpInstruction sop &&
-                    sop.getSingleOperand() instanceof Operand) {
+                    sop.getSingleOperand() instanceof Operand &&
+                    !(sop.getSingleOperand() instanceof ArrayOperand)) {
                     srcVar = ((Operand) sop.getSingleOperand()).getName();
                     isCopy = true;
                 }
@@ -498,7 +508,7 @@ public class RegisterAllocator {
                             if (!argVarName.equals("this") && !argVarName.equals(destVar)) {
                                 // Explicitly add interference between the argument and destination
                                 addInterference(interferenceGraph, destVar, argVarName);
-                                System.out.println("Added method call parameter interference: " + destVar + " <-> " + argVarName);
+                                logger.trace(Phase.REGISTERS, () -> "Added method call parameter interference: " + destVar + " <-> " + argVarName);
                                 
                                 // CRITICAL FIX: Also add interference with all other call results
                                 // This ensures that variables receiving method call results don't share registers
@@ -507,7 +517,7 @@ public class RegisterAllocator {
                                     if (entry.getValue().equals("@CALL_RESULT@") && 
                                         !entry.getKey().equals(destVar)) {
                                         addInterference(interferenceGraph, destVar, entry.getKey());
-                                        System.out.println("Added call result interference: " + destVar + " <-> " + entry.getKey());
+                                        logger.trace(Phase.REGISTERS, () -> "Added call result interference: " + destVar + " <-> " + entry.getKey());
                                     }
                                 }
                             }
@@ -546,7 +556,7 @@ public class RegisterAllocator {
                 String var1 = methodCallResults.get(i);
                 String var2 = methodCallResults.get(j);
                 addInterference(interferenceGraph, var1, var2);
-                System.out.println("Added result-result interference: " + var1 + " <-> " + var2);
+                logger.trace(Phase.REGISTERS, () -> "Added result-result interference: " + var1 + " <-> " + var2);
             }
         }
         
@@ -567,21 +577,21 @@ public class RegisterAllocator {
     /**
      * Find all definitions and uses of variables in an instruction.
      */
-    private void findDefinitionsAndUses(Instruction inst, Set<String> defined, Set<String> used) {
+    static void findDefinitionsAndUses(Instruction inst, Set<String> defined, Set<String> used) {
         // Handle different instruction types
         if (inst instanceof AssignInstruction assign) {
-            // The LHS is defined
-            if (assign.getDest() instanceof Operand) {
-                String varName = ((Operand) assign.getDest()).getName();
-                if (!varName.equals("this")) {
-                    defined.add(varName);
-                }
-            } else if (assign.getDest() instanceof ArrayOperand arrayOp) {
+            // The LHS is defined (array operands are operands too, so they are checked first)
+            if (assign.getDest() instanceof ArrayOperand arrayOp) {
                 // For array assignments like a[i] = x, both a and i are used
                 used.add(arrayOp.getName());
                 for (Element indexElement : arrayOp.getIndexOperands()) {
                     collectUsedVarsFromElement(indexElement, used);
                 }
+            } else if (assign.getDest() instanceof Operand) {
+                String varName = ((Operand) assign.getDest()).getName();
+                if (!varName.equals("this")) {
+                    defined.add(varName);
+                }
             }
             
             // Extract variables used in the RHS
@@ -646,7 +656,7 @@ public class RegisterAllocator {
     /**
      * Collect variables used in an instruction.
      */
-    private void collectUsedVarsFromInstruction(Instruction inst, Set<String> used) {
+    private static void collectUsedVarsFromInstruction(Instruction inst, Set<String> used) {
         if (inst instanceof SingleOpInstruction sop) {
             collectUsedVarsFromElement(sop.getSingleOperand(), used);
         } else if (inst instanceof BinaryOpInstruction bop) {
@@ -675,19 +685,19 @@ public class RegisterAllocator {
     /**
      * Collect variables used in an element.
      */
-    private void collectUsedVarsFromElement(Element element, Set<String> used) {
-        if (element instanceof Operand) {
-            String varName = ((Operand) element).getName();
-            if (!varName.equals("this")) {
-                used.add(varName);
-            }
-        } else if (element instanceof ArrayOperand arrayOp) {
+    private static void collectUsedVarsFromElement(Element element, Set<String> used) {
+        if (element instanceof ArrayOperand arrayOp) {
             // Array accesses use both the array and the index
             used.add(arrayOp.getName());
             
             for (Element indexElement : arrayOp.getIndexOperands()) {
                 collectUsedVarsFromElement(indexElement, used);
             }
+        } else if (element instanceof Operand) {
+            String varName = ((Operand) element).getName();
+            if (!varName.equals("this")) {
+                used.add(varName);
+            }
         } else if (element instanceof LiteralElement) {
             // Literals don't use variables
         }
@@ -744,7 +754,7 @@ public class RegisterAllocator {
                     copyRelations.get(srcVar).add(destVar);
                     
                     // Debug information
-                    System.out.println("Found copy relation: " + destVar + " = " + srcVar);
+                    logger.trace(Phase.REGISTERS, () -> "Found copy relation: " + destVar + " = " + srcVar);
                 }
                 // Special handling for expressions with parameters - be more selective
                 else if (assign.getRhs() instanceof BinaryOpInstruction binaryOp) {
@@ -788,7 +798,8 @@ public class RegisterAllocator {
                     if ((leftIsParam && rightIsConstant) || (rightIsParam && leftIsConstant)) {
                         copyRelations.get(destVar).add(paramName);
                         copyRelations.get(paramName).add(destVar);
-                        System.out.println("Found parameter-based copy relation: " + destVar + " = " + paramName + " (in expression)");
+                        String copiedParam = paramName;
+                        logger.trace(Phase.REGISTERS, () -> "Found parameter-based copy relation: " + destVar + " = " + copiedParam + " (in expression)");
                     }
                 }
             }
@@ -891,7 +902,8 @@ public class RegisterAllocator {
         
         // Debug information
         for (int i = 0; i < registerGroups.size(); i++) {
-            System.out.println("Register group " + i + ": " + String.join(", ", registerGroups.get(i)));
+            int group = i;
+            logger.trace(Phase.REGISTERS, () -> "Register group " + group + ": " + String.join(", ", registerGroups.get(group)));
         }
         
         return colorAssignment;
@@ -939,7 +951,7 @@ public class RegisterAllocator {
         // Debug information
         for (String var : copyChains.keySet()) {
             if (copyChains.get(var).size() > 1) {
-                System.out.println("Copy chain for " + var + ": " + String.join(", ", copyChains.get(var)));
+                logger.trace(Phase.REGISTERS, () -> "Copy chain for " + var + ": " + String.join(", ", copyChains.get(var)));
             }
         }
         
@@ -1139,8 +1151,9 @@ public class RegisterAllocator {
             
             String groupLeader = nodeToGroup.get(node);
             
-            // If this group has already been assigned a color, use it
-            if (copyGroupColors.containsKey(groupLeader)) {
+            // If this group has already been assigned a color, use it when no neighbor has it
+            if (copyGroupColors.containsKey(groupLeader)
+                    && canShareColor(interferenceGraph, colorAssignment, node, copyGroupColors.get(groupLeader))) {
                 int groupColor = copyGroupColors.get(groupLeader);
                 colorAssignment.put(node, groupColor);
                 processed.add(node);
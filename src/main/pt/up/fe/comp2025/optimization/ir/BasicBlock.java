@@ -0,0 +1,70 @@
+package pt.up.fe.comp2025.optimization.ir;
+
+import org.specs.comp.ollir.inst.Instruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of OLLIR instructions that always run together: only the first one can be the target of a jump, and
+ * only the last one can jump.
+ */
+public class BasicBlock {
+
+    private int index;
+
+    private final List<String> labels = new ArrayList<>();
+    private final List<Instruction> instructions = new ArrayList<>();
+    private final List<BasicBlock> successors = new ArrayList<>();
+    private final List<BasicBlock> predecessors = new ArrayList<>();
+
+    BasicBlock(int index) {
+        this.index = index;
+    }
+
+    /**
+     * The position of the block in {@link ControlFlowGraph#getBlocks()}, which is also its position in the code.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * The labels of the block. They stay with the block when its first instruction is removed.
+     */
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * The instructions of the block, in order. Passes can remove instructions, add ones that do not jump, or
+     * replace the last one with a jump to one of its successors.
+     */
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * The blocks that can run next. A block ending in a conditional branch has the target of the branch first, and
+     * then the next block in the code.
+     */
+    public List<BasicBlock> getSuccessors() {
+        return successors;
+    }
+
+    /**
+     * The blocks that can run before, once for each edge into the block.
+     */
+    public List<BasicBlock> getPredecessors() {
+        return predecessors;
+    }
+
+    @Override
+    public String toString() {
+        return "B" + index + (labels.isEmpty() ? "" : " " + labels);
+    }
+}
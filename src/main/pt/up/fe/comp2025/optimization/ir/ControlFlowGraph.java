@@ -0,0 +1,239 @@
+package pt.up.fe.comp2025.optimization.ir;
+
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.inst.CondBranchInstruction;
+import org.specs.comp.ollir.inst.GotoInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.ReturnInstruction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The basic blocks of an OLLIR method and the edges between them.
+ * <p>
+ * The graph is built in a single pass over the instructions, resolving each label once, and is independent of the
+ * graph {@link Method#buildCFG()} builds on the instructions themselves (which adds the same edges again each time
+ * it is called). Passes change the blocks and then {@link #lower() lower} them back into the method.
+ */
+public class ControlFlowGraph {
+
+    private final Method method;
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final Map<Instruction, BasicBlock> instructionBlocks = new IdentityHashMap<>();
+
+    private ControlFlowGraph(Method method) {
+        this.method = method;
+    }
+
+    public static ControlFlowGraph build(Method method) {
+        var cfg = new ControlFlowGraph(method);
+        cfg.buildBlocks();
+        cfg.buildEdges();
+
+        return cfg;
+    }
+
+    private void buildBlocks() {
+        var labels = new IdentityHashMap<Instruction, List<String>>();
+        for (var entry : method.getLabels().entrySet()) {
+            labels.computeIfAbsent(entry.getValue(), instruction -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        // The entry has no predecessors, so it is an empty block of its own when the first instruction is a target
+        BasicBlock current = new BasicBlock(0);
+        blocks.add(current);
+
+        for (var instruction : method.getInstructions()) {
+            // A block starts at each jump target, and after each jump
+            var instructionLabels = labels.getOrDefault(instruction, List.of());
+            if (current == null || !instructionLabels.isEmpty()) {
+                current = new BasicBlock(blocks.size());
+                blocks.add(current);
+                current.getLabels().addAll(instructionLabels);
+                Collections.sort(current.getLabels());
+            }
+
+            current.getInstructions().add(instruction);
+            instructionBlocks.put(instruction, current);
+
+            if (isJump(instruction)) {
+                current = null;
+            }
+        }
+    }
+
+    private void buildEdges() {
+        var labelBlocks = new HashMap<String, BasicBlock>();
+        for (var block : blocks) {
+            for (var label : block.getLabels()) {
+                labelBlocks.put(label, block);
+            }
+        }
+
+        for (var block : blocks) {
+            var next = block.getIndex() + 1 < blocks.size() ? blocks.get(block.getIndex() + 1) : null;
+            var last = block.getInstructions().isEmpty() ? null : block.getInstructions().getLast();
+
+            if (last instanceof GotoInstruction gotoInstruction) {
+                addEdge(block, target(labelBlocks, gotoInstruction.getLabel()));
+            } else if (last instanceof CondBranchInstruction branch) {
+                addEdge(block, target(labelBlocks, branch.getLabel()));
+                if (next != null) {
+                    addEdge(block, next);
+                }
+            } else if (!(last instanceof ReturnInstruction) && next != null) {
+                addEdge(block, next);
+            }
+        }
+    }
+
+    private static BasicBlock target(Map<String, BasicBlock> labelBlocks, String label) {
+        var block = labelBlocks.get(label);
+        if (block == null) {
+            throw new IllegalStateException("Label '" + label + "' is not associated with an instruction");
+        }
+
+        return block;
+    }
+
+    private static boolean isJump(Instruction instruction) {
+        return instruction instanceof GotoInstruction || instruction instanceof CondBranchInstruction
+                || instruction instanceof ReturnInstruction;
+    }
+
+    private static void addEdge(BasicBlock from, BasicBlock to) {
+        from.getSuccessors().add(to);
+        to.getPredecessors().add(from);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * The blocks, in the order of their code. The first one is the entry of the method.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.getFirst();
+    }
+
+    /**
+     * The block of an instruction of the method, as built.
+     */
+    public BasicBlock getBlock(Instruction instruction) {
+        return instructionBlocks.get(instruction);
+    }
+
+    /**
+     * The blocks reachable from the entry, each before its successors except along the back edges of loops.
+     */
+    public List<BasicBlock> getReversePostorder() {
+        var postorder = new ArrayList<BasicBlock>(blocks.size());
+        var visited = new boolean[blocks.size()];
+
+        // Each entry of the stack is a block and the index of the next successor to visit
+        var stack = new ArrayDeque<int[]>();
+        visited[getEntry().getIndex()] = true;
+        stack.push(new int[]{getEntry().getIndex(), 0});
+        while (!stack.isEmpty()) {
+            var top = stack.peek();
+            var successors = blocks.get(top[0]).getSuccessors();
+            if (top[1] < successors.size()) {
+                var successor = successors.get(top[1]++);
+                if (!visited[successor.getIndex()]) {
+                    visited[successor.getIndex()] = true;
+                    stack.push(new int[]{successor.getIndex(), 0});
+                }
+            } else {
+                postorder.add(blocks.get(stack.pop()[0]));
+            }
+        }
+
+        return postorder.reversed();
+    }
+
+    /**
+     * Removes an edge, for instance when a branch becomes a jump. Parallel edges are removed one at a time.
+     */
+    public void removeEdge(BasicBlock from, BasicBlock to) {
+        from.getSuccessors().remove(to);
+        to.getPredecessors().remove(from);
+    }
+
+    /**
+     * Removes the blocks not reachable from the entry, with their labels, and numbers the remaining blocks again.
+     *
+     * @return the number of blocks removed
+     */
+    public int removeUnreachable() {
+        var reachable = new boolean[blocks.size()];
+        for (var block : getReversePostorder()) {
+            reachable[block.getIndex()] = true;
+        }
+
+        int removed = 0;
+        var iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            var block = iterator.next();
+            if (reachable[block.getIndex()]) {
+                continue;
+            }
+
+            for (var successor : block.getSuccessors()) {
+                successor.getPredecessors().removeIf(predecessor -> predecessor == block);
+            }
+            for (var instruction : block.getInstructions()) {
+                instructionBlocks.remove(instruction);
+            }
+            iterator.remove();
+            removed++;
+        }
+
+        for (int i = 0; i < blocks.size(); i++) {
+            blocks.get(i).setIndex(i);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Writes the instructions of the blocks back into the method, in the order of the blocks, with each label on
+     * the first instruction of its block (or of the next block, when its block was emptied).
+     * <p>
+     * Must run before the labels of the instructions are read with {@link Method#getLabels(Instruction)}, which
+     * the method caches.
+     */
+    public void lower() {
+        var instructions = method.getInstructions();
+        var labels = method.getLabels();
+        instructions.clear();
+        labels.clear();
+
+        var pending = new ArrayList<String>();
+        for (var block : blocks) {
+            pending.addAll(block.getLabels());
+            for (var instruction : block.getInstructions()) {
+                for (var label : pending) {
+                    labels.put(label, instruction);
+                }
+                pending.clear();
+                instructions.add(instruction);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Labels " + pending + " of method " + method.getMethodName()
+                    + " are not followed by an instruction");
+        }
+    }
+}
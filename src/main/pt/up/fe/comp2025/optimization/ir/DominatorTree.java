@@ -0,0 +1,229 @@
+package pt.up.fe.comp2025.optimization.ir;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The dominator tree of a {@link ControlFlowGraph}, and the dominance frontier of each block.
+ * <p>
+ * Immediate dominators are found with the iterative algorithm of Cooper, Harvey and Kennedy over the reverse
+ * postorder, which converges in a couple of passes for the reducible graphs Java-- produces. Blocks not reachable
+ * from the entry are not part of the tree.
+ */
+public class DominatorTree {
+
+    private final ControlFlowGraph cfg;
+    private final List<BasicBlock> reversePostorder;
+
+    // Indexed by block index: the position in the reverse postorder (-1 if unreachable), and the immediate dominator
+    private final int[] order;
+    private final BasicBlock[] immediateDominators;
+
+    private final List<List<BasicBlock>> children = new ArrayList<>();
+    private final List<Set<BasicBlock>> frontiers = new ArrayList<>();
+
+    // Indexed by block index: the position in a preorder walk of the tree, and the last position of its subtree
+    private final int[] preorder;
+    private final int[] subtreeEnds;
+
+    private DominatorTree(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        this.reversePostorder = cfg.getReversePostorder();
+
+        int size = cfg.getBlocks().size();
+        this.order = new int[size];
+        this.immediateDominators = new BasicBlock[size];
+        this.preorder = new int[size];
+        this.subtreeEnds = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = -1;
+            children.add(new ArrayList<>());
+            frontiers.add(new LinkedHashSet<>());
+        }
+        for (int i = 0; i < reversePostorder.size(); i++) {
+            order[reversePostorder.get(i).getIndex()] = i;
+        }
+    }
+
+    public static DominatorTree build(ControlFlowGraph cfg) {
+        var tree = new DominatorTree(cfg);
+        tree.computeImmediateDominators();
+        tree.computeFrontiers();
+        tree.number();
+
+        return tree;
+    }
+
+    private void computeImmediateDominators() {
+        var entry = cfg.getEntry();
+        immediateDominators[entry.getIndex()] = entry;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (var block : reversePostorder) {
+                if (block == entry) {
+                    continue;
+                }
+
+                BasicBlock dominator = null;
+                for (var predecessor : block.getPredecessors()) {
+                    if (immediateDominators[predecessor.getIndex()] != null) {
+                        dominator = dominator == null ? predecessor : intersect(predecessor, dominator);
+                    }
+                }
+
+                if (immediateDominators[block.getIndex()] != dominator) {
+                    immediateDominators[block.getIndex()] = dominator;
+                    changed = true;
+                }
+            }
+        }
+
+        for (var block : reversePostorder) {
+            if (block != entry) {
+                children.get(immediateDominators[block.getIndex()].getIndex()).add(block);
+            }
+        }
+    }
+
+    private BasicBlock intersect(BasicBlock first, BasicBlock second) {
+        while (first != second) {
+            while (order[first.getIndex()] > order[second.getIndex()]) {
+                first = immediateDominators[first.getIndex()];
+            }
+            while (order[second.getIndex()] > order[first.getIndex()]) {
+                second = immediateDominators[second.getIndex()];
+            }
+        }
+
+        return first;
+    }
+
+    private void computeFrontiers() {
+        for (var block : reversePostorder) {
+            if (block.getPredecessors().size() < 2) {
+                continue;
+            }
+
+            // The block is in the frontier of each block from a predecessor up to, excluding, its dominator
+            var dominator = immediateDominators[block.getIndex()];
+            for (var predecessor : block.getPredecessors()) {
+                if (order[predecessor.getIndex()] == -1) {
+                    continue;
+                }
+
+                var runner = predecessor;
+                while (runner != dominator) {
+                    frontiers.get(runner.getIndex()).add(block);
+                    runner = immediateDominators[runner.getIndex()];
+                }
+            }
+        }
+    }
+
+    private void number() {
+        var blocks = getPreorder();
+        for (int i = 0; i < blocks.size(); i++) {
+            preorder[blocks.get(i).getIndex()] = i;
+        }
+
+        // The subtree of a block follows it in the preorder
+        var sizes = new int[cfg.getBlocks().size()];
+        for (var block : blocks.reversed()) {
+            sizes[block.getIndex()] += 1;
+            if (block != cfg.getEntry()) {
+                sizes[immediateDominators[block.getIndex()].getIndex()] += sizes[block.getIndex()];
+            }
+        }
+        for (var block : blocks) {
+            subtreeEnds[block.getIndex()] = preorder[block.getIndex()] + sizes[block.getIndex()] - 1;
+        }
+    }
+
+    public ControlFlowGraph getCfg() {
+        return cfg;
+    }
+
+    /**
+     * The immediate dominator of the block, or null for the entry and for unreachable blocks.
+     */
+    public BasicBlock getImmediateDominator(BasicBlock block) {
+        return block == cfg.getEntry() ? null : immediateDominators[block.getIndex()];
+    }
+
+    /**
+     * The blocks the block immediately dominates.
+     */
+    public List<BasicBlock> getChildren(BasicBlock block) {
+        return children.get(block.getIndex());
+    }
+
+    /**
+     * The blocks where the dominance of the block ends: those it does not strictly dominate, but that have a
+     * predecessor it dominates.
+     */
+    public Set<BasicBlock> getDominanceFrontier(BasicBlock block) {
+        return frontiers.get(block.getIndex());
+    }
+
+    public boolean isReachable(BasicBlock block) {
+        return order[block.getIndex()] != -1;
+    }
+
+    /**
+     * True if every path from the entry to the second block goes through the first one. A block dominates itself.
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block) {
+        if (!isReachable(dominator) || !isReachable(block)) {
+            return false;
+        }
+
+        int position = preorder[block.getIndex()];
+        return preorder[dominator.getIndex()] <= position && position <= subtreeEnds[dominator.getIndex()];
+    }
+
+    /**
+     * The reachable blocks, each before the blocks it dominates.
+     */
+    public List<BasicBlock> getPreorder() {
+        var blocks = new ArrayList<BasicBlock>(reversePostorder.size());
+        var stack = new ArrayList<BasicBlock>();
+        stack.add(cfg.getEntry());
+        while (!stack.isEmpty()) {
+            var block = stack.removeLast();
+            blocks.add(block);
+            stack.addAll(getChildren(block).reversed());
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Walks the reachable blocks in preorder. Each block is entered before the blocks it dominates, and left after
+     * them, with what entering it returned: a pass keeps the facts of the dominating blocks in scoped tables, and
+     * undoes the changes of a block when leaving it. The walk uses an explicit stack, so deep trees do not overflow
+     * the call stack.
+     */
+    public <T> void walk(Function<BasicBlock, T> enter, Consumer<T> leave) {
+        // A null entry leaves the block whose state is on top of the states
+        var stack = new ArrayList<BasicBlock>();
+        var states = new ArrayList<T>();
+        stack.add(cfg.getEntry());
+        while (!stack.isEmpty()) {
+            var block = stack.removeLast();
+            if (block == null) {
+                leave.accept(states.removeLast());
+                continue;
+            }
+
+            states.add(enter.apply(block));
+            stack.add(null);
+            stack.addAll(getChildren(block).reversed());
+        }
+    }
+}
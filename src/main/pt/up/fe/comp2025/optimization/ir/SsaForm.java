@@ -0,0 +1,290 @@
+package pt.up.fe.comp2025.optimization.ir;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.VarScope;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Definition;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Entry;
+import pt.up.fe.comp2025.optimization.ir.SsaValue.Phi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SSA form of the parameters and locals of an OLLIR method, over its {@link ControlFlowGraph}.
+ * <p>
+ * Each assignment of a variable is a new {@link Definition}, phis are placed at the iterated dominance frontiers of
+ * the assignments, and each instruction is linked to the values of the variables it reads. The instructions keep
+ * their variable names: the SSA form is a view of the method rather than a copy, so there is nothing to translate
+ * back, and lowering the method is lowering its graph. A pass that uses a value somewhere else must check that the
+ * variable still holds it there, which is the case when no other value of the variable is live at the same time.
+ * <p>
+ * Fields and 'this' are not variables, and instructions in blocks not reachable from the entry read no values.
+ * The users of a value are the instructions and phis that read it.
+ */
+public class SsaForm {
+
+    private final ControlFlowGraph cfg;
+    private final DominatorTree dominators;
+
+    private final Set<String> variables = new HashSet<>();
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private final List<List<Phi>> phis = new ArrayList<>();
+    private final Map<Instruction, Definition> definitions = new IdentityHashMap<>();
+    private final Map<Definition, AssignInstruction> instructions = new IdentityHashMap<>();
+    private final Map<SsaValue, BasicBlock> blocks = new IdentityHashMap<>();
+
+    // The values each instruction reads, by variable
+    private final Map<Instruction, Map<String, SsaValue>> reads = new IdentityHashMap<>();
+
+    private SsaForm(ControlFlowGraph cfg, DominatorTree dominators) {
+        this.cfg = cfg;
+        this.dominators = dominators;
+
+        for (var entry : cfg.getMethod().getVarTable().entrySet()) {
+            var scope = entry.getValue().getScope();
+            if (!entry.getKey().equals("this") && (scope == VarScope.LOCAL || scope == VarScope.PARAMETER)) {
+                variables.add(entry.getKey());
+            }
+        }
+        for (var variable : variables.stream().sorted().toList()) {
+            entries.put(variable, new Entry(variable));
+        }
+        for (int i = 0; i < cfg.getBlocks().size(); i++) {
+            phis.add(new ArrayList<>());
+        }
+    }
+
+    public static SsaForm build(ControlFlowGraph cfg) {
+        return build(cfg, DominatorTree.build(cfg));
+    }
+
+    public static SsaForm build(ControlFlowGraph cfg, DominatorTree dominators) {
+        var ssa = new SsaForm(cfg, dominators);
+        ssa.placePhis();
+        ssa.rename();
+
+        return ssa;
+    }
+
+    private void placePhis() {
+        var assigningBlocks = new HashMap<String, List<BasicBlock>>();
+        for (var block : dominators.getPreorder()) {
+            for (var instruction : block.getInstructions()) {
+                var variable = getDefinedVariable(instruction);
+                if (variable != null) {
+                    var blocks = assigningBlocks.computeIfAbsent(variable, name -> new ArrayList<>());
+                    if (blocks.isEmpty() || blocks.getLast() != block) {
+                        blocks.add(block);
+                    }
+                }
+            }
+        }
+
+        // Each block where a variable gets a phi is also a block that assigns it
+        for (var variable : entries.keySet()) {
+            var worklist = new ArrayDeque<>(assigningBlocks.getOrDefault(variable, List.of()));
+            var placed = new HashSet<BasicBlock>();
+            var queued = new HashSet<>(worklist);
+            while (!worklist.isEmpty()) {
+                for (var frontier : dominators.getDominanceFrontier(worklist.poll())) {
+                    if (placed.add(frontier)) {
+                        // Operands of unreachable predecessors stay null
+                        var phi = new Phi(variable);
+                        frontier.getPredecessors().forEach(predecessor -> phi.getOperands().add(null));
+                        blocks.put(phi, frontier);
+                        phis.get(frontier.getIndex()).add(phi);
+                        if (queued.add(frontier)) {
+                            worklist.add(frontier);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void rename() {
+        var current = new HashMap<String, ArrayDeque<SsaValue>>();
+        for (var entry : entries.values()) {
+            current.computeIfAbsent(entry.getVariable(), variable -> new ArrayDeque<>()).push(entry);
+        }
+
+        // Walks the dominator tree, so that each block sees the values of the blocks that dominate it
+        dominators.walk(block -> enter(block, current),
+                assigned -> assigned.forEach(variable -> current.get(variable).pop()));
+    }
+
+    /**
+     * Links the instructions of the block to the values they read, and returns the variables it assigned.
+     */
+    private List<String> enter(BasicBlock block, Map<String, ArrayDeque<SsaValue>> current) {
+        var assigned = new ArrayList<String>();
+        for (var phi : phis.get(block.getIndex())) {
+            current.get(phi.getVariable()).push(phi);
+            assigned.add(phi.getVariable());
+        }
+
+        for (var instruction : block.getInstructions()) {
+            var values = new LinkedHashMap<String, SsaValue>();
+            for (var variable : getUsedVariables(instruction)) {
+                var value = current.get(variable).peek();
+                values.put(variable, value);
+                value.getUsers().add(instruction);
+            }
+            reads.put(instruction, values);
+
+            // The variable changes after the instruction reads its operands
+            var variable = getDefinedVariable(instruction);
+            if (variable != null) {
+                var definition = new Definition(variable);
+                definitions.put(instruction, definition);
+                instructions.put(definition, (AssignInstruction) instruction);
+                blocks.put(definition, block);
+                current.get(variable).push(definition);
+                assigned.add(variable);
+            }
+        }
+
+        for (var successor : block.getSuccessors()) {
+            var predecessors = successor.getPredecessors();
+            for (var phi : phis.get(successor.getIndex())) {
+                var value = current.get(phi.getVariable()).peek();
+                for (int i = 0; i < predecessors.size(); i++) {
+                    if (predecessors.get(i) == block && phi.getOperands().get(i) == null) {
+                        phi.getOperands().set(i, value);
+                        value.getUsers().add(phi);
+                    }
+                }
+            }
+        }
+
+        return assigned;
+    }
+
+    public ControlFlowGraph getCfg() {
+        return cfg;
+    }
+
+    public DominatorTree getDominators() {
+        return dominators;
+    }
+
+    /**
+     * The parameters and locals of the method.
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    public Entry getEntry(String variable) {
+        return entries.get(variable);
+    }
+
+    public List<Phi> getPhis(BasicBlock block) {
+        return phis.get(block.getIndex());
+    }
+
+    /**
+     * The value the instruction assigns, or null if it does not assign a variable.
+     */
+    public Definition getDefinition(Instruction instruction) {
+        return definitions.get(instruction);
+    }
+
+    public AssignInstruction getInstruction(Definition definition) {
+        return instructions.get(definition);
+    }
+
+    /**
+     * The block of a definition or phi, or null for the value a variable has at the entry.
+     */
+    public BasicBlock getBlock(SsaValue value) {
+        return blocks.get(value);
+    }
+
+    /**
+     * The value of the variable the instruction reads, or null if it does not read it.
+     */
+    public SsaValue getValue(Instruction instruction, String variable) {
+        var values = reads.get(instruction);
+        return values == null ? null : values.get(variable);
+    }
+
+    /**
+     * The variable the instruction assigns, or null if it only changes an array element or a field.
+     */
+    public String getDefinedVariable(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign && !(assign.getDest() instanceof ArrayOperand)
+                && assign.getDest() instanceof Operand dest && variables.contains(dest.getName())) {
+            return dest.getName();
+        }
+
+        return null;
+    }
+
+    /**
+     * The variables the instruction reads, including the array and index of an array element it assigns.
+     */
+    public Set<String> getUsedVariables(Instruction instruction) {
+        var used = new LinkedHashSet<String>();
+        collectUses(instruction, used);
+        return used;
+    }
+
+    private void collectUses(Instruction instruction, Set<String> used) {
+        switch (instruction) {
+            case AssignInstruction assign -> {
+                if (assign.getDest() instanceof ArrayOperand array) {
+                    collectUses(array, used);
+                }
+                collectUses(assign.getRhs(), used);
+            }
+            case SingleOpInstruction single -> collectUses(single.getSingleOperand(), used);
+            case BinaryOpInstruction binary -> {
+                collectUses(binary.getLeftOperand(), used);
+                collectUses(binary.getRightOperand(), used);
+            }
+            case UnaryOpInstruction unary -> collectUses(unary.getOperand(), used);
+            case CallInstruction call -> {
+                if (call.getCaller() != null) {
+                    collectUses(call.getCaller(), used);
+                }
+                for (var argument : call.getArguments()) {
+                    collectUses(argument, used);
+                }
+            }
+            case PutFieldInstruction put -> {
+                collectUses(put.getObject(), used);
+                collectUses(put.getValue(), used);
+            }
+            case GetFieldInstruction get -> collectUses(get.getObject(), used);
+            case CondBranchInstruction branch -> collectUses(branch.getCondition(), used);
+            case ReturnInstruction ret -> ret.getOperand().ifPresent(operand -> collectUses(operand, used));
+            default -> {
+                // Gotos read nothing
+            }
+        }
+    }
+
+    private void collectUses(Element element, Set<String> used) {
+        if (element instanceof ArrayOperand array) {
+            for (var index : array.getIndexOperands()) {
+                collectUses(index, used);
+            }
+        }
+        if (element instanceof Operand operand && variables.contains(operand.getName())) {
+            used.add(operand.getName());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package pt.up.fe.comp2025.optimization.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A value of a variable in an SSA form, either of an OLLIR method ({@link SsaForm}) or of the AST of a method
+ * ({@link pt.up.fe.comp2025.optimization.MethodSsa}). Users are what is computed from the value, which depends on
+ * the form. The block of a value, and the assignment of a definition, are kept by its form.
+ */
+public abstract class SsaValue {
+
+    private final String variable;
+    private final List<Object> users = new ArrayList<>();
+
+    private SsaValue(String variable) {
+        this.variable = variable;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public List<Object> getUsers() {
+        return users;
+    }
+
+    /**
+     * The value of a parameter, or of a local before its first assignment.
+     */
+    public static class Entry extends SsaValue {
+
+        public Entry(String variable) {
+            super(variable);
+        }
+
+        @Override
+        public String toString() {
+            return getVariable();
+        }
+    }
+
+    public static class Definition extends SsaValue {
+
+        public Definition(String variable) {
+            super(variable);
+        }
+
+        @Override
+        public String toString() {
+            return getVariable() + " := ...";
+        }
+    }
+
+    public static class Phi extends SsaValue {
+
+        // One operand for each predecessor of the block, in the same order
+        private final List<SsaValue> operands = new ArrayList<>();
+
+        public Phi(String variable) {
+            super(variable);
+        }
+
+        public List<SsaValue> getOperands() {
+            return operands;
+        }
+
+        @Override
+        public String toString() {
+            return getVariable() + " := phi" + operands;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A character stream for the lexer that reads from a buffer, instead of copying the whole input into an array
+ * like {@link org.antlr.v4.runtime.ANTLRInputStream} does.
+ * <p>
+ * Strings are wrapped as they are. Files are memory-mapped: a file with only ASCII characters is lexed directly
+ * from the mapped bytes, and any other file is decoded once, as UTF-8, into a char buffer. Only the text of each
+ * token is copied out of the buffer.
+ */
+public class BufferCharStream implements CharStream {
+
+    // Exactly one of the buffers is set
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+
+    private final int size;
+    private final String sourceName;
+
+    private int index = 0;
+
+    private BufferCharStream(ByteBuffer bytes, CharBuffer chars, String sourceName) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.size = bytes != null ? bytes.limit() : chars.limit();
+        this.sourceName = sourceName;
+    }
+
+    public static BufferCharStream fromString(String code) {
+        return new BufferCharStream(null, CharBuffer.wrap(code), IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    public static BufferCharStream fromFile(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        var sourceName = file.toString();
+        if (isAscii(mapped)) {
+            return new BufferCharStream(mapped, null, sourceName);
+        }
+
+        return new BufferCharStream(null, StandardCharsets.UTF_8.decode(mapped), sourceName);
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int charAt(int i) {
+        return bytes != null ? bytes.get(i) : chars.get(i);
+    }
+
+    @Override
+    public void consume() {
+        if (index >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+
+        // LA(-1) is the last character consumed
+        int position = i < 0 ? index + i : index + i - 1;
+        if (position < 0 || position >= size) {
+            return IntStream.EOF;
+        }
+
+        return charAt(position);
+    }
+
+    @Override
+    public int mark() {
+        // The whole input is always available, so marks need no bookkeeping
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, size - 1);
+        if (start >= size || stop < start) {
+            return "";
+        }
+
+        if (chars != null) {
+            return chars.subSequence(start, stop + 1).toString();
+        }
+
+        var text = new byte[stop - start + 1];
+        bytes.get(start, text);
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+}
@@ -0,0 +1,156 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+import pt.up.fe.comp2025.JavammParser.*;
+import pt.up.fe.comp2025.ast.CompactAst;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds the AST from the parse tree of {@link pt.up.fe.comp2025.JavammParser}.
+ * <p>
+ * Gives the same nodes as the generic {@link pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter}: one node per
+ * rule context, whose kind hierarchy is the alternative label (if any) followed by the rule, with the labeled
+ * tokens of the context as attributes, plus its position. The converter finds the attributes by reflection on the
+ * public fields of each context, and the kinds by walking their classes, for every node. Here the attributes are
+ * read directly from the fields of each context type, and the hierarchy is computed once per context class.
+ * <p>
+ * The same nodes can be built into a {@link CompactAst} ({@link #buildCompact}), without a node object per context.
+ * <p>
+ * Changing the labels in the grammar requires updating {@link #addAttributes}.
+ */
+public class JmmAstBuilder {
+
+    private static final ClassValue<List<String>> HIERARCHIES = new ClassValue<>() {
+        @Override
+        protected List<String> computeValue(Class<?> contextClass) {
+            var hierarchy = new ArrayList<String>();
+            for (var current = contextClass; !current.equals(ParserRuleContext.class); current = current.getSuperclass()) {
+                var name = current.getSimpleName();
+                hierarchy.add(name.substring(0, name.length() - "Context".length()));
+            }
+            return List.copyOf(hierarchy);
+        }
+    };
+
+    private static final String LINE_START = NodePosition.LINE_START.getKey();
+    private static final String COL_START = NodePosition.COL_START.getKey();
+    private static final String LINE_END = NodePosition.LINE_END.getKey();
+    private static final String COL_END = NodePosition.COL_END.getKey();
+
+    private final TokenStream tokens;
+
+    private JmmAstBuilder(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    public static JmmNode build(ParserRuleContext root, TokenStream tokens) {
+        return new JmmAstBuilder(tokens).buildNode(root);
+    }
+
+    public static CompactAst buildCompact(ParserRuleContext root, TokenStream tokens) {
+        var builder = new CompactAst.Builder();
+        new JmmAstBuilder(tokens).buildCompact(root, builder);
+        return builder.build();
+    }
+
+    private JmmNode buildNode(ParserRuleContext context) {
+        var node = new JmmNodeImpl(HIERARCHIES.get(context.getClass()));
+
+        // Same positions as the converter, which takes them from the tokens at the ends of the source interval
+        var interval = context.getSourceInterval();
+        var start = tokens.get(interval.a);
+        var end = tokens.get(interval.b);
+        node.put(LINE_START, Integer.toString(start.getLine()));
+        node.put(COL_START, Integer.toString(start.getCharPositionInLine()));
+        node.put(LINE_END, Integer.toString(end.getLine()));
+        node.put(COL_END, Integer.toString(end.getCharPositionInLine()));
+
+        addAttributes(node::putObject, context);
+
+        // Tokens are not nodes
+        if (context.children != null) {
+            for (var child : context.children) {
+                if (child instanceof ParserRuleContext childContext) {
+                    node.add(buildNode(childContext));
+                }
+            }
+        }
+
+        return node;
+    }
+
+    private void buildCompact(ParserRuleContext context, CompactAst.Builder builder) {
+        var interval = context.getSourceInterval();
+        var start = tokens.get(interval.a);
+        var end = tokens.get(interval.b);
+        builder.begin(HIERARCHIES.get(context.getClass()), start.getLine(), start.getCharPositionInLine(),
+                end.getLine(), end.getCharPositionInLine());
+
+        addAttributes(builder::attribute, context);
+
+        if (context.children != null) {
+            for (var child : context.children) {
+                if (child instanceof ParserRuleContext childContext) {
+                    buildCompact(childContext, builder);
+                }
+            }
+        }
+
+        builder.end();
+    }
+
+    private static void addAttributes(BiConsumer<String, Object> node, ParserRuleContext context) {
+        switch (context) {
+            case ImportStmtContext importStmt -> {
+                putToken(node, "ID", importStmt.ID);
+                node.accept("value", importStmt.value.stream().map(Token::getText).toList());
+            }
+            case ClassDefContext classDef -> {
+                putToken(node, "name", classDef.name);
+                putToken(node, "superClass", classDef.superClass);
+            }
+            case VarDeclContext varDecl -> putToken(node, "name", varDecl.name);
+            case ParamContext param -> putToken(node, "name", param.name);
+            case MainParamContext mainParam -> putToken(node, "name", mainParam.name);
+            case MethodDeclContext methodDecl -> {
+                node.accept("isPublic", methodDecl.isPublic);
+                putToken(node, "PUBLIC", methodDecl.PUBLIC);
+                putToken(node, "name", methodDecl.name);
+            }
+            case ArrayTypeContext type -> putToken(node, "value", type.value);
+            case StringTypeContext type -> putToken(node, "value", type.value);
+            case VarArgTypeContext type -> putToken(node, "value", type.value);
+            case BooleanTypeContext type -> putToken(node, "value", type.value);
+            case IntTypeContext type -> putToken(node, "value", type.value);
+            case IdTypeContext type -> putToken(node, "value", type.value);
+            case AssignStmtContext assignStmt -> putToken(node, "varName", assignStmt.varName);
+            case ArrayAssignStmtContext arrayAssignStmt -> putToken(node, "varName", arrayAssignStmt.varName);
+            case UnaryOpContext unaryOp -> putToken(node, "op", unaryOp.op);
+            case BinaryExprContext binaryExpr -> putToken(node, "op", binaryExpr.op);
+            case BooleanLiteralContext booleanLiteral -> putToken(node, "value", booleanLiteral.value);
+            case IntegerLiteralContext integerLiteral -> putToken(node, "value", integerLiteral.value);
+            case MethodCallContext methodCall -> putToken(node, "name", methodCall.name);
+            case VarRefExprContext varRef -> putToken(node, "name", varRef.name);
+            case ObjectCreationContext objectCreation -> putToken(node, "name", objectCreation.name);
+            case FieldAccessContext fieldAccess -> putToken(node, "name", fieldAccess.name);
+            default -> {
+                // The other contexts have no labeled tokens
+            }
+        }
+    }
+
+    private static void putToken(BiConsumer<String, Object> node, String attribute, Token token) {
+        // Optional tokens that were not matched are not attributes
+        if (token != null) {
+            node.accept(attribute, token.getText());
+        }
+    }
+}
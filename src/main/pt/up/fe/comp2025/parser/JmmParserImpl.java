@@ -1,18 +1,32 @@
 package pt.up.fe.comp2025.parser;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
-import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
-import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.CompilerConfig;
 import pt.up.fe.comp2025.JavammLexer;
 import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
 
-import java.util.Collections;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 
 /**
  * Copyright 2022 SPeCS.
@@ -29,6 +43,25 @@ import java.util.Map;
 
 public class JmmParserImpl implements JmmParser {
 
+    private final boolean sllFirst;
+
+    private CompilerMetrics metrics = CompilerMetrics.disabled();
+
+    public JmmParserImpl() {
+        this(true);
+    }
+
+    /**
+     * @param sllFirst if false, every parse uses full LL prediction, as a baseline for the two-stage parse
+     */
+    public JmmParserImpl(boolean sllFirst) {
+        this.sllFirst = sllFirst;
+    }
+
+    public void setMetrics(CompilerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public String getDefaultRule() {
         return "program";
@@ -36,26 +69,147 @@ public class JmmParserImpl implements JmmParser {
 
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        // The stream reads the string directly, without copying it
+        return parse(() -> BufferCharStream.fromString(jmmCode), startingRule, config);
+    }
+
+    /**
+     * Parses a file without reading it into a string first, which matters for large sources.
+     */
+    public JmmParserResult parse(Path file, Map<String, String> config) {
+        return parse(() -> BufferCharStream.fromFile(file), getDefaultRule(), config);
+    }
+
+    private JmmParserResult parse(Callable<CharStream> source, String startingRule, Map<String, String> config) {
 
         try {
-            // Convert code string into a character stream
-            var input = new ANTLRInputStream(jmmCode);
-            // Transform characters into tokens using the lexer
-            var lex = new JavammLexer(input);
-            // Wrap lexer around a token stream
-            var tokens = new CommonTokenStream(lex);
-            // Transforms tokens into a parse tree
-            var parser = new JavammParser(tokens);
+            var input = source.call();
 
+            // Most inputs parse with the faster SLL prediction. Only if it fails is the input parsed again
+            // with full LL, which also reports the syntax errors
+            if (sllFirst) {
+                var result = parseSll(input, startingRule, config);
+                if (result.isPresent()) {
+                    metrics.count("parse/sll", 1);
+                    return result.get();
+                }
 
-            // Convert ANTLR CST to JmmNode AST
-            var r = AntlrParser.parse(lex, parser, startingRule, config);
+                metrics.count("parse/ll", 1);
+                CompilerLogger.forConfig(config).debug(Phase.PARSER, () -> "SLL parse failed, parsing again with LL");
+                input.seek(0);
+            }
 
-            return new JmmParserResult(r.getRootNode(), r.getReports(), config);
+            return parseLl(input, startingRule, config);
 
         } catch (Exception e) {
             // There was an uncaught exception during parsing, create an error JmmParserResult without root node
             return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
         }
     }
+
+    /**
+     * Parses with full LL prediction, reporting the lexical and syntax errors as AntlrParser does.
+     */
+    private JmmParserResult parseLl(CharStream input, String startingRule, Map<String, String> config)
+            throws ReflectiveOperationException {
+        // Transform characters into tokens using the lexer
+        var lex = new JavammLexer(input);
+        lex.removeErrorListeners();
+        var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+        lex.addErrorListener(lexerListener);
+
+        // Wrap lexer around a token stream
+        var tokens = new CommonTokenStream(lex);
+
+        // Transforms tokens into a parse tree
+        var parser = new JavammParser(tokens);
+        parser.removeErrorListeners();
+        var parserListener = new JmmErrorListener(Stage.SYNTATIC);
+        parser.addErrorListener(parserListener);
+        var profile = CompilerConfig.getParserProfile(config);
+        parser.setProfile(profile);
+
+        var tree = invokeRule(parser, startingRule);
+        if (profile) {
+            ParserProfile.record(parser, metrics);
+        }
+
+        var reports = new ArrayList<Report>();
+        reports.addAll(lexerListener.getReports());
+        reports.addAll(parserListener.getReports());
+
+        if (ReportUtils.anyError(reports)) {
+            return new JmmParserResult(null, reports, config);
+        }
+
+        // Convert ANTLR CST to JmmNode AST
+        return new JmmParserResult(buildAst(tree, tokens, config), reports, config);
+    }
+
+    /**
+     * Parses with SLL prediction, giving up at the first error. Empty if the input has lexical errors, or if
+     * SLL could not parse it (either the input has syntax errors, or it needs full LL).
+     * <p>
+     * The generated parser keeps its DFA in static fields, so what both stages learn is shared by every parse.
+     */
+    private Optional<JmmParserResult> parseSll(CharStream input, String startingRule, Map<String, String> config)
+            throws ReflectiveOperationException {
+        var lex = new JavammLexer(input);
+        lex.removeErrorListeners();
+        var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+        lex.addErrorListener(lexerListener);
+
+        var tokens = new CommonTokenStream(lex);
+        var parser = new JavammParser(tokens);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        var profile = CompilerConfig.getParserProfile(config);
+        parser.setProfile(profile);
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+        ParserRuleContext tree;
+        try {
+            tree = invokeRule(parser, startingRule);
+        } catch (ParseCancellationException e) {
+            return Optional.empty();
+        } finally {
+            if (profile) {
+                ParserProfile.record(parser, metrics);
+            }
+        }
+
+        if (!lexerListener.getReports().isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new JmmParserResult(buildAst(tree, tokens, config), new ArrayList<>(), config));
+    }
+
+    private static JmmNode buildAst(ParserRuleContext tree, TokenStream tokens, Map<String, String> config) {
+        if (CompilerConfig.getCompactAst(config)) {
+            return JmmAstBuilder.buildCompact(tree, tokens).getRoot();
+        }
+
+        return JmmAstBuilder.build(tree, tokens);
+    }
+
+    /**
+     * Parses the input with the given rule of the grammar, e.g. "program".
+     */
+    private static ParserRuleContext invokeRule(JavammParser parser, String rule)
+            throws ReflectiveOperationException {
+        if (rule.equals("program")) {
+            return parser.program();
+        }
+
+        try {
+            return (ParserRuleContext) parser.getClass().getMethod(rule).invoke(parser);
+        } catch (InvocationTargetException e) {
+            // Errors of the parser itself, e.g. when the SLL parse gives up, are thrown as they are
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.Parser;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+/**
+ * Adds the statistics of the prediction decisions of a profiled parser ({@link Parser#setProfile}) to the
+ * measurements of the compilation ('-g').
+ * <p>
+ * Each decision that ran is a section named after its rule and number, e.g. "parse/decision/stmt#17", with the
+ * invocations as its count and the time spent predicting as its wall time. The lookahead, the fallbacks from SLL
+ * to full LL and the ambiguities of the decision are counters under the same name, when they are not zero. A
+ * decision with a large lookahead or many fallbacks is the one to restructure in the grammar.
+ */
+public class ParserProfile {
+
+    private ParserProfile() {
+    }
+
+    public static void record(Parser parser, CompilerMetrics metrics) {
+        var parseInfo = parser.getParseInfo();
+        if (parseInfo == null || !metrics.isEnabled()) {
+            return;
+        }
+
+        var atn = parser.getATN();
+        var ruleNames = parser.getRuleNames();
+
+        for (var decision : parseInfo.getDecisionInfo()) {
+            if (decision.invocations == 0) {
+                continue;
+            }
+
+            var rule = ruleNames[atn.getDecisionState(decision.decision).ruleIndex];
+            var name = "parse/decision/" + rule + "#" + decision.decision;
+
+            metrics.record(name, decision.invocations, decision.timeInPrediction, 0, 0);
+            count(metrics, name + "/sllLookahead", decision.SLL_TotalLook);
+            count(metrics, name + "/llFallbacks", decision.LL_Fallback);
+            count(metrics, name + "/llLookahead", decision.LL_TotalLook);
+            count(metrics, name + "/ambiguities", decision.ambiguities.size());
+            count(metrics, name + "/contextSensitivities", decision.contextSensitivities.size());
+        }
+    }
+
+    private static void count(CompilerMetrics metrics, String counter, long value) {
+        if (value != 0) {
+            metrics.count(counter, value);
+        }
+    }
+}
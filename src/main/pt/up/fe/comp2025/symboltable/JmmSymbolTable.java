@@ -2,6 +2,10 @@ package pt.up.fe.comp2025.symboltable;
 
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp2025.ast.ExprTypeCache;
+import pt.up.fe.comp2025.ast.TypeUniverse;
+import pt.up.fe.comp2025.classpath.ClassSignature;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
 import java.util.*;
 
 public class JmmSymbolTable extends AJmmSymbolTable {
@@ -14,6 +18,13 @@ public class JmmSymbolTable extends AJmmSymbolTable {
     private final List<String> imports;
     private final String superClassName;
     private final List<Symbol> fields;
+    private final TypeUniverse typeUniverse;
+    private final SignatureIndex signatures;
+    private final ExprTypeCache exprTypes = new ExprTypeCache();
+
+    // Names visible in each method, and in the class alone (for unknown methods)
+    private final Map<String, Map<String, ResolvedSymbol>> scopes;
+    private final Map<String, ResolvedSymbol> classScope;
 
 
     public JmmSymbolTable(List<String> imports,
@@ -23,7 +34,9 @@ public class JmmSymbolTable extends AJmmSymbolTable {
                           List<String> methods,
                           Map<String, Type> returnTypes,
                           Map<String, List<Symbol>> params,
-                          Map<String, List<Symbol>> locals
+                          Map<String, List<Symbol>> locals,
+                          TypeUniverse typeUniverse,
+                          SignatureIndex signatures
                           ) {
 
         this.className = className;
@@ -34,6 +47,33 @@ public class JmmSymbolTable extends AJmmSymbolTable {
         this.imports = imports;
         this.superClassName = superClassName;
         this.fields = fields;
+        this.typeUniverse = typeUniverse;
+        this.signatures = signatures;
+
+        this.classScope = buildScope(List.of(), List.of());
+        this.scopes = new HashMap<>();
+        for (var method : methods) {
+            scopes.put(method, buildScope(params.getOrDefault(method, List.of()), locals.getOrDefault(method, List.of())));
+        }
+    }
+
+    /**
+     * Locals shadow parameters, which shadow fields. Within each list, the last declaration of a name wins.
+     */
+    private Map<String, ResolvedSymbol> buildScope(List<Symbol> methodParams, List<Symbol> methodLocals) {
+        var scope = new HashMap<String, ResolvedSymbol>();
+
+        for (int i = 0; i < fields.size(); i++) {
+            scope.put(fields.get(i).getName(), new ResolvedSymbol(fields.get(i), ResolvedSymbol.Origin.FIELD, i));
+        }
+        for (int i = 0; i < methodParams.size(); i++) {
+            scope.put(methodParams.get(i).getName(), new ResolvedSymbol(methodParams.get(i), ResolvedSymbol.Origin.PARAMETER, i));
+        }
+        for (int i = 0; i < methodLocals.size(); i++) {
+            scope.put(methodLocals.get(i).getName(), new ResolvedSymbol(methodLocals.get(i), ResolvedSymbol.Origin.LOCAL, i));
+        }
+
+        return scope;
     }
 
     @Override
@@ -79,6 +119,50 @@ public class JmmSymbolTable extends AJmmSymbolTable {
         return locals.get(methodSignature);
     }
 
+    /**
+     * Resolves a variable name in the scope of a method, or in the class if the method is null or unknown.
+     *
+     * @return the local, parameter or field with that name, or null if there is none
+     */
+    public ResolvedSymbol resolve(String methodSignature, String name) {
+        var scope = methodSignature == null ? classScope : scopes.getOrDefault(methodSignature, classScope);
+
+        return scope.get(name);
+    }
+
+    /**
+     * Canonical types of this compilation, the types of all symbols come from it.
+     */
+    public TypeUniverse getTypeUniverse() {
+        return typeUniverse;
+    }
+
+    /**
+     * Signature of an imported class, if it is on the classpath.
+     *
+     * @param simpleName the name of the class in the program (e.g. Foo for 'import pt.up.fe.comp.Foo;')
+     */
+    public Optional<ClassSignature> getImportedClass(String simpleName) {
+        for (var imp : imports) {
+            if (imp.equals(simpleName) || imp.endsWith("." + simpleName)) {
+                return signatures.find(imp);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public SignatureIndex getSignatures() {
+        return signatures;
+    }
+
+    /**
+     * Types of the expressions of this class, shared by the analysis passes and the OLLIR generators.
+     */
+    public ExprTypeCache getExprTypes() {
+        return exprTypes;
+    }
+
     @Override
     public String toString() {
         return print();
@@ -6,13 +6,17 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
 import pt.up.fe.specs.util.SpecsCheck;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static pt.up.fe.comp2025.ast.Kind.*;
 
@@ -21,6 +25,22 @@ public class JmmSymbolTableBuilder {
     // In case we want to already check for some semantic errors during symbol table building.
     private List<Report> reports;
 
+    // Canonical types of the class being built
+    private TypeUniverse typeUniverse;
+
+    private final SignatureIndex signatures;
+
+    public JmmSymbolTableBuilder() {
+        this(SignatureIndex.empty());
+    }
+
+    /**
+     * @param signatures the compiled classes the program can import
+     */
+    public JmmSymbolTableBuilder(SignatureIndex signatures) {
+        this.signatures = signatures;
+    }
+
     public List<Report> getReports() {
         return reports;
     }
@@ -37,6 +57,7 @@ public class JmmSymbolTableBuilder {
     public JmmSymbolTable build(JmmNode root) {
 
         reports = new ArrayList<>();
+        typeUniverse = new TypeUniverse();
 
         var imports = buildImports(root);
         var classDeclarations = root.getChildren(CLASS_DECL);
@@ -58,7 +79,7 @@ public class JmmSymbolTableBuilder {
         var params = buildParams(classDecl);
         var locals = buildLocals(classDecl);
 
-        return new JmmSymbolTable(imports, className,superClass,fields, methods, returnTypes, params, locals);
+        return new JmmSymbolTable(imports, className,superClass,fields, methods, returnTypes, params, locals, typeUniverse, signatures);
     }
 
     private List<String> buildImports(JmmNode root) {
@@ -74,16 +95,15 @@ public class JmmSymbolTableBuilder {
 
     private List<Symbol> buildFields(JmmNode classDecl) {
         List <Symbol> fields = new ArrayList<>();
-        List < String> names = new ArrayList<>();
+        Set<String> names = new HashSet<>();
         for(var field : classDecl.getChildren(VAR_DECL)){
             var name = field.get("name");
-            var type = TypeUtils.convertType(field.getChild(0));
+            var type = TypeUtils.convertType(field.getChild(0), typeUniverse);
             var symbol = new Symbol(type,name);
-            if(names.contains(symbol.getName())){
+            if(!names.add(symbol.getName())){
                 var report = newError(field, "Duplicate field " + name);
                 reports.add(report);
             }
-            names.add(symbol.getName());
             fields.add(symbol);
         }
 
@@ -108,7 +128,7 @@ public class JmmSymbolTableBuilder {
                 continue;
             }
 
-            var returnType = TypeUtils.convertType(typeDecl.getFirst().getChild(0));
+            var returnType = TypeUtils.convertType(typeDecl.getFirst().getChild(0), typeUniverse);
             map.put(name, returnType);
         }
 
@@ -128,17 +148,16 @@ public class JmmSymbolTableBuilder {
                         .toList();
             }else {
                 params = method.getChildren(PARAM).stream()
-                        .map(param -> new Symbol(TypeUtils.convertType(param.getChild(0)), param.get("name")))
+                        .map(param -> new Symbol(TypeUtils.convertType(param.getChild(0), typeUniverse), param.get("name")))
                         .toList();
             }
 
-            List<String> auxList = new ArrayList<>();
+            Set<String> auxSet = new HashSet<>();
             for(var param : params){
-                if(auxList.contains(param.getName())){
+                if(!auxSet.add(param.getName())){
                     var report = newError(method, "Repeated Params in " + method.get("name"));
                     reports.add(report);
                 }
-                auxList.add(param.getName());
             }
 
             map.put(name, params);
@@ -154,16 +173,15 @@ public class JmmSymbolTableBuilder {
         for (var method : classDecl.getChildren(METHOD_DECL)) {
             var name = method.get("name");
             var locals = method.getChildren(VAR_DECL).stream()
-                    .map(varDecl -> new Symbol(TypeUtils.convertType(varDecl.getChild(0)), varDecl.get("name")))
+                    .map(varDecl -> new Symbol(TypeUtils.convertType(varDecl.getChild(0), typeUniverse), varDecl.get("name")))
                     .toList();
 
-            List<String> auxList = new ArrayList<>();
+            Set<String> auxSet = new HashSet<>();
             for(var local : locals){
-                if(auxList.contains(local.getName())){
+                if(!auxSet.add(local.getName())){
                     var report = newError(method, "Repeated locals in " + method.get("name"));
                     reports.add(report);
                 }
-                auxList.add(local.getName());
             }
 
             map.put(name, locals);
@@ -175,8 +193,9 @@ public class JmmSymbolTableBuilder {
     private List<String> buildMethods(JmmNode classDecl) {
 
         var methods = new ArrayList<String>();
+        var names = new HashSet<String>();
         for(var method : classDecl.getChildren(METHOD_DECL)){
-            if(methods.contains(method.get("name"))){
+            if(!names.add(method.get("name"))){
                 var report = newError(method, "Repeated method " + method.get("name"));
                 reports.add(report);
             }
@@ -0,0 +1,29 @@
+package pt.up.fe.comp2025.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+/**
+ * A name resolved in the scope of a method: the declared symbol, where it was declared, and its position
+ * in the list of fields, parameters or locals of the class or method.
+ */
+public record ResolvedSymbol(Symbol symbol, Origin origin, int slot) {
+
+    public enum Origin {
+        FIELD,
+        PARAMETER,
+        LOCAL
+    }
+
+    public String getName() {
+        return symbol.getName();
+    }
+
+    public Type getType() {
+        return symbol.getType();
+    }
+
+    public boolean isField() {
+        return origin == Origin.FIELD;
+    }
+}
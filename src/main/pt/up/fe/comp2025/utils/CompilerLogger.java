@@ -0,0 +1,99 @@
+package pt.up.fe.comp2025.utils;
+
+import pt.up.fe.comp2025.CompilerConfig;
+
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Diagnostic logging of the compiler stages.
+ * <p>
+ * Messages have a {@link Level} and belong to a {@link Phase}. A message is written only if its level is
+ * at most the configured verbosity ('-v') and its phase is enabled ('-l', all phases by default).
+ * Messages are given as suppliers, so nothing is built when the message is filtered out.
+ * The default verbosity is {@link Level#WARN}, which keeps the diagnostic dumps (AST, OLLIR, Jasmin,
+ * register assignments) off the console.
+ */
+public class CompilerLogger {
+
+    public enum Level {
+        OFF,
+        ERROR,
+        WARN,
+        INFO,
+        DEBUG,
+        TRACE
+    }
+
+    public enum Phase {
+        CONFIG,
+        PARSER,
+        ANALYSIS,
+        OPTIMIZATION,
+        OLLIR,
+        REGISTERS,
+        JASMIN,
+        CACHE
+    }
+
+    private static final CompilerLogger QUIET = new CompilerLogger(Level.OFF, EnumSet.noneOf(Phase.class), System.out);
+
+    private final Level level;
+    private final Set<Phase> phases;
+    private final PrintStream out;
+
+    public CompilerLogger(Level level, Set<Phase> phases, PrintStream out) {
+        this.level = level;
+        this.phases = phases;
+        this.out = out;
+    }
+
+    /**
+     * A logger that discards every message.
+     */
+    public static CompilerLogger quiet() {
+        return QUIET;
+    }
+
+    public static CompilerLogger forConfig(Map<String, String> config) {
+        var level = CompilerConfig.getVerbosity(config);
+        if (level == Level.OFF) {
+            return QUIET;
+        }
+
+        return new CompilerLogger(level, CompilerConfig.getLogPhases(config), System.out);
+    }
+
+    public boolean isEnabled(Phase phase, Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.compareTo(level) <= 0 && phases.contains(phase);
+    }
+
+    public void log(Phase phase, Level messageLevel, Supplier<String> message) {
+        if (isEnabled(phase, messageLevel)) {
+            out.println(message.get());
+        }
+    }
+
+    public void error(Phase phase, Supplier<String> message) {
+        log(phase, Level.ERROR, message);
+    }
+
+    public void warn(Phase phase, Supplier<String> message) {
+        log(phase, Level.WARN, message);
+    }
+
+    public void info(Phase phase, Supplier<String> message) {
+        log(phase, Level.INFO, message);
+    }
+
+    public void debug(Phase phase, Supplier<String> message) {
+        log(phase, Level.DEBUG, message);
+    }
+
+    public void trace(Phase phase, Supplier<String> message) {
+        log(phase, Level.TRACE, message);
+    }
+}
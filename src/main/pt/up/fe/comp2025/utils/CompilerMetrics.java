@@ -0,0 +1,213 @@
+package pt.up.fe.comp2025.utils;
+
+import com.google.gson.GsonBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each part of a compilation takes.
+ * <p>
+ * A section is measured with {@link #start(String)} in a try-with-resources block, recording the wall time,
+ * the CPU time and the bytes allocated by the current thread. Section names use '/' to show nesting,
+ * e.g. "analysis/UndeclaredVariable" or "jasmin/method:main". Measuring the same section several
+ * times adds up the values. Counters record plain numbers, such as the optimization iterations.
+ * <p>
+ * Stages default to {@link #disabled()}, which measures nothing and allocates nothing.
+ */
+public class CompilerMetrics {
+
+    /**
+     * Accumulated values of a section.
+     */
+    public static class Measurement {
+        private long count;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        private void add(long count, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.count += count;
+            this.wallNanos += wallNanos;
+            this.cpuNanos += cpuNanos;
+            this.allocatedBytes += allocatedBytes;
+        }
+    }
+
+    /**
+     * Measures a section until closed.
+     */
+    public static class Timer implements AutoCloseable {
+        private final CompilerMetrics metrics;
+        private final String section;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocatedStart;
+
+        private Timer(CompilerMetrics metrics, String section) {
+            this.metrics = metrics;
+            this.section = section;
+            this.wallStart = System.nanoTime();
+            this.cpuStart = metrics == null ? 0 : cpuTime();
+            this.allocatedStart = metrics == null ? 0 : allocatedBytes();
+        }
+
+        @Override
+        public void close() {
+            if (metrics == null) {
+                return;
+            }
+
+            metrics.record(section, 1, System.nanoTime() - wallStart, cpuTime() - cpuStart,
+                    allocatedBytes() - allocatedStart);
+        }
+    }
+
+    private static final CompilerMetrics DISABLED = new CompilerMetrics(false);
+    private static final Timer NO_TIMER = new Timer(null, null);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+    private final Map<String, Measurement> measurements;
+    private final Map<String, Long> counters;
+
+    public CompilerMetrics() {
+        this(true);
+    }
+
+    private CompilerMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.measurements = new LinkedHashMap<>();
+        this.counters = new LinkedHashMap<>();
+    }
+
+    /**
+     * Metrics that record nothing.
+     */
+    public static CompilerMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Timer start(String section) {
+        if (!enabled) {
+            return NO_TIMER;
+        }
+
+        // Reserve the entry now, so enclosing sections are listed before their children
+        synchronized (this) {
+            measurements.computeIfAbsent(section, key -> new Measurement());
+        }
+
+        return new Timer(this, section);
+    }
+
+    public void count(String counter, long delta) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            counters.merge(counter, delta, Long::sum);
+        }
+    }
+
+    public synchronized void record(String section, long count, long wallNanos, long cpuNanos, long allocatedBytes) {
+        if (!enabled) {
+            return;
+        }
+
+        measurements.computeIfAbsent(section, key -> new Measurement()).add(count, wallNanos, cpuNanos, allocatedBytes);
+    }
+
+    /**
+     * Adds all the values of the given metrics to these, e.g. to build the totals of a batch.
+     */
+    public synchronized void addAll(CompilerMetrics other) {
+        for (var entry : other.getMeasurements().entrySet()) {
+            var measurement = entry.getValue();
+            record(entry.getKey(), measurement.count, measurement.wallNanos, measurement.cpuNanos,
+                    measurement.allocatedBytes);
+        }
+
+        for (var entry : other.getCounters().entrySet()) {
+            count(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized Map<String, Measurement> getMeasurements() {
+        return new LinkedHashMap<>(measurements);
+    }
+
+    public synchronized Map<String, Long> getCounters() {
+        return new LinkedHashMap<>(counters);
+    }
+
+    /**
+     * Human-readable table with one line per section, in the order they were first measured.
+     */
+    public String toReport() {
+        var report = new StringBuilder();
+        report.append(String.format("%-48s %7s %12s %12s %14s%n", "section", "count", "wall (ms)", "cpu (ms)", "alloc (KB)"));
+
+        for (var entry : getMeasurements().entrySet()) {
+            var measurement = entry.getValue();
+            report.append(String.format("%-48s %7d %12.3f %12.3f %14.1f%n", entry.getKey(), measurement.count,
+                    measurement.wallNanos / 1e6, measurement.cpuNanos / 1e6, measurement.allocatedBytes / 1024.0));
+        }
+
+        for (var entry : getCounters().entrySet()) {
+            report.append(String.format("%-48s %7d%n", entry.getKey(), entry.getValue()));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Values as a JSON-friendly map, with the sections under "sections" and the counters under "counters".
+     */
+    public Map<String, Object> toJsonMap() {
+        var json = new LinkedHashMap<String, Object>();
+        json.put("sections", getMeasurements());
+        json.put("counters", getCounters());
+        return json;
+    }
+
+    public String toJson() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(toJsonMap());
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+
+        return 0;
+    }
+}
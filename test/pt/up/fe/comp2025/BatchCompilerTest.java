@@ -0,0 +1,173 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compilation of several files at once ('-i' with a folder or a list, and '-d').
+ */
+public class BatchCompilerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static File write(File folder, String fileName, String code) throws IOException {
+        var file = new File(folder, fileName);
+        Files.createDirectories(folder.toPath());
+        Files.writeString(file.toPath(), code);
+
+        return file;
+    }
+
+    private static String program(String className) {
+        return "class " + className + " { public static void main(String[] args) { } }";
+    }
+
+    private File sources() throws IOException {
+        var folder = temp.newFolder("src");
+        write(folder, "One.jmm", program("One"));
+        write(new File(folder, "nested/deeper"), "Two.jmm", program("Two"));
+        write(folder, "Bad.jmm", "class Bad { public int foo() { return true; } public static void main(String[] args) { } }");
+        write(folder, "notes.txt", "not a source");
+
+        return folder;
+    }
+
+    @Test
+    public void folderInputIsSearchedRecursively() throws IOException {
+        var folder = sources();
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + folder});
+
+        assertTrue(CompilerConfig.isBatch(config));
+        var names = CompilerConfig.getInputFiles(config).stream().map(File::getName).toList();
+        assertEquals(List.of("Bad.jmm", "One.jmm", "Two.jmm"), names);
+    }
+
+    @Test
+    public void listInputKeepsItsOrder() throws IOException {
+        var folder = sources();
+        var one = new File(folder, "One.jmm");
+        var two = new File(folder, "nested/deeper/Two.jmm");
+
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + two + "," + one});
+        assertTrue(CompilerConfig.isBatch(config));
+        assertEquals(List.of(two.getAbsoluteFile(), one.getAbsoluteFile()), CompilerConfig.getInputFiles(config));
+
+        // A single file is not a batch
+        assertFalse(CompilerConfig.isBatch(CompilerConfig.parseArgs(new String[]{"-i=" + one})));
+    }
+
+    @Test
+    public void writesToOutputDirAndCountsFailures() throws IOException {
+        var folder = sources();
+        var outputDir = new File(temp.getRoot(), "out");
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + folder, "-d=" + outputDir});
+
+        int failed = new BatchCompiler(config).compileAll(CompilerConfig.getInputFiles(config),
+                CompilerConfig.getOutputDir(config).orElseThrow());
+
+        assertEquals(1, failed);
+        assertTrue(new File(outputDir, "One.j").isFile());
+        assertTrue(new File(outputDir, "Two.j").isFile());
+        assertFalse(new File(outputDir, "Bad.j").exists());
+        assertFalse(new File(folder, "One.j").exists());
+    }
+
+    @Test
+    public void writesNextToSourceWithoutOutputDir() throws IOException {
+        var folder = sources();
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + folder});
+
+        int failed = new BatchCompiler(config).compileAll(CompilerConfig.getInputFiles(config), null);
+
+        assertEquals(1, failed);
+        assertTrue(new File(folder, "One.j").isFile());
+        assertTrue(new File(folder, "nested/deeper/Two.j").isFile());
+        assertFalse(new File(folder, "Bad.j").exists());
+    }
+
+    @Test
+    public void stackOverflowFailsOnlyItsFile() throws IOException {
+        var folder = temp.newFolder("deep");
+        var nested = "(".repeat(100_000) + "1" + ")".repeat(100_000);
+        var deep = write(folder, "Deep.jmm",
+                "class Deep { public static void main(String[] args) { int a; a = " + nested + "; } }");
+        var one = write(folder, "One.jmm", program("One"));
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + folder});
+
+        var result = new BatchCompiler(config).compile(deep);
+        assertTrue(result.hasErrors());
+        assertTrue(result.getReports().get(0).getMessage().contains("nested too deeply"));
+
+        var err = compileAll(config, 1, List.of(deep, one), folder, 1);
+        assertTrue(err.contains("Deep.jmm"));
+        assertTrue(new File(folder, "One.j").isFile());
+    }
+
+    /**
+     * Compiles the files with the given number of workers, returning what the batch wrote to stderr.
+     */
+    private static String compileAll(Map<String, String> config, int jobs, List<File> inputFiles, File outputDir,
+                                     int expectedFailures) {
+        var originalErr = System.err;
+        var err = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(err, true));
+        try {
+            assertEquals(expectedFailures, new BatchCompiler(config, jobs).compileAll(inputFiles, outputDir));
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        return err.toString();
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws IOException {
+        var folder = temp.newFolder("generated");
+        var inputFiles = new ArrayList<File>();
+        for (int i = 0; i < 12; i++) {
+            var generator = JmmProgramGenerator.builder().methods(4).statementsPerMethod(30).seed(i).build();
+            inputFiles.add(write(folder, "P" + i + ".jmm", generator.generate("P" + i)));
+
+            // Failures in between, including a file that can not be read
+            if (i % 4 == 1) {
+                inputFiles.add(write(folder, "Bad" + i + ".jmm", "class Bad" + i + " { public int foo() { return true; } }"));
+                inputFiles.add(new File(folder, "Missing" + i + ".jmm"));
+            }
+        }
+
+        // Every worker shares the signature index of the classpath and the built-in types
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + folder, "-o", "-c=" + TestUtils.getLibsClasspath()});
+
+        var sequentialDir = temp.newFolder("sequential");
+        var parallelDir = temp.newFolder("parallel");
+        var sequentialErr = compileAll(config, 1, inputFiles, sequentialDir, 6);
+        var parallelErr = compileAll(config, 4, inputFiles, parallelDir, 6);
+
+        // The same reports, in input order, and the same .j files
+        assertEquals(sequentialErr, parallelErr);
+        assertTrue(sequentialErr.indexOf("Bad1.jmm") < sequentialErr.indexOf("Missing1.jmm"));
+        assertTrue(sequentialErr.indexOf("Missing1.jmm") < sequentialErr.indexOf("Bad5.jmm"));
+
+        var names = sequentialDir.list();
+        assertEquals(12, names.length);
+        for (var name : names) {
+            assertEquals(name, Files.readString(new File(sequentialDir, name).toPath()),
+                    Files.readString(new File(parallelDir, name).toPath()));
+        }
+    }
+}
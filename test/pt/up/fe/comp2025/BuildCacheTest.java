@@ -0,0 +1,121 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compilations with a build cache ('-b').
+ */
+public class BuildCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Map<String, String> config() {
+        var config = new HashMap<String, String>();
+        config.put("buildCache", temp.getRoot().getAbsolutePath());
+
+        return config;
+    }
+
+    @Test
+    public void hitReturnsStoredOutputs() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+        var pipeline = new CompilationPipeline();
+
+        var first = pipeline.compile(code, config());
+        assertFalse(first.isCached());
+        assertFalse(first.hasErrors());
+
+        var second = pipeline.compile(code, config());
+        assertTrue(second.isCached());
+        assertFalse(second.hasErrors());
+        assertEquals(first.getClassName(), second.getClassName());
+        assertEquals(first.getOllirCode(), second.getOllirCode());
+        assertEquals(first.getJasminCode(), second.getJasminCode());
+    }
+
+    @Test
+    public void unwritableCacheIsSkipped() throws Exception {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+        var pipeline = new CompilationPipeline();
+
+        // A file where the cache folder should be, so that no cache file can be created
+        var config = new HashMap<String, String>();
+        config.put("buildCache", temp.newFile("notAFolder").getAbsolutePath());
+        config.put("verbosity", "off");
+
+        for (int i = 0; i < 2; i++) {
+            var result = pipeline.compile(code, config);
+            assertFalse(result.isCached());
+            assertFalse(result.hasErrors());
+            assertNotNull(result.getJasminCode());
+        }
+    }
+
+    @Test
+    public void keyDependsOnSourceAndOptions() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+        var key = BuildCache.key(code, config());
+
+        assertEquals(key, BuildCache.key(code, config()));
+        assertNotEquals(key, BuildCache.key(code + "\n", config()));
+
+        var optimized = config();
+        optimized.put("optimize", "true");
+        assertNotEquals(key, BuildCache.key(code, optimized));
+
+        var registers = config();
+        registers.put("registerAllocation", "0");
+        assertNotEquals(key, BuildCache.key(code, registers));
+
+        // Options that do not change the output share the entry
+        var parallel = config();
+        parallel.put("parallelAnalysis", "4");
+        assertEquals(key, BuildCache.key(code, parallel));
+    }
+
+    @Test
+    public void classpathChangeIsAMiss() throws Exception {
+        var lib = temp.newFolder("lib");
+        var config = config();
+        config.put("classpath", lib.getAbsolutePath());
+        var code = "import Lib; class Calls { public static void main(String[] args) { Lib.f(1); } }";
+        var pipeline = new CompilationPipeline();
+
+        ImportedSignaturesTest.compileClass(lib, "Lib", "public class Lib { public static int f(int a) { return a; } }");
+        assertFalse(pipeline.compile(code, config).hasErrors());
+        assertTrue(pipeline.compile(code, config).isCached());
+
+        // The library is rebuilt in the same JVM, and the call is now invalid
+        ImportedSignaturesTest.compileClass(lib, "Lib", "public class Lib { public static int g(int a) { return a; } }");
+        var rebuilt = pipeline.compile(code, config);
+        assertFalse(rebuilt.isCached());
+        TestUtils.mustFail(rebuilt.getReports());
+    }
+
+    @Test
+    public void failuresKeepTheirReports() {
+        var code = "class A { public int foo() { return true; } public static void main(String[] args) { } }";
+        var pipeline = new CompilationPipeline();
+
+        var first = pipeline.compile(code, config());
+        TestUtils.mustFail(first.getReports());
+
+        var second = pipeline.compile(code, config());
+        assertTrue(second.isCached());
+        assertTrue(second.hasErrors());
+        assertEquals(ReportUtils.anyError(first.getReports()), ReportUtils.anyError(second.getReports()));
+        assertEquals(first.getReports().size(), second.getReports().size());
+        assertEquals(first.getReports().getFirst().getMessage(), second.getReports().getFirst().getMessage());
+    }
+}
@@ -0,0 +1,159 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp.TestUtils;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Common subexpression elimination with global value numbering on the OLLIR of each method ('-o').
+ */
+public class CommonSubexpressionEliminatorTest {
+
+    private static final Map<String, String> OPTIMIZE = Map.of("optimize", "true");
+
+    private static final String CODE = """
+            import io;
+            class Cse {
+                int f;
+                public int products(int x, int y) {
+                    int a;
+                    a = x * y + y * x;
+                    return a;
+                }
+                public int arrays(int[] a, int i) {
+                    int s;
+                    s = a[i] + a[i];
+                    a[i] = 1;
+                    s = s + a[i];
+                    return s;
+                }
+                public int fields(int x) {
+                    int s;
+                    s = f + f;
+                    s = s + this.set(x) + f;
+                    return s;
+                }
+                public int set(int x) {
+                    f = x;
+                    return x;
+                }
+                public int loop(int[] a, int n, int x) {
+                    int i;
+                    int s;
+                    i = 0;
+                    s = x * n + 1;
+                    while (i < n) {
+                        s = s + a[i] * a[i] + x * n;
+                        a[i] = s;
+                        i = i + 1;
+                    }
+                    return s;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static Method method(String name) {
+        return TestUtils.optimize(CODE, OPTIMIZE).getOllirClass().getMethods().stream()
+                .filter(method -> method.getMethodName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static long count(Method method, Class<? extends Instruction> type) {
+        return method.getInstructions().stream()
+                .filter(instruction -> instruction instanceof AssignInstruction assign
+                        && type.isInstance(assign.getRhs()))
+                .count();
+    }
+
+    private static long operations(Method method, OperationType operation) {
+        return method.getInstructions().stream()
+                .filter(instruction -> instruction instanceof AssignInstruction assign
+                        && assign.getRhs() instanceof BinaryOpInstruction binary
+                        && binary.getOperation().getOpType() == operation)
+                .count();
+    }
+
+    private static long arrayLoads(Method method) {
+        return method.getInstructions().stream()
+                .filter(instruction -> instruction instanceof AssignInstruction assign
+                        && !(assign.getDest() instanceof ArrayOperand)
+                        && assign.getRhs() instanceof SingleOpInstruction single
+                        && single.getSingleOperand() instanceof ArrayOperand)
+                .count();
+    }
+
+    @Test
+    public void reusesCommutedProduct() {
+        var method = method("products");
+
+        // y * x is x * y, so one product remains
+        assertEquals(1, operations(method, OperationType.MUL));
+    }
+
+    @Test
+    public void arrayStoreInvalidatesLoads() {
+        var method = method("arrays");
+
+        // The second load reuses the first one, and the one after the store stays
+        assertEquals(2, arrayLoads(method));
+    }
+
+    @Test
+    public void callInvalidatesFieldLoads() {
+        var method = method("fields");
+
+        assertEquals(2, count(method, GetFieldInstruction.class));
+    }
+
+    @Test
+    public void reusesAcrossBlocks() {
+        var method = method("loop");
+
+        // The product before the loop is reused in its body, and so is the first load of each iteration
+        assertEquals(2, operations(method, OperationType.MUL));
+        assertEquals(1, arrayLoads(method));
+    }
+
+    @Test
+    public void runsAfterElimination() {
+        var code = """
+                import io;
+                class Run {
+                    public int sum(int[] a, int n) {
+                        int s;
+                        int i;
+                        i = 0;
+                        s = 0;
+                        while (i < n) {
+                            s = s + a[i] * a[i];
+                            a[i] = s;
+                            s = s + a[i];
+                            i = i + 1;
+                        }
+                        return s;
+                    }
+                    public static void main(String[] args) {
+                        Run r;
+                        int[] a;
+                        r = new Run();
+                        a = [1, 2, 3];
+                        io.println(r.sum(a, 3));
+                    }
+                }
+                """;
+
+        var jasminResult = TestUtils.backend(code, OPTIMIZE);
+        TestUtils.noErrors(jasminResult);
+        assertEquals("42", jasminResult.run().strip());
+    }
+}
@@ -0,0 +1,132 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.ast.CompactAst;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * The compact AST ('-a') has the same nodes as the regular one, and compiling over it gives the same results.
+ */
+public class CompactAstTest {
+
+    private static final Map<String, String> COMPACT = Map.of("compactAst", "true");
+
+    private static Map<String, Object> attributes(JmmNode node) {
+        return new HashMap<>(node.getAttributes().stream()
+                .collect(Collectors.toMap(attr -> attr, node::getObject)));
+    }
+
+    private static void assertSameTree(JmmNode expected, JmmNode actual) {
+        assertEquals(expected.getHierarchy(), actual.getHierarchy());
+        assertEquals(attributes(expected), attributes(actual));
+        assertEquals(expected.getLine(), actual.getLine());
+        assertEquals(expected.getColumn(), actual.getColumn());
+        assertEquals(expected.getNumChildren(), actual.getNumChildren());
+
+        for (var kind : Kind.values()) {
+            assertEquals(kind.check(expected), kind.check(actual));
+            assertEquals(expected.getDescendants(kind).size(), actual.getDescendants(kind).size());
+        }
+
+        for (int i = 0; i < expected.getNumChildren(); i++) {
+            var child = actual.getChild(i);
+            assertSame(actual, child.getParent());
+            assertEquals(i, child.getIndexOfSelf());
+            assertSameTree(expected.getChild(i), child);
+        }
+    }
+
+    private static List<String> describe(List<Report> reports) {
+        return reports.stream()
+                .map(report -> report.getType() + "@" + report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .toList();
+    }
+
+    private static void sameCompilation(String code, Map<String, String> options) {
+        var config = new HashMap<>(options);
+        var regular = new CompilationPipeline().compile(code, config);
+        config.putAll(COMPACT);
+        var compact = new CompilationPipeline().compile(code, config);
+
+        assertEquals(describe(regular.getReports()), describe(compact.getReports()));
+        assertEquals(regular.getOllirCode(), compact.getOllirCode());
+        assertEquals(regular.getJasminCode(), compact.getJasminCode());
+    }
+
+    @Test
+    public void sameTreesForTestSources() {
+        var sources = SpecsIo.getFilesRecursive(new File("test"), List.of("jmm"));
+        assertFalse(sources.isEmpty());
+
+        for (var source : sources) {
+            var code = SpecsIo.read(source);
+            var regular = TestUtils.parse(code).getRootNode();
+            if (regular == null) {
+                continue;
+            }
+
+            var compact = TestUtils.parse(code, COMPACT).getRootNode();
+            assertTrue(compact instanceof CompactNode);
+            assertNull(compact.getParent());
+            assertSameTree(regular, compact);
+
+            // Copying the regular tree, or the compact one back into regular nodes, keeps the same nodes
+            assertSameTree(regular, CompactAst.of(regular).getRoot());
+            assertSameTree(regular, ((CompactNode) compact).getAst().toJmmNode());
+        }
+    }
+
+    @Test
+    public void viewsAreCanonical() {
+        var code = SpecsIo.read("test/pt/up/fe/comp/cp2/ollir/basic/BasicClass.jmm");
+        var root = (CompactNode) TestUtils.parse(code, COMPACT).getRootNode();
+
+        for (var node : root.getDescendants()) {
+            assertSame(node, root.getAst().getNode(((CompactNode) node).getIndex()));
+            assertTrue(node.getParent().getChildren().contains(node));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly() {
+        var root = TestUtils.parse("class A {}", COMPACT).getRootNode();
+
+        root.getChild(0).put("name", "B");
+    }
+
+    @Test
+    public void sameCompilationForTestSources() {
+        var sources = SpecsIo.getFilesRecursive(new File("test/pt/up/fe/comp/cp2"), List.of("jmm"));
+        assertFalse(sources.isEmpty());
+
+        for (var source : sources) {
+            var code = SpecsIo.read(source);
+            sameCompilation(code, Map.of());
+            sameCompilation(code, Map.of("optimize", "true", "registerAllocation", "0"));
+        }
+    }
+
+    @Test
+    public void sameCompilationForGeneratedProgram() {
+        var code = JmmProgramGenerator.builder().methods(50).statementsPerMethod(20).seed(20).build()
+                .generate("Generated");
+
+        sameCompilation(code, Map.of());
+        sameCompilation(code, Map.of("parallelAnalysis", "4"));
+        sameCompilation(code, Map.of("optimize", "true"));
+    }
+}
@@ -0,0 +1,154 @@
+package pt.up.fe.comp2025;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class CompileServerTest {
+
+    private static JsonObject send(int port, String request) throws Exception {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+
+            writer.println(request);
+            return JsonParser.parseString(reader.readLine()).getAsJsonObject();
+        }
+    }
+
+    private static String compileRequest(String source) {
+        var request = new JsonObject();
+        request.addProperty("source", source);
+        request.add("config", new JsonObject());
+        return request.toString();
+    }
+
+    @Test
+    public void compilesConcurrentRequests() throws Exception {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+
+        try (var server = new CompileServer(0, 4)) {
+            var serverThread = new Thread(server::serve);
+            serverThread.start();
+
+            var clients = Executors.newFixedThreadPool(4);
+            var responses = new ArrayList<Future<JsonObject>>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(clients.submit(() -> send(server.getPort(), compileRequest(code))));
+            }
+
+            String firstJasmin = null;
+            for (var response : responses) {
+                var json = response.get();
+                assertTrue(json.get("success").getAsBoolean());
+                assertEquals("BasicMethods", json.get("className").getAsString());
+                assertTrue(json.get("ollir").getAsString().contains("BasicMethods"));
+
+                // every request is compiled from scratch, so all outputs are the same
+                var jasmin = json.get("jasmin").getAsString();
+                if (firstJasmin == null) {
+                    firstJasmin = jasmin;
+                }
+                assertEquals(firstJasmin, jasmin);
+            }
+            clients.shutdown();
+
+            send(server.getPort(), "{\"command\": \"shutdown\"}");
+            serverThread.join(5000);
+            assertFalse(serverThread.isAlive());
+        }
+    }
+
+    @Test
+    public void reportsErrors() throws Exception {
+        try (var server = new CompileServer(0, 1)) {
+            var serverThread = new Thread(server::serve);
+            serverThread.start();
+
+            var json = send(server.getPort(), compileRequest("class A { int foo() { return b; } }"));
+            assertFalse(json.get("success").getAsBoolean());
+            assertFalse(json.getAsJsonArray("reports").isEmpty());
+            assertFalse(json.has("jasmin"));
+
+            server.close();
+            serverThread.join(5000);
+        }
+    }
+
+    @Test
+    public void requestsOnlySetCompilationOptions() throws Exception {
+        var cacheDir = Files.createTempDirectory("jmm-server-cache").toFile();
+        var serverConfig = Map.of("classpath", TestUtils.getLibsClasspath(), "server", "0");
+        var call = "import io; class A { public static void main(String[] args) { io.printline(1); } }";
+
+        try (var server = new CompileServer(0, 1, serverConfig)) {
+            var request = new JsonObject();
+            request.addProperty("source", "class A { public static void main(String[] args) { } }");
+            var config = new JsonObject();
+            config.addProperty("buildCache", cacheDir.getAbsolutePath());
+            request.add("config", config);
+
+            var rejected = server.handleRequest(request.toString());
+            assertEquals(false, rejected.get("success"));
+            assertTrue(rejected.get("reports").toString().contains("buildCache"));
+            assertArrayEquals(new String[0], cacheDir.list());
+
+            config.remove("buildCache");
+            config.addProperty("optimize", "true");
+            config.addProperty("registerAllocation", "0");
+            assertEquals(true, server.handleRequest(request.toString()).get("success"));
+
+            // The classpath of the server applies to every request
+            var unknownMethod = server.handleRequest(compileRequest(call));
+            assertEquals(false, unknownMethod.get("success"));
+            assertTrue(unknownMethod.get("reports").toString().contains("printline"));
+        } finally {
+            Files.delete(cacheDir.toPath());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void idleConnectionsDoNotBlockOthers() throws Exception {
+        try (var server = new CompileServer(0, 1)) {
+            var serverThread = new Thread(server::serve);
+            serverThread.start();
+
+            // More idle clients than workers, connected but sending nothing
+            var idle = new ArrayList<Socket>();
+            for (int i = 0; i < 3; i++) {
+                idle.add(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+            }
+
+            var json = send(server.getPort(), compileRequest("class A { public static void main(String[] args) { } }"));
+            assertTrue(json.get("success").getAsBoolean());
+
+            assertTrue(send(server.getPort(), "{\"command\": \"shutdown\"}").get("success").getAsBoolean());
+            serverThread.join(5000);
+            assertFalse(serverThread.isAlive());
+
+            // The server closed the idle connections
+            for (var socket : idle) {
+                socket.setSoTimeout(5000);
+                assertEquals(-1, socket.getInputStream().read());
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.utils.CompilerLogger;
+import pt.up.fe.comp2025.utils.CompilerLogger.Level;
+import pt.up.fe.comp2025.utils.CompilerLogger.Phase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Messages of the {@link CompilerLogger} filtered by level and phase.
+ */
+public class CompilerLoggerTest {
+
+    private static Supplier<String> counting(AtomicInteger calls, String message) {
+        return () -> {
+            calls.incrementAndGet();
+            return message;
+        };
+    }
+
+    @Test
+    public void filtersByLevelAndPhase() {
+        var out = new ByteArrayOutputStream();
+        var logger = new CompilerLogger(Level.INFO, EnumSet.of(Phase.PARSER, Phase.JASMIN), new PrintStream(out, true));
+        var calls = new AtomicInteger();
+
+        logger.error(Phase.PARSER, counting(calls, "error"));
+        logger.warn(Phase.JASMIN, counting(calls, "warn"));
+        logger.info(Phase.PARSER, counting(calls, "info"));
+
+        // Above the verbosity, or of a disabled phase: the message is not even built
+        logger.debug(Phase.PARSER, counting(calls, "debug"));
+        logger.trace(Phase.JASMIN, counting(calls, "trace"));
+        logger.error(Phase.OLLIR, counting(calls, "ollir"));
+        logger.log(Phase.PARSER, Level.OFF, counting(calls, "off"));
+
+        assertEquals(3, calls.get());
+        assertEquals(String.join(System.lineSeparator(), "error", "warn", "info", ""), out.toString());
+
+        assertTrue(logger.isEnabled(Phase.JASMIN, Level.INFO));
+        assertFalse(logger.isEnabled(Phase.JASMIN, Level.DEBUG));
+        assertFalse(logger.isEnabled(Phase.CACHE, Level.ERROR));
+    }
+
+    @Test
+    public void quietLoggerDiscardsEverything() {
+        var calls = new AtomicInteger();
+        var logger = CompilerLogger.forConfig(Map.of("verbosity", "off"));
+
+        assertSame(CompilerLogger.quiet(), logger);
+        for (var phase : Phase.values()) {
+            logger.error(phase, counting(calls, "error"));
+            assertFalse(logger.isEnabled(phase, Level.ERROR));
+        }
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void configSetsLevelAndPhases() {
+        // Warnings of every phase by default
+        var logger = CompilerLogger.forConfig(Map.of());
+        for (var phase : Phase.values()) {
+            assertTrue(logger.isEnabled(phase, Level.WARN));
+            assertFalse(logger.isEnabled(phase, Level.INFO));
+        }
+
+        // '-v' alone is debug, '-l' takes a list of phases in any case
+        logger = CompilerLogger.forConfig(Map.of("verbosity", "true", "logPhases", "ollir, Cache"));
+        assertTrue(logger.isEnabled(Phase.OLLIR, Level.DEBUG));
+        assertTrue(logger.isEnabled(Phase.CACHE, Level.DEBUG));
+        assertFalse(logger.isEnabled(Phase.OLLIR, Level.TRACE));
+        assertFalse(logger.isEnabled(Phase.PARSER, Level.ERROR));
+
+        logger = CompilerLogger.forConfig(Map.of("verbosity", "trace"));
+        assertTrue(logger.isEnabled(Phase.REGISTERS, Level.TRACE));
+    }
+}
@@ -0,0 +1,100 @@
+package pt.up.fe.comp2025;
+
+import com.google.gson.JsonParser;
+import org.junit.Test;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sections and counters recorded by {@link CompilerMetrics}.
+ */
+public class CompilerMetricsTest {
+
+    @Test
+    public void timersAddUpPerSection() {
+        var metrics = new CompilerMetrics();
+
+        try (var outer = metrics.start("analysis")) {
+            for (int i = 0; i < 3; i++) {
+                try (var inner = metrics.start("analysis/pass")) {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        // Enclosing sections are listed first, even though they are closed last
+        var measurements = metrics.getMeasurements();
+        assertEquals(List.of("analysis", "analysis/pass"), List.copyOf(measurements.keySet()));
+
+        var outer = measurements.get("analysis");
+        var inner = measurements.get("analysis/pass");
+        assertEquals(1, outer.getCount());
+        assertEquals(3, inner.getCount());
+        assertTrue(inner.getWallNanos() >= 3_000_000);
+        assertTrue(outer.getWallNanos() >= inner.getWallNanos());
+    }
+
+    @Test
+    public void countersAndTotals() {
+        var metrics = new CompilerMetrics();
+        metrics.count("optimization/iterations", 2);
+        metrics.count("optimization/iterations", 3);
+        metrics.record("jasmin", 1, 10, 5, 100);
+
+        var total = new CompilerMetrics();
+        total.addAll(metrics);
+        total.addAll(metrics);
+
+        assertEquals(Map.of("optimization/iterations", 5L), metrics.getCounters());
+        assertEquals(Map.of("optimization/iterations", 10L), total.getCounters());
+
+        var jasmin = total.getMeasurements().get("jasmin");
+        assertEquals(2, jasmin.getCount());
+        assertEquals(20, jasmin.getWallNanos());
+        assertEquals(10, jasmin.getCpuNanos());
+        assertEquals(200, jasmin.getAllocatedBytes());
+
+        var report = total.toReport();
+        assertTrue(report.contains("jasmin"));
+        assertTrue(report.contains("optimization/iterations"));
+    }
+
+    @Test
+    public void jsonHasSectionsAndCounters() {
+        var metrics = new CompilerMetrics();
+        metrics.record("parser", 1, 1000, 500, 64);
+        metrics.count("cache/hits", 1);
+
+        var json = metrics.toJsonMap();
+        assertEquals(List.of("sections", "counters"), List.copyOf(json.keySet()));
+        assertEquals(metrics.getCounters(), json.get("counters"));
+
+        var parsed = JsonParser.parseString(metrics.toJson()).getAsJsonObject();
+        var parser = parsed.getAsJsonObject("sections").getAsJsonObject("parser");
+        assertEquals(1, parser.get("count").getAsLong());
+        assertEquals(1000, parser.get("wallNanos").getAsLong());
+        assertEquals(500, parser.get("cpuNanos").getAsLong());
+        assertEquals(64, parser.get("allocatedBytes").getAsLong());
+        assertEquals(1, parsed.getAsJsonObject("counters").get("cache/hits").getAsLong());
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        var metrics = CompilerMetrics.disabled();
+        assertFalse(metrics.isEnabled());
+
+        try (var timer = metrics.start("analysis")) {
+            metrics.count("optimization/iterations", 1);
+            metrics.record("jasmin", 1, 10, 5, 100);
+        }
+
+        assertTrue(metrics.getMeasurements().isEmpty());
+        assertTrue(metrics.getCounters().isEmpty());
+    }
+}
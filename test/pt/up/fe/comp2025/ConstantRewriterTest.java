@@ -0,0 +1,229 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+import pt.up.fe.comp2025.optimization.ConstantRewriter;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sparse conditional constant propagation and folding ('-o').
+ */
+public class ConstantRewriterTest {
+
+    private static JmmNode method(JmmNode root, String name) {
+        return root.getDescendants(Kind.METHOD_DECL).stream()
+                .filter(method -> method.get("name").equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static JmmNode returnValue(JmmNode method) {
+        return method.getChildren(Kind.RETURN_STMT).get(0).getChild(0);
+    }
+
+    private static long count(CompilerMetrics metrics, String counter) {
+        return metrics.getCounters().getOrDefault(counter, 0L);
+    }
+
+    @Test
+    public void propagatesThroughFoldedValues() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo() {
+                        int a;
+                        int b;
+                        int c;
+                        a = 1;
+                        b = a + 2;
+                        c = b * 3 - a;
+                        return c;
+                    }
+                }
+                """).getRootNode();
+
+        assertTrue(ConstantRewriter.rewrite(root, CompilerMetrics.disabled()));
+
+        var value = returnValue(method(root, "foo"));
+        assertTrue(Kind.INTEGER_LITERAL.check(value));
+        assertEquals("8", value.get("value"));
+    }
+
+    @Test
+    public void usesReachedOnlyUntilNextAssignment() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo(int x) {
+                        int a;
+                        int b;
+                        a = 1;
+                        b = a;
+                        a = x;
+                        return a + b;
+                    }
+                }
+                """).getRootNode();
+
+        ConstantRewriter.rewrite(root, CompilerMetrics.disabled());
+
+        var sum = returnValue(method(root, "foo"));
+        assertTrue(Kind.VAR_REF_EXPR.check(sum.getChild(0)));
+        assertEquals("1", sum.getChild(1).get("value"));
+    }
+
+    @Test
+    public void loopVariablesAreKept() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo() {
+                        int a;
+                        int i;
+                        a = 3;
+                        i = 0;
+                        while (i < a) {
+                            i = i + 1;
+                        }
+                        return i;
+                    }
+                }
+                """).getRootNode();
+
+        ConstantRewriter.rewrite(root, CompilerMetrics.disabled());
+
+        // The loop assigns 'i', so only 'a' is propagated into the condition
+        var condition = method(root, "foo").getChildren(Kind.WHILE_STMT).get(0).getChild(0);
+        assertTrue(Kind.BINARY_EXPR.check(condition));
+        assertTrue(Kind.VAR_REF_EXPR.check(condition.getChild(0)));
+        assertEquals("3", condition.getChild(1).get("value"));
+        assertTrue(Kind.VAR_REF_EXPR.check(returnValue(method(root, "foo"))));
+    }
+
+    @Test
+    public void propagatesThroughBranchesWithSameValue() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo(boolean b) {
+                        int a;
+                        if (b) {
+                            a = 2;
+                        } else {
+                            a = 1 + 1;
+                        }
+                        return a * 2;
+                    }
+                }
+                """).getRootNode();
+
+        ConstantRewriter.rewrite(root, CompilerMetrics.disabled());
+
+        assertEquals("4", returnValue(method(root, "foo")).get("value"));
+    }
+
+    @Test
+    public void propagatesValuesKeptByLoops() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo(int n) {
+                        int a;
+                        int i;
+                        a = 5;
+                        i = 0;
+                        while (i < n) {
+                            a = 5;
+                            i = i + 1;
+                        }
+                        return a;
+                    }
+                }
+                """).getRootNode();
+
+        ConstantRewriter.rewrite(root, CompilerMetrics.disabled());
+
+        assertEquals("5", returnValue(method(root, "foo")).get("value"));
+    }
+
+    @Test
+    public void prunesBranchesNotTaken() {
+        var root = TestUtils.parse("""
+                class A {
+                    public int foo() {
+                        int a;
+                        boolean debug;
+                        debug = false;
+                        a = 1;
+                        if (debug) {
+                            a = 2;
+                        } else {
+                        }
+                        while (debug && a < 10) {
+                            a = a + 1;
+                        }
+                        return a;
+                    }
+                }
+                """).getRootNode();
+
+        assertTrue(ConstantRewriter.rewrite(root, CompilerMetrics.disabled()));
+
+        var foo = method(root, "foo");
+        assertTrue(foo.getDescendants(Kind.IF_STMT).isEmpty());
+        assertTrue(foo.getDescendants(Kind.WHILE_STMT).isEmpty());
+        assertEquals("1", returnValue(foo).get("value"));
+    }
+
+    @Test
+    public void methodsAreAnalyzedSeparately() {
+        var root = TestUtils.parse("""
+                class A {
+                    int f;
+                    public int foo(boolean b) {
+                        int a;
+                        if (b) {
+                            a = 1;
+                        } else {
+                            a = 2;
+                        }
+                        return a;
+                    }
+                    public int bar() {
+                        int a;
+                        a = 3;
+                        f = 4;
+                        return a + f;
+                    }
+                }
+                """).getRootNode();
+
+        ConstantRewriter.rewrite(root, CompilerMetrics.disabled());
+
+        // 'a' is assigned in the branches of foo, but is a constant in bar, and fields are never propagated
+        assertTrue(Kind.VAR_REF_EXPR.check(returnValue(method(root, "foo"))));
+        var sum = returnValue(method(root, "bar"));
+        assertEquals("3", sum.getChild(0).get("value"));
+        assertTrue(Kind.VAR_REF_EXPR.check(sum.getChild(1)));
+    }
+
+    @Test
+    public void workIsProportionalToRewrites() {
+        var code = JmmProgramGenerator.builder().methods(20).statementsPerMethod(20).seed(21).build()
+                .generate("Generated");
+        var root = TestUtils.parse(code).getRootNode();
+
+        var metrics = new CompilerMetrics();
+        ConstantRewriter.rewrite(root, metrics);
+        var rewrites = count(metrics, "optimization/rewrites");
+        assertTrue(rewrites > 0);
+
+        // Each edge makes its block reached once, and each value goes down at most twice, queueing its users
+        assertTrue(count(metrics, "optimization/worklist") <= 4L * root.getDescendants().size());
+
+        // The rewritten AST is already at the fixed point
+        var again = new CompilerMetrics();
+        assertFalse(ConstantRewriter.rewrite(root, again));
+        assertEquals(0, count(again, "optimization/rewrites"));
+    }
+}
@@ -0,0 +1,166 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.inst.CondBranchInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.ReturnInstruction;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.optimization.ir.BasicBlock;
+import pt.up.fe.comp2025.optimization.ir.ControlFlowGraph;
+import pt.up.fe.comp2025.optimization.ir.DominatorTree;
+import pt.up.fe.comp2025.optimization.ir.SsaForm;
+import pt.up.fe.comp2025.optimization.ir.SsaValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The control-flow graph, dominator tree and SSA form built from the OLLIR of a method, and lowering it back.
+ */
+public class ControlFlowGraphTest {
+
+    private static final String CODE = """
+            class Loop {
+                public int sum(int n) {
+                    int s;
+                    int i;
+                    s = 0;
+                    i = 0;
+                    while (i < n) {
+                        s = s + i;
+                        i = i + 1;
+                    }
+                    return s;
+                }
+                public int count(int n) {
+                    while (0 < n) {
+                        n = n - 1;
+                    }
+                    return n;
+                }
+            }
+            """;
+
+    private static Method method(String name) {
+        return TestUtils.optimize(CODE).getOllirClass().getMethods().stream()
+                .filter(method -> method.getMethodName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Instruction last(Method method, Class<? extends Instruction> type) {
+        return method.getInstructions().stream().filter(type::isInstance).reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    @Test
+    public void blocksOfLoop() {
+        var method = method("sum");
+        var cfg = ControlFlowGraph.build(method);
+
+        // Initializations, condition, exit jump, body and return
+        var blocks = cfg.getBlocks();
+        assertEquals(5, blocks.size());
+        var header = cfg.getBlock(last(method, CondBranchInstruction.class));
+        var body = header.getSuccessors().get(0);
+        assertEquals(List.of(cfg.getEntry(), body), header.getPredecessors());
+        assertEquals(List.of(header), body.getSuccessors());
+        assertTrue(cfg.getBlock(last(method, ReturnInstruction.class)).getSuccessors().isEmpty());
+
+        var dominators = DominatorTree.build(cfg);
+        assertSame(cfg.getEntry(), dominators.getImmediateDominator(header));
+        assertSame(header, dominators.getImmediateDominator(body));
+        assertTrue(dominators.dominates(header, cfg.getBlock(last(method, ReturnInstruction.class))));
+        assertFalse(dominators.dominates(body, header));
+        assertTrue(dominators.getDominanceFrontier(body).contains(header));
+    }
+
+    @Test
+    public void walkLeavesBlocksAfterTheirSubtree() {
+        var cfg = ControlFlowGraph.build(method("sum"));
+        var dominators = DominatorTree.build(cfg);
+
+        var entered = new ArrayList<BasicBlock>();
+        var open = new ArrayList<BasicBlock>();
+        dominators.walk(block -> {
+            // The blocks still open are the dominators of the block entered
+            if (block != cfg.getEntry()) {
+                assertSame(dominators.getImmediateDominator(block), open.getLast());
+            }
+            entered.add(block);
+            open.add(block);
+            return block;
+        }, block -> assertSame(block, open.removeLast()));
+
+        assertEquals(dominators.getPreorder(), entered);
+        assertTrue(open.isEmpty());
+    }
+
+    @Test
+    public void phisAtLoopHeader() {
+        var method = method("sum");
+        var ssa = SsaForm.build(ControlFlowGraph.build(method));
+        var ret = last(method, ReturnInstruction.class);
+
+        // The sum returned comes from before the loop or from its body
+        var value = ssa.getValue(ret, "s");
+        assertTrue(value instanceof SsaValue.Phi);
+        var phi = (SsaValue.Phi) value;
+        assertSame(ssa.getCfg().getBlock(last(method, CondBranchInstruction.class)), ssa.getBlock(phi));
+        for (var operand : phi.getOperands()) {
+            assertTrue(operand instanceof SsaValue.Definition);
+            assertTrue(operand.getUsers().contains(phi));
+        }
+        assertNotSame(phi.getOperands().get(0), phi.getOperands().get(1));
+        assertTrue(value.getUsers().contains(ret));
+    }
+
+    @Test
+    public void entryIsNotLoopHeader() {
+        var method = method("count");
+        var cfg = ControlFlowGraph.build(method);
+
+        // The method starts with the loop condition, which gets a block of its own after an empty entry
+        assertTrue(cfg.getEntry().getInstructions().isEmpty());
+        assertTrue(cfg.getEntry().getPredecessors().isEmpty());
+
+        var ssa = SsaForm.build(cfg);
+        var phi = (SsaValue.Phi) ssa.getValue(last(method, ReturnInstruction.class), "n");
+        assertSame(ssa.getEntry("n"), phi.getOperands().get(0));
+        assertTrue(phi.getOperands().get(1) instanceof SsaValue.Definition);
+    }
+
+    @Test
+    public void lowerKeepsCode() {
+        var method = method("sum");
+        var instructions = new ArrayList<>(method.getInstructions());
+        var labels = new HashMap<>(method.getLabels());
+
+        ControlFlowGraph.build(method).lower();
+
+        assertEquals(instructions, method.getInstructions());
+        assertEquals(labels, method.getLabels());
+    }
+
+    @Test
+    public void lowerMovesLabelsOfRemovedInstructions() {
+        var method = method("sum");
+        var cfg = ControlFlowGraph.build(method);
+        var branch = last(method, CondBranchInstruction.class);
+        var header = cfg.getBlock(branch);
+        var label = header.getLabels().get(0);
+
+        // Removing the condition of the loop leaves its label on the branch
+        int size = method.getInstructions().size();
+        var condition = header.getInstructions().removeFirst();
+        cfg.lower();
+
+        assertSame(branch, method.getLabels().get(label));
+        assertFalse(method.getInstructions().contains(condition));
+        assertEquals(size - 1, method.getInstructions().size());
+    }
+}
@@ -0,0 +1,225 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.optimization.DeadCodeEliminator;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Dead store and unreachable code elimination on the OLLIR of each method ('-o').
+ */
+public class DeadCodeEliminatorTest {
+
+    private static final Map<String, String> OPTIMIZE = Map.of("optimize", "true");
+
+    private static final String CODE = """
+            import io;
+            class Dead {
+                int f;
+                public int stores(int x, int y) {
+                    int a;
+                    int b;
+                    int c;
+                    a = x + y;
+                    b = a * 2;
+                    c = this.id(x);
+                    a = f;
+                    return x;
+                }
+                public int id(int x) {
+                    return x;
+                }
+                public int arrays(int n) {
+                    int[] a;
+                    int q;
+                    a = new int[n];
+                    a[0] = n;
+                    q = n / 0;
+                    return n;
+                }
+                public int overwritten(int x) {
+                    int a;
+                    a = 0;
+                    a = x;
+                    return a;
+                }
+                public int loop(int n) {
+                    while (true) {
+                        n = n - 1;
+                    }
+                    return n;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static Method method(String name) {
+        return method(CODE, OPTIMIZE, name);
+    }
+
+    private static Method method(String code, Map<String, String> config, String name) {
+        return TestUtils.optimize(code, config).getOllirClass().getMethods().stream()
+                .filter(method -> method.getMethodName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean assigns(Method method, String variable) {
+        return method.getInstructions().stream()
+                .anyMatch(instruction -> instruction instanceof AssignInstruction assign
+                        && assign.getDest() instanceof Operand dest && dest.getName().equals(variable));
+    }
+
+    private static boolean computes(Method method, Class<? extends Instruction> type) {
+        return method.getInstructions().stream()
+                .anyMatch(instruction -> instruction instanceof AssignInstruction assign && type.isInstance(assign.getRhs()));
+    }
+
+    @Test
+    public void removesDeadStores() {
+        var method = method("stores");
+
+        // The sum is only read by the product, which is never read, and the call stays for its side effects
+        assertFalse(assigns(method, "a"));
+        assertFalse(assigns(method, "b"));
+        assertFalse(assigns(method, "c"));
+        assertTrue(computes(method, InvokeVirtualInstruction.class));
+
+        // Locals no longer assigned leave the variable table
+        assertFalse(method.getVarTable().containsKey("b"));
+        assertFalse(method.getVarTable().containsKey("c"));
+        assertEquals(4, method.getVarTable().values().stream()
+                .mapToInt(descriptor -> descriptor.getVirtualReg() + 1).max().orElseThrow());
+    }
+
+    @Test
+    public void removesDeadLiteralStores() {
+        var method = method("overwritten");
+
+        // The literal is overwritten before any read
+        assertEquals(1, method.getInstructions().stream()
+                .filter(instruction -> instruction instanceof AssignInstruction assign
+                        && assign.getDest() instanceof Operand dest && dest.getName().equals("a"))
+                .count());
+
+        // A temporary assigned a literal and never read goes, a propagated local of the source keeps its single
+        // literal store
+        var ollirResult = new OllirResult("""
+                Temps {
+                    .construct Temps().V {
+                        invokespecial(this, "<init>").V;
+                    }
+                    .method public foo().i32 {
+                        tmp0.i32 :=.i32 5.i32;
+                        a.i32 :=.i32 3.i32;
+                        ret.i32 3.i32;
+                    }
+                }
+                """, Map.of());
+        var classUnit = ollirResult.getOllirClass();
+        classUnit.buildVarTables();
+        DeadCodeEliminator.eliminate(classUnit, Map.of("foo", Set.of("a")), new CompilerMetrics());
+
+        var foo = classUnit.getMethods().stream()
+                .filter(m -> m.getMethodName().equals("foo"))
+                .findFirst()
+                .orElseThrow();
+        assertFalse(assigns(foo, "tmp0"));
+        assertTrue(assigns(foo, "a"));
+    }
+
+    @Test
+    public void keepsPropagatedStoresOfSourceLocals() {
+        // A local of the source is kept whatever its name, unless the compatibility mode is off
+        var code = """
+                class Kept {
+                    public int prop() {
+                        int tmp0;
+                        tmp0 = 3;
+                        return tmp0;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+
+        assertTrue(TestUtils.optimize(code, OPTIMIZE).getOllirCode().contains("ret.i32 3.i32"));
+        assertTrue(assigns(method(code, OPTIMIZE, "prop"), "tmp0"));
+
+        var config = Map.of("optimize", "true", "keepPropagatedStores", "false");
+        assertFalse(assigns(method(code, config, "prop"), "tmp0"));
+    }
+
+    @Test
+    public void keepsArrayStoresAndDivisions() {
+        var method = method("arrays");
+
+        // The array is read by the store into it, and the division by zero must still throw
+        assertTrue(assigns(method, "a"));
+        assertTrue(computes(method, NewInstruction.class));
+        assertTrue(assigns(method, "q"));
+    }
+
+    @Test
+    public void removesCodeAfterInfiniteLoop() {
+        var method = method("loop");
+
+        assertTrue(method.getInstructions().stream().noneMatch(CondBranchInstruction.class::isInstance));
+        assertTrue(method.getInstructions().stream().noneMatch(ReturnInstruction.class::isInstance));
+        assertTrue(method.getInstructions().stream().anyMatch(GotoInstruction.class::isInstance));
+    }
+
+    @Test
+    public void countsRemovedCode() {
+        var metrics = new CompilerMetrics();
+        var optimization = new JmmOptimizationImpl();
+        optimization.setMetrics(metrics);
+        optimization.optimize(optimization.toOllir(TestUtils.analyse(CODE, OPTIMIZE)));
+
+        var counters = metrics.getCounters();
+        assertEquals(6L, (long) counters.get("optimization/dead-stores"));
+        assertEquals(2L, (long) counters.get("optimization/dead-blocks"));
+    }
+
+    @Test
+    public void runsAfterElimination() {
+        var code = """
+                import io;
+                class Run {
+                    public int sum(int n) {
+                        int s;
+                        int i;
+                        int unused;
+                        s = 0;
+                        i = 0;
+                        while (i < n) {
+                            unused = s * i;
+                            s = s + i;
+                            i = i + 1;
+                        }
+                        return s;
+                    }
+                    public static void main(String[] args) {
+                        Run r;
+                        r = new Run();
+                        io.println(r.sum(5));
+                    }
+                }
+                """;
+
+        var jasminResult = TestUtils.backend(code, OPTIMIZE);
+        TestUtils.noErrors(jasminResult);
+        assertEquals("10", jasminResult.run().strip());
+    }
+}
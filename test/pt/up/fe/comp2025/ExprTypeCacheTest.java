@@ -0,0 +1,81 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.ExprTypeCache;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Types of the expressions computed once per expression and method ({@link ExprTypeCache}).
+ */
+public class ExprTypeCacheTest {
+
+    private static final String CODE = """
+            class Types {
+                public int foo(int x) {
+                    return x + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static Supplier<Type> counting(AtomicInteger calls, Type type) {
+        return () -> {
+            calls.incrementAndGet();
+            return type;
+        };
+    }
+
+    @Test
+    public void typeIsComputedOncePerMethod() {
+        var cache = new ExprTypeCache();
+        var node = TestUtils.parse(CODE).getRootNode();
+        var calls = new AtomicInteger();
+
+        var type = cache.get(node, "foo", counting(calls, TypeUtils.newIntType()));
+        assertSame(type, cache.get(node, "foo", counting(calls, TypeUtils.newBooleanType())));
+        assertEquals(1, calls.get());
+
+        // The same node in another method is another entry
+        assertSame(TypeUtils.newBooleanType(), cache.get(node, "main", counting(calls, TypeUtils.newBooleanType())));
+        assertEquals(2, calls.get());
+        assertEquals(2, cache.size());
+
+        // An unknown type is cached too
+        var other = node.getChildren().get(0);
+        assertNull(cache.get(other, "foo", counting(calls, null)));
+        assertNull(cache.get(other, "foo", counting(calls, null)));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void analysisFillsTheCacheOfTheTable() {
+        var semantics = TestUtils.analyse(CODE);
+        TestUtils.noErrors(semantics);
+        var table = (JmmSymbolTable) semantics.getSymbolTable();
+
+        JmmNode sum = semantics.getRootNode().getDescendants(Kind.BINARY_EXPR).get(0);
+        int size = table.getExprTypes().size();
+        assertTrue(size > 0);
+
+        // Already computed by the analysis, so new utilities get the same instance without computing it again
+        var types = new TypeUtils(table);
+        types.setCurrentMethod("foo");
+        var calls = new AtomicInteger();
+        var type = types.getExprType(sum);
+        assertSame(type, table.getExprTypes().get(sum, "foo", counting(calls, TypeUtils.newBooleanType())));
+        assertEquals(0, calls.get());
+        assertEquals(size, table.getExprTypes().size());
+        assertEquals("int", type.getName());
+    }
+}
@@ -0,0 +1,133 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.analysis.AnalysisVisitor;
+import pt.up.fe.comp2025.analysis.FusedAnalysis;
+import pt.up.fe.comp2025.analysis.passes.*;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Running the passes in one traversal ({@link FusedAnalysis}) must give each pass the reports it gives when run
+ * alone, in pass order.
+ */
+public class FusedAnalysisTest {
+
+    /**
+     * Reports every method, and fails at the second one.
+     */
+    private static class FailingPass extends AnalysisVisitor {
+        private int methods;
+
+        @Override
+        public void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
+        }
+
+        private Void visitMethodDecl(JmmNode method, SymbolTable table) {
+            if (++methods == 2) {
+                throw new IllegalStateException("Failed at " + method.get("name"));
+            }
+
+            addReport(newError(method, "Method " + method.get("name")));
+            return null;
+        }
+    }
+
+    // Same passes, in the same order, as the analysis
+    private static List<AnalysisVisitor> passes() {
+        return List.of(new UndeclaredVariable(), new InvalidOperationCheck(), new ControlFlowTypeCheck(),
+                new ArrayOperationCheck(), new ReturnStmt(), new AssignmentCheck(), new ArgumentCheck(),
+                new ImportCheck(), new VarDeclCheck());
+    }
+
+    private static List<String> describe(List<Report> reports) {
+        return reports.stream()
+                .map(report -> report.getType() + "@" + report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .toList();
+    }
+
+    private static void sameReports(String code, List<AnalysisVisitor> separate, List<AnalysisVisitor> fused) {
+        var semantics = TestUtils.analyse(code);
+        var root = semantics.getRootNode();
+        var table = semantics.getSymbolTable();
+        if (root == null || table == null) {
+            return;
+        }
+
+        var results = new FusedAnalysis(fused).analyze(root, table);
+        assertEquals(separate.size(), results.size());
+
+        for (int i = 0; i < separate.size(); i++) {
+            var result = results.get(i);
+            assertSame(fused.get(i), result.getPass());
+
+            List<Report> reports;
+            try {
+                reports = separate.get(i).analyze(root, table);
+            } catch (RuntimeException e) {
+                assertNotNull(result.getException());
+                assertEquals(e.getClass(), result.getException().getClass());
+                assertEquals(e.getMessage(), result.getException().getMessage());
+                assertNull(result.getReports());
+                continue;
+            }
+
+            assertNull(result.getException());
+            assertEquals(describe(reports), describe(result.getReports()));
+        }
+    }
+
+    @Test
+    public void semanticAnalysisInputs() {
+        var inputs = SpecsIo.getFilesRecursive(new File("test/pt/up/fe/comp/cp1/semanticanalysis"), List.of("jmm"));
+        assertFalse(inputs.isEmpty());
+
+        for (var input : inputs) {
+            sameReports(SpecsIo.read(input), passes(), passes());
+        }
+    }
+
+    @Test
+    public void failingPassKeepsItsException() {
+        var code = """
+                class Errors {
+                    public int m0() {
+                        return true;
+                    }
+                    public int m1() {
+                        return undeclared;
+                    }
+                    public int m2(int x) {
+                        return x + false;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+
+        var separate = new ArrayList<>(passes());
+        separate.add(2, new FailingPass());
+        var fused = new ArrayList<>(passes());
+        fused.add(2, new FailingPass());
+
+        // The other passes keep visiting the methods after the failure
+        sameReports(code, separate, fused);
+
+        var results = new FusedAnalysis(List.of(new FailingPass(), new UndeclaredVariable()))
+                .analyze(TestUtils.parse(code).getRootNode(), TestUtils.analyse(code).getSymbolTable());
+        assertEquals("Failed at m1", results.get(0).getException().getMessage());
+        assertNull(results.get(1).getException());
+        assertEquals(1, results.get(1).getReports().size());
+    }
+}
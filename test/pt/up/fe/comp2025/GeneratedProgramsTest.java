@@ -0,0 +1,117 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compiles programs from {@link JmmProgramGenerator}, which are larger than the hand-written test inputs.
+ */
+public class GeneratedProgramsTest {
+
+    private static void compiles(JmmProgramGenerator generator, Map<String, String> config) {
+        var code = generator.generate("Generated");
+        var result = new CompilationPipeline().compile(code, config);
+
+        assertFalse("Generated program did not compile: " + result.getReports() + "\n\n" + code, result.hasErrors());
+        assertEquals("Generated", result.getClassName());
+    }
+
+    @Test
+    public void defaultProgram() {
+        compiles(JmmProgramGenerator.builder().build(), Collections.emptyMap());
+    }
+
+    @Test
+    public void deepLoopsAndManyVariables() {
+        var generator = JmmProgramGenerator.builder()
+                .methods(3)
+                .statementsPerMethod(120)
+                .loopDepth(5)
+                .variables(20)
+                .seed(7)
+                .build();
+
+        compiles(generator, Collections.emptyMap());
+    }
+
+    @Test
+    public void callsAndArrays() {
+        var generator = JmmProgramGenerator.builder()
+                .methods(10)
+                .statementsPerMethod(40)
+                .callDensity(0.4)
+                .arrayUsage(0.4)
+                .seed(3)
+                .build();
+
+        compiles(generator, Collections.emptyMap());
+    }
+
+    @Test
+    public void optimized() {
+        var generator = JmmProgramGenerator.builder().methods(6).statementsPerMethod(60).seed(11).build();
+
+        compiles(generator, Map.of(ConfigOptions.getOptimize(), "true"));
+    }
+
+    @Test
+    public void registerAllocation() {
+        var generator = JmmProgramGenerator.builder().methods(6).statementsPerMethod(60).seed(13).build();
+
+        compiles(generator, Map.of(ConfigOptions.getRegister(), "0"));
+    }
+
+    @Test
+    public void arrayStoresOfCompoundValues() {
+        var code = """
+                import io;
+                class Stores {
+                    public static void main(String[] args) {
+                        int[] a;
+                        int x;
+                        a = new int[3];
+                        x = 4;
+                        a[0] = x + 1;
+                        a[1] = a[0] * (x - 2) + 3;
+                        a[a[0] - 3] = a[1] - a[0];
+                        io.println(a[0]);
+                        io.println(a[1]);
+                        io.println(a[2]);
+                    }
+                }
+                """;
+
+        for (var registers : new String[]{"-1", "0", "4"}) {
+            var jasminResult = TestUtils.backend(code, Map.of(ConfigOptions.getRegister(), registers));
+            TestUtils.noErrors(jasminResult);
+            assertEquals("5\n13\n8", jasminResult.run().trim().replace("\r\n", "\n"));
+        }
+
+        var generator = JmmProgramGenerator.builder().methods(4).statementsPerMethod(30).arrayUsage(0.6).seed(17).build();
+        var output = TestUtils.backend(generator.generate("Generated")).runWithFullOutput();
+        assertEquals("Error while running generated program: " + output.getOutput(), 0, output.getReturnValue());
+    }
+
+    @Test
+    public void sameSeedSameProgram() {
+        var builder = JmmProgramGenerator.builder().methods(5).seed(42);
+
+        assertEquals(builder.build().generate("A"), builder.build().generate("A"));
+    }
+
+    @Test
+    public void runs() {
+        var generator = JmmProgramGenerator.builder().methods(4).statementsPerMethod(30).callDensity(0.3).seed(5).build();
+        var jasminResult = TestUtils.backend(generator.generate("Generated"));
+        TestUtils.noErrors(jasminResult);
+
+        var output = jasminResult.runWithFullOutput();
+        assertEquals("Error while running generated program: " + output.getOutput(), 0, output.getReturnValue());
+    }
+}
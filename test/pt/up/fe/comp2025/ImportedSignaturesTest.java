@@ -0,0 +1,185 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.classpath.ClassSignature;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Signatures of the imported classes in libs-jmm/compiled, given with '-c'.
+ */
+public class ImportedSignaturesTest {
+
+    private static final String CLASSPATH = TestUtils.getLibsClasspath();
+    private static final Map<String, String> CONFIG = Map.of("classpath", CLASSPATH);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static String program(String mainBody) {
+        return """
+                import io;
+                import MathUtils;
+                class Imports {
+                    public static void main(String[] args) {
+                        int a;
+                        %s
+                    }
+                }
+                """.formatted(mainBody);
+    }
+
+    @Test
+    public void cacheIsReused() throws Exception {
+        var cacheFile = new File(temp.getRoot(), "signatures.idx");
+        var classpath = List.of(new File(CLASSPATH));
+
+        var first = SignatureIndex.load(classpath, cacheFile);
+        assertTrue(cacheFile.isFile());
+        assertEquals(first.size(), first.getParsedClasses());
+
+        var second = SignatureIndex.load(classpath, cacheFile);
+        assertEquals(0, second.getParsedClasses());
+        assertEquals(first.size(), second.getCachedClasses());
+
+        var io = second.find("io").orElseThrow();
+        assertEquals("java.lang.Object", io.getSuperName());
+        var printlnDescriptors = io.getMethods("println").stream().map(ClassSignature.Member::descriptor).toList();
+        assertTrue(printlnDescriptors.containsAll(List.of("()V", "(I)V", "(Ljava/lang/String;I)V")));
+        assertTrue(second.find("NotAClass").isEmpty());
+    }
+
+    @Test
+    public void inconsistentCacheIsRebuilt() throws Exception {
+        var cacheFile = new File(temp.getRoot(), "signatures.idx");
+        var classpath = List.of(new File(CLASSPATH));
+        var size = SignatureIndex.load(classpath, cacheFile).size();
+        var valid = Files.readAllBytes(cacheFile.toPath());
+
+        var truncated = Arrays.copyOf(valid, valid.length - 5);
+        var trailing = Arrays.copyOf(valid, valid.length + 5);
+        var hugeCount = valid.clone();
+        ByteBuffer.wrap(hugeCount).putInt(8, Integer.MAX_VALUE);
+        var negativeLength = valid.clone();
+        ByteBuffer.wrap(negativeLength).putInt(12 + 32, -1);
+
+        for (var cache : List.of(truncated, trailing, hugeCount, negativeLength)) {
+            Files.write(cacheFile.toPath(), cache);
+
+            var index = SignatureIndex.load(classpath, cacheFile);
+            assertEquals(size, index.getParsedClasses());
+            assertEquals(0, index.getCachedClasses());
+            assertTrue(index.find("io").isPresent());
+            assertArrayEquals(valid, Files.readAllBytes(cacheFile.toPath()));
+        }
+    }
+
+    /**
+     * Compiles a Java class into the given folder, replacing its previous version.
+     */
+    static void compileClass(File folder, String className, String source) throws IOException {
+        var sourceFile = new File(folder, className + ".java");
+        Files.writeString(sourceFile.toPath(), source);
+        try {
+            var compiler = ToolProvider.getSystemJavaCompiler();
+            assertEquals(0, compiler.run(null, null, null, "-d", folder.getAbsolutePath(), sourceFile.getAbsolutePath()));
+        } finally {
+            Files.delete(sourceFile.toPath());
+        }
+    }
+
+    @Test
+    public void indexIsReloadedWhenClassesChange() throws Exception {
+        var folder = temp.newFolder("lib");
+        var classpath = List.of(folder);
+        var config = Map.of("classpath", folder.getAbsolutePath());
+        var code = "import Lib; class Calls { public static void main(String[] args) { Lib.f(1); } }";
+
+        compileClass(folder, "Lib", "public class Lib { public static int f(int a) { return a; } }");
+        var first = SignatureIndex.forClasspath(classpath);
+        assertSame(first, SignatureIndex.forClasspath(classpath));
+        TestUtils.noErrors(TestUtils.analyse(code, config));
+
+        // The library is rebuilt without the method, in the same JVM
+        compileClass(folder, "Lib", "public class Lib { public static int g(int a) { return a; } }");
+        var second = SignatureIndex.forClasspath(classpath);
+        assertNotSame(first, second);
+        assertNotEquals(first.getFingerprint(), second.getFingerprint());
+        assertTrue(second.findMethods("Lib", "f").orElseThrow().isEmpty());
+        TestUtils.mustFail(TestUtils.analyse(code, config));
+    }
+
+    @Test
+    public void unchangedClassFilesAreNotReadAgain() throws Exception {
+        var folder = temp.newFolder("stamped");
+        var classpath = List.of(folder);
+        var classFile = new File(folder, "Lib.class").toPath();
+        var modified = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+
+        compileClass(folder, "Lib", "public class Lib { public static int f(int a) { return a; } }");
+        Files.setLastModifiedTime(classFile, modified);
+        var first = SignatureIndex.forClasspath(classpath);
+
+        // Other contents with the same size and modification time are not seen
+        var other = temp.newFolder("other");
+        compileClass(other, "Lib", "public class Lib { public static int g(int a) { return a; } }");
+        var otherBytes = Files.readAllBytes(new File(other, "Lib.class").toPath());
+        assertEquals(Files.size(classFile), otherBytes.length);
+        Files.write(classFile, otherBytes);
+        Files.setLastModifiedTime(classFile, modified);
+        assertSame(first, SignatureIndex.forClasspath(classpath));
+
+        // A new modification time makes the file be hashed again
+        Files.setLastModifiedTime(classFile, FileTime.fromMillis(modified.toMillis() + 1000));
+        var second = SignatureIndex.forClasspath(classpath);
+        assertNotSame(first, second);
+        assertTrue(second.findMethods("Lib", "f").orElseThrow().isEmpty());
+        assertEquals(1, second.findMethods("Lib", "g").orElseThrow().size());
+    }
+
+    @Test
+    public void validCalls() {
+        TestUtils.noErrors(TestUtils.analyse(program("a = MathUtils.random(1, 2); io.println(a); io.print(true);"), CONFIG));
+    }
+
+    @Test
+    public void unknownMethod() {
+        TestUtils.mustFail(TestUtils.analyse(program("io.printline(1);"), CONFIG));
+    }
+
+    @Test
+    public void wrongArguments() {
+        TestUtils.mustFail(TestUtils.analyse(program("io.println(1, 2);"), CONFIG));
+        TestUtils.mustFail(TestUtils.analyse(program("a = MathUtils.random(true, 2);"), CONFIG));
+    }
+
+    @Test
+    public void withoutClasspathCallsAreAssumed() {
+        TestUtils.noErrors(TestUtils.analyse(program("io.printline(1, 2);")));
+    }
+
+    @Test
+    public void exactDescriptors() {
+        // random returns an int, even when its result is discarded
+        var code = program("MathUtils.random(1, 1); a = MathUtils.random(3, 3); io.println(a);");
+
+        var jasminResult = TestUtils.backend(code, CONFIG);
+        TestUtils.noErrors(jasminResult);
+
+        assertEquals("3", jasminResult.run().strip());
+    }
+}
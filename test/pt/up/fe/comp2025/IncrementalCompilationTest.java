@@ -0,0 +1,157 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recompilation of the methods of a class that changed, with a build cache ('-b').
+ */
+public class IncrementalCompilationTest {
+
+    private static final String CODE = """
+            import io;
+            class A {
+                int count;
+                boolean flag;
+                public int add(int x) {
+                    count = count + x;
+                    return count;
+                }
+                public boolean toggle() {
+                    flag = !flag;
+                    return flag;
+                }
+                public int twice(int x) {
+                    int y;
+                    y = this.add(x);
+                    return this.add(y);
+                }
+                public static void main(String[] args) {
+                    io.println(1);
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Map<String, String> config() {
+        var config = new HashMap<String, String>();
+        config.put("buildCache", temp.getRoot().getAbsolutePath());
+        config.put("timing", "true");
+        config.put("registerAllocation", "0");
+
+        return config;
+    }
+
+    private MethodKeys keys(String code) {
+        // Only the symbol table is needed, the keys do not depend on the analysis
+        var semantics = new JmmAnalysisImpl().buildSymbolTable(TestUtils.parse(code));
+
+        return MethodKeys.compute(semantics.getRootNode(), (JmmSymbolTable) semantics.getSymbolTable(), config());
+    }
+
+    @Test
+    public void editChangesOnlyItsMethod() {
+        var keys = keys(CODE);
+        var edited = keys(CODE.replace("flag = !flag;", "flag = !flag;\n        flag = !flag;"));
+
+        assertNotEquals(keys.get("toggle"), edited.get("toggle"));
+        assertEquals(keys.get("add"), edited.get("add"));
+        assertEquals(keys.get("main"), edited.get("main"));
+
+        // Methods after the edit moved down, which does not change them
+        assertEquals(keys.get("twice"), edited.get("twice"));
+    }
+
+    @Test
+    public void keysDependOnSymbolsUsed() {
+        var keys = keys(CODE);
+
+        // Only 'toggle' reads the changed field
+        var field = keys(CODE.replace("boolean flag;", "int flag;"));
+        assertNotEquals(keys.get("toggle"), field.get("toggle"));
+        assertEquals(keys.get("add"), field.get("add"));
+
+        // Declaring a name that a method uses changes how it resolves, locals shadow fields
+        var declared = keys(CODE.replace("int count;", "int count;\n    int y;\n    int io;"));
+        assertNotEquals(keys.get("main"), declared.get("main"));
+        assertEquals(keys.get("twice"), declared.get("twice"));
+
+        // Callers depend on the signature of the methods they call
+        var signature = keys(CODE.replace("public int add(int x)", "public int add(int x, int z)")
+                .replace("this.add(x)", "this.add(x, x)").replace("this.add(y)", "this.add(y, y)"));
+        assertNotEquals(keys.get("twice"), signature.get("twice"));
+        assertEquals(keys.get("toggle"), signature.get("toggle"));
+    }
+
+    @Test
+    public void recompilesOnlyChangedMethods() {
+        var pipeline = new CompilationPipeline();
+
+        var first = pipeline.compile(CODE, config());
+        assertFalse(first.hasErrors());
+        assertEquals(Long.valueOf(4), first.getMetrics().getCounters().get("incremental/ollir/rebuilt"));
+
+        var editedCode = CODE.replace("io.println(1);", "io.println(2);");
+        var edited = pipeline.compile(editedCode, config());
+        assertFalse(edited.isCached());
+        assertFalse(edited.hasErrors());
+
+        var counters = edited.getMetrics().getCounters();
+        assertEquals(Long.valueOf(3), counters.get("incremental/analysis/reused"));
+        assertEquals(Long.valueOf(3), counters.get("incremental/ollir/reused"));
+        assertEquals(Long.valueOf(1), counters.get("incremental/ollir/rebuilt"));
+        assertEquals(Long.valueOf(3), counters.get("incremental/jasmin/reused"));
+        assertEquals(Long.valueOf(1), counters.get("incremental/jasmin/rebuilt"));
+
+        // The output is the same as compiling the edited class from scratch
+        var fresh = new CompilationPipeline().compile(editedCode, Map.of("registerAllocation", "0"));
+        assertEquals(fresh.getJasminCode(), edited.getJasminCode());
+        assertEquals(fresh.getReports().size(), edited.getReports().size());
+    }
+
+    @Test
+    public void libraryChangeRebuildsItsCallers() throws Exception {
+        var lib = temp.newFolder("lib");
+        var config = config();
+        config.put("classpath", lib.getAbsolutePath());
+        var code = CODE.replace("import io;", "import io;\nimport Lib;")
+                .replace("return count;", "return Lib.f(count);");
+        var pipeline = new CompilationPipeline();
+
+        ImportedSignaturesTest.compileClass(lib, "Lib", "public class Lib { public static int f(int a) { return a; } }");
+        assertFalse(pipeline.compile(code, config).hasErrors());
+
+        // The source is edited too, so the class is not a hit of the whole-class cache
+        ImportedSignaturesTest.compileClass(lib, "Lib", "public class Lib { public static int g(int a) { return a; } }");
+        var rebuilt = pipeline.compile(code.replace("io.println(1);", "io.println(2);"), config);
+        TestUtils.mustFail(rebuilt.getReports());
+        assertNull(rebuilt.getMetrics().getCounters().get("incremental/analysis/reused"));
+    }
+
+    @Test
+    public void reportsFollowTheirMethod() {
+        var code = CODE.replace("return flag;", "return 1;");
+        var pipeline = new CompilationPipeline();
+
+        var first = pipeline.compile(code, config());
+        TestUtils.mustFail(first.getReports());
+        int line = first.getReports().getFirst().getLine();
+
+        // Lines are added above the method, whose analysis is reused
+        var moved = pipeline.compile(code.replace("int count;", "int count;\n\n"), config());
+        TestUtils.mustFail(moved.getReports());
+        assertEquals(Long.valueOf(4), moved.getMetrics().getCounters().get("incremental/analysis/reused"));
+        assertEquals(line + 2, moved.getReports().getFirst().getLine());
+    }
+}
@@ -0,0 +1,44 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * OLLIR generated for statements whose code the legacy suites do not look at.
+ */
+public class OllirGeneratorTest {
+
+    private static final String CODE = """
+            import io;
+            class Stores {
+                public static void main(String[] args) {
+                    int[] a;
+                    int i;
+                    int x;
+                    a = new int[2];
+                    i = 1;
+                    x = 4;
+                    a[i] = x + 1;
+                    a[0] = a[i] * 2;
+                    io.println(a[0] + a[1]);
+                }
+            }
+            """;
+
+    @Test
+    public void arrayStoreOfASimpleOperationIsInline() {
+        var ollirResult = TestUtils.optimize(CODE);
+        TestUtils.noErrors(ollirResult);
+
+        var ollirCode = ollirResult.getOllirCode();
+        assertTrue(ollirCode, ollirCode.contains("a[i.i32].i32 :=.i32 x.i32+.i32 1.i32;"));
+
+        // Operands that are not simple are computed before the store
+        assertTrue(ollirCode, ollirCode.matches("(?s).*(tmp\\d+)\\.i32 :=\\.i32 tmp\\d+\\.i32 \\*\\.i32 2\\.i32;\\s*"
+                + "a\\[0\\.i32]\\.i32 :=\\.i32 \\1\\.i32;.*"));
+
+        assertEquals("15", TestUtils.backend(CODE).run().trim());
+    }
+}
@@ -0,0 +1,77 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.generator.JmmProgramGenerator;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checking methods in parallel ('-p') must report exactly what the sequential analysis reports, in the same order.
+ */
+public class ParallelAnalysisTest {
+
+    private static final Map<String, String> SEQUENTIAL = Map.of();
+    private static final Map<String, String> PARALLEL = Map.of("parallelAnalysis", "4");
+
+    private static List<String> describe(List<Report> reports) {
+        return reports.stream()
+                .map(report -> report.getType() + "@" + report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .toList();
+    }
+
+    private static void sameReports(String code) {
+        var sequential = TestUtils.analyse(code, SEQUENTIAL).getReports();
+        var parallel = TestUtils.analyse(code, PARALLEL).getReports();
+
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void semanticAnalysisInputs() {
+        var inputs = SpecsIo.getFilesRecursive(new File("test/pt/up/fe/comp/cp1/semanticanalysis"), List.of("jmm"));
+        assertFalse(inputs.isEmpty());
+
+        for (var input : inputs) {
+            sameReports(SpecsIo.read(input));
+        }
+    }
+
+    @Test
+    public void manyMethods() {
+        var generator = JmmProgramGenerator.builder().methods(100).statementsPerMethod(20).seed(9).build();
+        var code = generator.generate("Generated");
+
+        sameReports(code);
+        TestUtils.noErrors(TestUtils.analyse(code, PARALLEL));
+    }
+
+    @Test
+    public void errorsInSeveralMethods() {
+        var code = """
+                class Errors {
+                    int a;
+                    public int m0() {
+                        return true;
+                    }
+                    public int m1() {
+                        return undeclared;
+                    }
+                    public int m2(int x) {
+                        return x + false;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+
+        sameReports(code);
+        TestUtils.mustFail(TestUtils.analyse(code, PARALLEL).getReports());
+    }
+}
@@ -0,0 +1,99 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs programs whose registers were allocated with '-r', the output must not change.
+ */
+public class RegisterAllocatorTest {
+
+    private static String run(String code, int registers) {
+        var jasminResult = TestUtils.backend(code, Map.of(ConfigOptions.getRegister(), Integer.toString(registers)));
+        TestUtils.noErrors(jasminResult);
+
+        return jasminResult.run().trim().replace("\r\n", "\n");
+    }
+
+    @Test
+    public void arrayReadIsNotACopy() {
+        // 'tmp = a[0]' does not copy 'a', which is still live
+        var code = """
+                import io;
+                class ArrayReads {
+                    public static void main(String[] args) {
+                        int[] a;
+                        int x;
+                        a = new int[2];
+                        a[0] = 3;
+                        a[1] = 4;
+                        x = a[0] * a[1];
+                        io.println(x - a[1]);
+                    }
+                }
+                """;
+
+        assertEquals("8", run(code, 0));
+    }
+
+    @Test
+    public void limitCountsOnlyLocals() {
+        var code = """
+                import io;
+                class Params {
+                    public int sum(int a, int b, int c) {
+                        int s;
+                        s = 1;
+                        a = a + s;
+                        b = b + a;
+                        c = c + b;
+                        s = s + c;
+                        return s;
+                    }
+                    public static void main(String[] args) {
+                        Params p;
+                        p = new Params();
+                        io.println(p.sum(1, 2, 3));
+                    }
+                }
+                """;
+
+        // The parameters are assigned while the others are live, they keep registers 1 to 3 and do not count towards '-r'
+        var ollirResult = TestUtils.optimize(code, Map.of(ConfigOptions.getRegister(), "2"));
+        TestUtils.noErrors(ollirResult);
+        var varTable = CpUtils.getMethod(ollirResult, "sum").getVarTable();
+        assertEquals(3, varTable.get("c").getVirtualReg());
+        assertEquals(4, varTable.get("s").getVirtualReg());
+
+        assertEquals("8", run(code, 2));
+    }
+
+    @Test
+    public void copyGroupColorIsNotSharedWithNeighbors() {
+        // 'x' and 'y' are copies of temporaries in the same group, and both are live at the first print
+        var code = """
+                import io;
+                class CopyGroups {
+                    public static void main(String[] args) {
+                        int[] a;
+                        int x;
+                        int y;
+                        a = new int[2];
+                        a[0] = 3;
+                        a[1] = 4;
+                        x = a[0];
+                        y = a[1];
+                        io.println(x * 10 + y);
+                        io.println(a[0] + a[1]);
+                    }
+                }
+                """;
+
+        assertEquals("34\n7", run(code, 10));
+    }
+}
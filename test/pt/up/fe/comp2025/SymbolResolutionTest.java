@@ -0,0 +1,66 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.ResolvedSymbol.Origin;
+
+import static org.junit.Assert.*;
+
+/**
+ * Name resolution through {@link JmmSymbolTable#resolve(String, String)}.
+ */
+public class SymbolResolutionTest {
+
+    private static final String CODE = """
+            class Scopes {
+                int a;
+                boolean b;
+                int[] c;
+                public int foo(boolean a, int x) {
+                    int[] b;
+                    return x;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static JmmSymbolTable table() {
+        var semantics = TestUtils.analyse(CODE);
+        TestUtils.noErrors(semantics);
+
+        return (JmmSymbolTable) semantics.getSymbolTable();
+    }
+
+    @Test
+    public void localsShadowParametersShadowFields() {
+        var table = table();
+
+        var a = table.resolve("foo", "a");
+        assertEquals(Origin.PARAMETER, a.origin());
+        assertEquals("boolean", a.getType().getName());
+        assertEquals(0, a.slot());
+
+        var b = table.resolve("foo", "b");
+        assertEquals(Origin.LOCAL, b.origin());
+        assertTrue(b.getType().isArray());
+
+        var c = table.resolve("foo", "c");
+        assertTrue(c.isField());
+        assertEquals(2, c.slot());
+
+        assertEquals(1, table.resolve("foo", "x").slot());
+        assertNull(table.resolve("foo", "y"));
+    }
+
+    @Test
+    public void unknownMethodSeesOnlyFields() {
+        var table = table();
+
+        assertTrue(table.resolve(null, "a").isField());
+        assertTrue(table.resolve("bar", "b").isField());
+        assertNull(table.resolve("bar", "x"));
+        assertEquals(Origin.PARAMETER, table.resolve("main", "args").origin());
+    }
+}
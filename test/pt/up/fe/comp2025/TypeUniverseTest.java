@@ -0,0 +1,104 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUniverse;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.classpath.Descriptors;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Types of the symbols, of the expressions and of the imported methods are the canonical instances of the
+ * {@link TypeUniverse} of the compilation.
+ */
+public class TypeUniverseTest {
+
+    private static final Map<String, String> CONFIG = Map.of("classpath", TestUtils.getLibsClasspath());
+
+    private static final String CODE = """
+            import BoardBase;
+            class Types {
+                BoardBase board;
+                public int[] turn(Types other, int n) {
+                    int[] a;
+                    BoardBase b;
+                    b = new BoardBase();
+                    a = BoardBase.playerTurn(n + 1);
+                    return a;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static JmmSymbolTable table(String code) {
+        var semantics = TestUtils.analyse(code, CONFIG);
+        TestUtils.noErrors(semantics);
+
+        return (JmmSymbolTable) semantics.getSymbolTable();
+    }
+
+    private static Type typeOf(List<Symbol> symbols, String name) {
+        return symbols.stream()
+                .filter(symbol -> symbol.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getType();
+    }
+
+    @Test
+    public void sameInstanceFromEverySource() {
+        var semantics = TestUtils.analyse(CODE, CONFIG);
+        TestUtils.noErrors(semantics);
+        var table = (JmmSymbolTable) semantics.getSymbolTable();
+        var universe = table.getTypeUniverse();
+
+        var types = new TypeUtils(table);
+        types.setCurrentMethod("turn");
+        var root = semantics.getRootNode();
+        JmmNode newObject = root.getDescendants(Kind.OBJECT_CREATION).get(0);
+        JmmNode call = root.getDescendants(Kind.METHOD_CALL).get(0);
+        JmmNode sum = root.getDescendants(Kind.BINARY_EXPR).get(0);
+
+        // A class type: field, local, expression and descriptor
+        var boardBase = universe.get("BoardBase", false);
+        assertSame(boardBase, typeOf(table.getFields(), "board"));
+        assertSame(boardBase, typeOf(table.getLocalVariables("turn"), "b"));
+        assertSame(boardBase, types.getExprType(newObject));
+        assertSame(boardBase, Descriptors.toType("LBoardBase;", universe));
+
+        // The current class
+        assertSame(universe.get("Types", false), typeOf(table.getParameters("turn"), "other"));
+
+        // Built-in types: return type, local, imported call and operator
+        assertSame(TypeUniverse.INT_ARRAY, table.getReturnType("turn"));
+        assertSame(TypeUniverse.INT_ARRAY, typeOf(table.getLocalVariables("turn"), "a"));
+        assertSame(TypeUniverse.INT_ARRAY, types.getExprType(call));
+        assertSame(TypeUniverse.INT, typeOf(table.getParameters("turn"), "n"));
+        assertSame(TypeUniverse.INT, types.getExprType(sum));
+        assertSame(TypeUniverse.STRING_ARRAY, typeOf(table.getParameters("main"), "args"));
+        assertSame(TypeUniverse.VOID, table.getReturnType("main"));
+    }
+
+    @Test
+    public void classTypesBelongToTheirCompilation() {
+        var first = table(CODE).getTypeUniverse();
+        var second = table(CODE).getTypeUniverse();
+
+        assertNotSame(first.get("BoardBase", false), second.get("BoardBase", false));
+        assertSame(first.get("int", true), second.get("int", true));
+
+        // Types created elsewhere are interned to the canonical instances
+        assertSame(first.get("BoardBase", true), first.intern(new Type("BoardBase", true)));
+        assertSame(TypeUniverse.BOOLEAN, first.intern(new Type("boolean", false)));
+    }
+}
@@ -0,0 +1,92 @@
+package pt.up.fe.comp2025.backend;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * The '.limit stack' of a method, from the depth of the stack after each of its instructions.
+ */
+public class JasminStackLimitTest {
+
+    @Test
+    public void arrayStoreOfAnOperation() {
+        var code = """
+                   aload_1
+                   iload_2
+                   iload_3
+                   iconst_1
+                   iadd
+                   iastore
+                   return
+                """;
+
+        assertEquals(4, JasminStackLimit.compute(code));
+    }
+
+    @Test
+    public void callsPopTheirArguments() {
+        var code = """
+                   aload_0
+                   iconst_1
+                   aload_1
+                   invokevirtual A/f(I[ILjava/lang/String;)I
+                   iconst_2
+                   invokestatic io/println(I)V
+                   aload_0
+                   invokevirtual A/g()V
+                   return
+                """;
+
+        assertEquals(3, JasminStackLimit.compute(code));
+    }
+
+    @Test
+    public void branchesStartAtTheDepthOfTheirLabel() {
+        // One of the two constants is on the stack, then both values of the comparison again in the loop
+        var code = """
+                loop:
+                   iload_1
+                   iload_2
+                   if_icmplt less
+                   iconst_0
+                   goto end
+                less:
+                   iconst_1
+                end:
+                   istore_3
+                   iload_1
+                   iload_2
+                   if_icmpge loop
+                   return
+                """;
+
+        assertEquals(2, JasminStackLimit.compute(code));
+    }
+
+    @Test
+    public void callAfterArrayStore() {
+        // Four arguments and the object are on the stack at once, after an array was created and stored to
+        var code = """
+                import io;
+                class Calls {
+                    public int f(int a, int b, int c, int d) {
+                        return a + b + c + d;
+                    }
+                    public static void main(String[] args) {
+                        int[] a;
+                        Calls c;
+                        a = new int[1];
+                        a[0] = 1;
+                        c = new Calls();
+                        io.println(c.f(1, 2, 3, 4));
+                    }
+                }
+                """;
+
+        var jasminResult = TestUtils.backend(code);
+        TestUtils.noErrors(jasminResult);
+        assertEquals("10", jasminResult.run().trim());
+    }
+}
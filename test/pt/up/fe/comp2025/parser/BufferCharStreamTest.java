@@ -0,0 +1,85 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp2025.BuildCache;
+import pt.up.fe.comp2025.JavammLexer;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lexing and parsing from buffers, instead of copies of the whole input.
+ */
+public class BufferCharStreamTest {
+
+    private static final String CODE = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path write(String code) throws Exception {
+        var file = temp.newFile().toPath();
+        Files.writeString(file, code, StandardCharsets.UTF_8);
+
+        return file;
+    }
+
+    private static List<String> tokens(CharStream input) {
+        var lexer = new JavammLexer(input);
+        var tokens = new ArrayList<String>();
+        for (var token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            tokens.add(token.getType() + ":" + token.getText() + "@" + token.getLine() + ":"
+                    + token.getCharPositionInLine());
+        }
+
+        return tokens;
+    }
+
+    @Test
+    public void sameTokensAsInputStream() throws Exception {
+        var expected = tokens(new ANTLRInputStream(CODE));
+
+        assertEquals(expected, tokens(BufferCharStream.fromString(CODE)));
+        assertEquals(expected, tokens(BufferCharStream.fromFile(write(CODE))));
+    }
+
+    @Test
+    public void decodesNonAsciiFiles() throws Exception {
+        var code = "// código é 中\n" + CODE;
+
+        assertEquals(tokens(new ANTLRInputStream(code)), tokens(BufferCharStream.fromFile(write(code))));
+    }
+
+    @Test
+    public void parsesFiles() throws Exception {
+        var parser = new JmmParserImpl();
+        var fromString = parser.parse(CODE, new HashMap<>());
+        var fromFile = parser.parse(write(CODE), new HashMap<>());
+
+        assertNotNull(fromFile.getRootNode());
+        assertEquals(fromString.getRootNode().toTree(), fromFile.getRootNode().toTree());
+
+        // Files and their contents share build cache entries
+        assertEquals(BuildCache.key(CODE, new HashMap<>()), BuildCache.key(write(CODE), new HashMap<>()));
+    }
+
+    @Test
+    public void missingFileIsReported() {
+        var result = new JmmParserImpl().parse(Path.of(temp.getRoot().getPath(), "Missing.jmm"), new HashMap<>());
+
+        assertNull(result.getRootNode());
+        assertFalse(result.getReports().isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter;
+import pt.up.fe.comp2025.JavammLexer;
+import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * The AST built directly from the parse tree is the same as the one of the generic converter.
+ */
+public class JmmAstBuilderTest {
+
+    private static void assertSameTree(JmmNode expected, JmmNode actual) {
+        assertEquals(expected.getHierarchy(), actual.getHierarchy());
+        assertEquals(new HashMap<>(expected.getAttributes().stream()
+                        .collect(Collectors.toMap(attr -> attr, expected::getObject))),
+                new HashMap<>(actual.getAttributes().stream()
+                        .collect(Collectors.toMap(attr -> attr, actual::getObject))));
+        assertEquals(expected.getNumChildren(), actual.getNumChildren());
+
+        for (int i = 0; i < expected.getNumChildren(); i++) {
+            assertSameTree(expected.getChild(i), actual.getChild(i));
+        }
+    }
+
+    /**
+     * @return false if the source has syntax errors, and so no AST
+     */
+    private static boolean checkSource(String code) {
+        var tokens = new CommonTokenStream(new JavammLexer(new ANTLRInputStream(code)));
+        var parser = new JavammParser(tokens);
+        parser.removeErrorListeners();
+        var tree = parser.program();
+
+        if (parser.getNumberOfSyntaxErrors() > 0) {
+            return false;
+        }
+
+        var expected = AntlrToJmmNodeConverter.convert(tree, parser);
+        var actual = JmmAstBuilder.build(tree, tokens);
+
+        assertSameTree(expected, actual);
+        assertEquals(expected.toTree(), actual.toTree());
+
+        return true;
+    }
+
+    @Test
+    public void sameTreesForTestSources() {
+        var sources = SpecsIo.getFilesRecursive(new File("test"), List.of("jmm"));
+        assertFalse(sources.isEmpty());
+
+        for (var source : sources) {
+            checkSource(SpecsIo.read(source));
+        }
+    }
+
+    @Test
+    public void sameTreeForAllConstructs() {
+        assertTrue(checkSource("""
+                import a.b.C;
+                import io;
+                class A extends C {
+                    int[] f;
+                    boolean g;
+                    String s;
+                    C c;
+                    public int foo(int... xs) {
+                        int y;
+                        y = xs[0] * 2 + 1;
+                        g = y - 1 / 2 < 3 && !g;
+                        return y;
+                    }
+                    int bar() {
+                        f = new int[3];
+                        f[1] = [1, 2, 3].length;
+                        c = new C();
+                        if (true) { y = this.foo(1, 2); } else while (false) io.println((1));
+                        return f[0];
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """));
+    }
+}
@@ -0,0 +1,63 @@
+package pt.up.fe.comp2025.parser;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Statistics of the prediction decisions of the parser ('-g').
+ */
+public class ParserProfileTest {
+
+    private static CompilerMetrics profile(String code, boolean sllFirst) {
+        var metrics = new CompilerMetrics();
+        var parser = new JmmParserImpl(sllFirst);
+        parser.setMetrics(metrics);
+
+        var result = parser.parse(code, Map.of("parserProfile", "true"));
+        assertNotNull(result.getRootNode());
+
+        return metrics;
+    }
+
+    @Test
+    public void recordsDecisions() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+        var metrics = profile(code, true);
+
+        assertTrue(metrics.getMeasurements().keySet().stream().anyMatch(name -> name.startsWith("parse/decision/")));
+        assertTrue(metrics.getCounters().keySet().stream().anyMatch(name -> name.endsWith("/sllLookahead")));
+    }
+
+    @Test
+    public void elseNeedsNoFullContext() {
+        // Nested ifs are ambiguous, which full LL prediction would have to solve for every 'else'
+        var code = """
+                class A {
+                    public int foo(int a) {
+                        if (a < 1) if (a < 0) a = 1; else a = 2; else { a = 3; }
+                        if (a < 2) a = 4;
+                        return a;
+                    }
+                }
+                """;
+        var metrics = profile(code, false);
+
+        assertTrue(metrics.getCounters().keySet().stream().noneMatch(name -> name.endsWith("/llFallbacks")));
+        assertTrue(metrics.getCounters().keySet().stream().noneMatch(name -> name.endsWith("/ambiguities")));
+    }
+
+    @Test
+    public void disabledByDefault() {
+        var metrics = new CompilerMetrics();
+        var parser = new JmmParserImpl();
+        parser.setMetrics(metrics);
+        parser.parse("class A { }", Map.of());
+
+        assertTrue(metrics.getMeasurements().isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package pt.up.fe.comp2025.parser;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parsing with SLL prediction first, and with full LL when it fails.
+ */
+public class TwoStageParseTest {
+
+    private static final String CODE = SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/basic/BasicMethodsArray.jmm");
+
+    private static JmmParserImpl parser(CompilerMetrics metrics) {
+        var parser = new JmmParserImpl();
+        parser.setMetrics(metrics);
+
+        return parser;
+    }
+
+    @Test
+    public void validInputUsesSll() {
+        var metrics = new CompilerMetrics();
+        var result = parser(metrics).parse(CODE, new HashMap<>());
+
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("parse/sll"));
+        assertNull(metrics.getCounters().get("parse/ll"));
+        assertTrue(result.getReports().isEmpty());
+        assertEquals(new JmmParserImpl(false).parse(CODE, new HashMap<>()).getRootNode().toTree(),
+                result.getRootNode().toTree());
+    }
+
+    @Test
+    public void errorsAreReportedByLl() {
+        var code = "class A { public int foo( { return 1; } }";
+        var metrics = new CompilerMetrics();
+        var result = parser(metrics).parse(code, new HashMap<>());
+        var expected = new JmmParserImpl(false).parse(code, new HashMap<>());
+
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("parse/ll"));
+        assertNull(result.getRootNode());
+        assertFalse(result.getReports().isEmpty());
+        assertEquals(expected.getReports().size(), result.getReports().size());
+        assertEquals(expected.getReports().getFirst().getMessage(), result.getReports().getFirst().getMessage());
+    }
+
+    @Test
+    public void lexicalErrorsAreReportedByLl() {
+        var code = "class A { int #x; }";
+        var metrics = new CompilerMetrics();
+        var result = parser(metrics).parse(code, new HashMap<>());
+
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("parse/ll"));
+        assertEquals(new JmmParserImpl(false).parse(code, new HashMap<>()).getReports().size(),
+                result.getReports().size());
+    }
+}